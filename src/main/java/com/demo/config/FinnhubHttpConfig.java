@@ -0,0 +1,69 @@
+package com.demo.config;
+
+import com.demo.service.FinnhubHttpMetrics;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.List;
+
+/**
+ * HTTP client used for all Finnhub REST traffic. Connections are pooled and
+ * kept alive between calls so quotes don't pay a TLS handshake each time;
+ * idle and expired connections are evicted in the background.
+ */
+@Configuration
+public class FinnhubHttpConfig {
+
+    @Bean
+    public CloseableHttpClient finnhubHttpClient(
+            @Value("${finnhub.http.connect-timeout-ms:3000}") long connectTimeoutMillis,
+            @Value("${finnhub.http.read-timeout-ms:5000}") long readTimeoutMillis,
+            @Value("${finnhub.http.pool-acquire-timeout-ms:2000}") long poolAcquireTimeoutMillis,
+            @Value("${finnhub.http.max-connections:20}") int maxConnections,
+            @Value("${finnhub.http.max-connections-per-route:10}") int maxConnectionsPerRoute,
+            @Value("${finnhub.http.keep-alive-ms:60000}") long keepAliveMillis,
+            @Value("${finnhub.http.idle-evict-ms:30000}") long idleEvictMillis
+    ) {
+        // Bounded timeouts so a hung Finnhub connection cannot pin request threads
+        ConnectionConfig connectionConfig = ConnectionConfig.custom()
+                .setConnectTimeout(Timeout.ofMilliseconds(connectTimeoutMillis))
+                .setSocketTimeout(Timeout.ofMilliseconds(readTimeoutMillis))
+                .setValidateAfterInactivity(TimeValue.ofSeconds(5))
+                .build();
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(maxConnections)
+                .setMaxConnPerRoute(maxConnectionsPerRoute)
+                .setDefaultConnectionConfig(connectionConfig)
+                .build();
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectionRequestTimeout(Timeout.ofMilliseconds(poolAcquireTimeoutMillis))
+                .setResponseTimeout(Timeout.ofMilliseconds(readTimeoutMillis))
+                .build();
+        return HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(requestConfig)
+                // Finnhub doesn't send a Keep-Alive header, so reuse connections for a fixed time
+                .setKeepAliveStrategy((response, context) -> TimeValue.ofMilliseconds(keepAliveMillis))
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.ofMilliseconds(idleEvictMillis))
+                .build();
+    }
+
+    @Bean
+    public RestTemplate finnhubRestTemplate(CloseableHttpClient finnhubHttpClient, FinnhubHttpMetrics httpMetrics) {
+        RestTemplate restTemplate = new RestTemplate(new HttpComponentsClientHttpRequestFactory(finnhubHttpClient));
+        restTemplate.setInterceptors(List.of(httpMetrics));
+        return restTemplate;
+    }
+}
@@ -0,0 +1,21 @@
+package com.demo.controller;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+
+/**
+ * Headers for responses that carry a version ETag. no-cache lets the browser
+ * keep the body but makes it revalidate with If-None-Match on every fetch.
+ */
+final class ConditionalResponses {
+
+    private ConditionalResponses() {
+    }
+
+    static HttpHeaders revalidate(String etag) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setETag(etag);
+        headers.setCacheControl(CacheControl.noCache());
+        return headers;
+    }
+}
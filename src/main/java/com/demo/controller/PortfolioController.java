@@ -1,11 +1,19 @@
 package com.demo.controller;
 
 import com.demo.dto.PortfolioDTO;
+import com.demo.dto.PositionDTO;
+import com.demo.dto.ProfitLossDTO;
+import com.demo.dto.RiskDTO;
+import com.demo.service.CostBasisMethod;
+import com.demo.service.DataVersions;
 import com.demo.service.PortfolioService;
+import com.demo.service.ProfitLossService;
+import com.demo.service.RiskService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 import java.util.ArrayList;
@@ -15,10 +23,17 @@ import java.util.ArrayList;
 public class PortfolioController {
 
     private final PortfolioService portfolioService;
+    private final DataVersions dataVersions;
+    private final ProfitLossService profitLossService;
+    private final RiskService riskService;
 
     @Autowired
-    public PortfolioController(PortfolioService portfolioService) {
+    public PortfolioController(PortfolioService portfolioService, DataVersions dataVersions,
+                               ProfitLossService profitLossService, RiskService riskService) {
         this.portfolioService = portfolioService;
+        this.dataVersions = dataVersions;
+        this.profitLossService = profitLossService;
+        this.riskService = riskService;
     }
 
     // Create or update a portfolio
@@ -35,10 +50,14 @@ public class PortfolioController {
 
     // Get all portfolios
     @GetMapping
-    public ResponseEntity<List<PortfolioDTO>> getAllPortfolios() {
+    public ResponseEntity<List<PortfolioDTO>> getAllPortfolios(WebRequest request) {
+        String etag = dataVersions.portfoliosETag();
+        if (request.checkNotModified(etag)) {
+            return null;  // 304 without loading anything
+        }
         try {
             List<PortfolioDTO> portfolios = portfolioService.getAllPortfolios();
-            return new ResponseEntity<>(portfolios, HttpStatus.OK);
+            return new ResponseEntity<>(portfolios, ConditionalResponses.revalidate(etag), HttpStatus.OK);
         } catch (Exception e) {
             System.err.println("Error fetching portfolios: " + e.getMessage());
             return new ResponseEntity<>(new ArrayList<>(), HttpStatus.OK);
@@ -47,16 +66,76 @@ public class PortfolioController {
 
     // Get a portfolio by ID
     @GetMapping("/{id}")
-    public ResponseEntity<PortfolioDTO> getPortfolioById(@PathVariable Long id) {
+    public ResponseEntity<PortfolioDTO> getPortfolioById(@PathVariable Long id, WebRequest request) {
+        String etag = dataVersions.portfoliosETag();
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
         try {
             PortfolioDTO portfolioDTO = portfolioService.getPortfolioById(id);
-            return new ResponseEntity<>(portfolioDTO, HttpStatus.OK);
+            return new ResponseEntity<>(portfolioDTO, ConditionalResponses.revalidate(etag), HttpStatus.OK);
         } catch (Exception e) {
             System.err.println("Error fetching portfolio: " + e.getMessage());
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
         }
     }
 
+    // Get the positions of a portfolio, derived from its transactions
+    @GetMapping("/{id}/positions")
+    public ResponseEntity<List<PositionDTO>> getPositions(@PathVariable Long id, WebRequest request) {
+        String etag = dataVersions.transactionsETag(id);
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        try {
+            List<PositionDTO> positions = portfolioService.getPositions(id);
+            return new ResponseEntity<>(positions, ConditionalResponses.revalidate(etag), HttpStatus.OK);
+        } catch (Exception e) {
+            System.err.println("Error fetching positions: " + e.getMessage());
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+    }
+
+    // Get cost basis and realized/unrealized profit of a portfolio (method FIFO or AVERAGE)
+    @GetMapping("/{id}/pnl")
+    public ResponseEntity<ProfitLossDTO> getProfitLoss(@PathVariable Long id,
+                                                       @RequestParam(defaultValue = "FIFO") String method) {
+        CostBasisMethod costBasisMethod;
+        try {
+            costBasisMethod = CostBasisMethod.fromName(method);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        try {
+            return new ResponseEntity<>(profitLossService.getProfitLoss(id, costBasisMethod), HttpStatus.OK);
+        } catch (Exception e) {
+            System.err.println("Error computing profit and loss: " + e.getMessage());
+            if (e.getMessage() != null && e.getMessage().contains("Portfolio not found")) {
+                return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+            }
+            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    // Get volatility, value at risk, beta and correlations of a portfolio over a daily history range
+    @GetMapping("/{id}/risk")
+    public ResponseEntity<RiskDTO> getRisk(@PathVariable Long id,
+                                           @RequestParam(defaultValue = "1Y") String range,
+                                           @RequestParam(defaultValue = "0.95") double confidence,
+                                           @RequestParam(required = false) String apiKey) {
+        try {
+            return new ResponseEntity<>(riskService.getRisk(id, range, confidence, apiKey), HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        } catch (Exception e) {
+            System.err.println("Error computing portfolio risk: " + e.getMessage());
+            if (e.getMessage() != null && e.getMessage().contains("Portfolio not found")) {
+                return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+            }
+            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
     // Delete a portfolio by ID
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deletePortfolio(@PathVariable Long id) {
@@ -1,26 +1,38 @@
 package com.demo.controller;
 
+import com.demo.dto.CandleDTO;
+import com.demo.dto.HistoryBatchDTO;
+import com.demo.dto.ImportResultDTO;
+import com.demo.dto.QuoteResultDTO;
 import com.demo.dto.StockDTO;
 import com.demo.model.Stock;
+import com.demo.service.CandleAggregator;
+import com.demo.service.CandleResolution;
+import com.demo.service.DataVersions;
+import com.demo.service.HistoryImportService;
+import com.demo.service.PriceStreamService;
+import com.demo.service.StockApiService;
+import com.demo.service.StockHistoryService;
 import com.demo.service.StockService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 import java.util.Optional;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
-import java.time.LocalDate;
 
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.HashMap;
 
 @RestController
 @RequestMapping("/stocks")
@@ -28,10 +40,24 @@ import java.util.HashMap;
 public class StockController {
 
     private final StockService stockService;
+    private final StockApiService stockApiService;
+    private final DataVersions dataVersions;
+    private final PriceStreamService priceStreamService;
+    private final StockHistoryService stockHistoryService;
+    private final CandleAggregator candleAggregator;
+    private final HistoryImportService historyImportService;
 
     @Autowired
-    public StockController(StockService stockService) {
+    public StockController(StockService stockService, StockApiService stockApiService, DataVersions dataVersions,
+                           PriceStreamService priceStreamService, StockHistoryService stockHistoryService,
+                           CandleAggregator candleAggregator, HistoryImportService historyImportService) {
         this.stockService = stockService;
+        this.stockApiService = stockApiService;
+        this.dataVersions = dataVersions;
+        this.priceStreamService = priceStreamService;
+        this.stockHistoryService = stockHistoryService;
+        this.candleAggregator = candleAggregator;
+        this.historyImportService = historyImportService;
     }
 
     @PostMapping
@@ -51,11 +77,32 @@ public class StockController {
         }
     }
 
+    // Without paging parameters returns every stock as before. With page/size or cursor (keyset, symbol order),
+    // sort=symbol|changePercent|totalValue[,asc|desc] and fields=a,b,... returns one page of database stocks
     @GetMapping
-    public ResponseEntity<List<StockDTO>> getAllStocks(@RequestParam(required = false) String apiKey) {
+    public ResponseEntity<?> getAllStocks(@RequestParam(required = false) String apiKey,
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) List<String> fields,
+            WebRequest request) {
+        // Unchanged stock table and price book: answer 304 before querying or serializing
+        String etag = dataVersions.stocksETag();
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        if (page != null || size != null || cursor != null || sort != null || fields != null) {
+            try {
+                return new ResponseEntity<>(stockService.getStocksPage(page, size, cursor, sort, fields),
+                        ConditionalResponses.revalidate(etag), HttpStatus.OK);
+            } catch (IllegalArgumentException e) {
+                return new ResponseEntity<>(Map.of("error", e.getMessage()), HttpStatus.BAD_REQUEST);
+            }
+        }
         try {
             List<StockDTO> stockDTOs = stockService.getAllStocksWithLivePrices(apiKey);
-            return new ResponseEntity<>(stockDTOs, HttpStatus.OK);
+            return new ResponseEntity<>(stockDTOs, ConditionalResponses.revalidate(etag), HttpStatus.OK);
         } catch (Exception e) {
             System.err.println("Error fetching stocks: " + e.getMessage());
             // Return empty list with 200 status instead of 500 error
@@ -63,17 +110,87 @@ public class StockController {
         }
     }
 
-    // NEW: Endpoint for Chart.js in main.js
+    // Server-Sent Events stream of price changes ("quote" events), optionally only for a comma-separated symbol list
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamPrices(@RequestParam(required = false) List<String> symbols) {
+        SseEmitter emitter;
+        try {
+            emitter = priceStreamService.subscribe(symbols);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        if (emitter == null) {
+            // At the connection limit; clients can fall back to polling GET /stocks
+            return new ResponseEntity<>(HttpStatus.SERVICE_UNAVAILABLE);
+        }
+        return new ResponseEntity<>(emitter, HttpStatus.OK);
+    }
+
+    // Fetch live quotes for a comma-separated symbol list; failed symbols are reported with a reason
+    @GetMapping("/quotes")
+    public ResponseEntity<List<QuoteResultDTO>> getQuotes(@RequestParam List<String> symbols,
+            @RequestParam(required = false) String apiKey) {
+        return new ResponseEntity<>(stockApiService.fetchQuotesParallel(symbols, apiKey), HttpStatus.OK);
+    }
+
+    // Price history for a symbol, oldest first; range is 1D, 1W, 1M, 3M, 6M, 1Y or 5Y, maxPoints downsamples long ranges for charts
     @GetMapping("/history/{symbol}/{range}")
-    public ResponseEntity<Map<String, Double>> getStockHistory(@PathVariable String symbol,
-            @PathVariable String range) {
-        // Mocking historical data until a time-series API is integrated
-        Map<String, Double> history = new HashMap<>();
-        double basePrice = 150.0;
-        for (int i = 7; i >= 0; i--) {
-            history.put("2024-05-0" + (7 - i), basePrice + (Math.random() * 10));
+    public ResponseEntity<Map<String, Double>> getStockHistory(@PathVariable String symbol, @PathVariable String range,
+            @RequestParam(required = false) String apiKey, @RequestParam(required = false) Integer maxPoints) {
+        try {
+            return new ResponseEntity<>(stockHistoryService.getHistory(symbol, range, apiKey, maxPoints), HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        } catch (Exception e) {
+            System.err.println("Error fetching stock history: " + e.getMessage());
+            return new ResponseEntity<>(new LinkedHashMap<>(), HttpStatus.OK);
+        }
+    }
+
+    // Price history for several symbols in one response: a shared timestamp axis and one value array per symbol
+    @GetMapping("/history/batch")
+    public ResponseEntity<HistoryBatchDTO> getStockHistoryBatch(@RequestParam List<String> symbols,
+            @RequestParam(defaultValue = "1M") String range, @RequestParam(required = false) String apiKey) {
+        try {
+            return new ResponseEntity<>(stockHistoryService.getHistoryBatch(symbols, range, apiKey), HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        } catch (Exception e) {
+            System.err.println("Error fetching stock history batch: " + e.getMessage());
+            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    // Bulk load daily history from a CSV file in the server's import directory; prices in USD, stored converted to INR
+    @PostMapping("/history/import")
+    public ResponseEntity<ImportResultDTO> importHistory(@RequestParam String file) {
+        try {
+            return new ResponseEntity<>(historyImportService.importFile(file), HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        } catch (IllegalStateException e) {
+            return new ResponseEntity<>(HttpStatus.CONFLICT);
+        } catch (Exception e) {
+            System.err.println("Error importing history: " + e.getMessage());
+            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    // OHLCV bars for a symbol, oldest first; resolution is 1m, 5m, 1h or 1d, from/to are optional epoch millis
+    @GetMapping("/candles/{symbol}/{resolution}")
+    public ResponseEntity<List<CandleDTO>> getCandles(@PathVariable String symbol, @PathVariable String resolution,
+            @RequestParam(required = false) Long from, @RequestParam(required = false) Long to) {
+        try {
+            CandleResolution candleResolution = CandleResolution.fromCode(resolution);
+            if (from == null && to == null) {
+                return new ResponseEntity<>(candleAggregator.getCandles(symbol, candleResolution), HttpStatus.OK);
+            }
+            long end = to != null ? to : System.currentTimeMillis();
+            long start = from != null ? from : 0L;
+            return new ResponseEntity<>(candleAggregator.getCandles(symbol, candleResolution, start, end), HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
         }
-        return new ResponseEntity<>(history, HttpStatus.OK);
     }
 
     @GetMapping("/{id}")
@@ -101,29 +218,40 @@ public class StockController {
         }
     }
 
-    // Get stock price history
-    @GetMapping("/history/{symbol}/{period}")
-    public ResponseEntity<Map<String, Double>> getStockHistory(@PathVariable String symbol, @PathVariable String period) {
-        try {
-            // For now, return mock historical data
-            Map<String, Double> history = new HashMap<>();
-            
-            // Generate mock historical data based on period
-            int days = period.equals("1D") ? 1 : period.equals("1W") ? 7 : period.equals("1M") ? 30 : 365;
-            
-            for (int i = days; i >= 0; i--) {
-                LocalDate date = LocalDate.now().minusDays(i);
-                // Generate mock price data with some randomness
-                double basePrice = 100.0 + (Math.random() * 50);
-                double price = basePrice + (Math.sin(i * 0.1) * 10) + (Math.random() * 5 - 2.5);
-                history.put(date.toString(), price);
-            }
-            
-            return new ResponseEntity<>(history, HttpStatus.OK);
-        } catch (Exception e) {
-            System.err.println("Error fetching stock history: " + e.getMessage());
-            return new ResponseEntity<>(new HashMap<>(), HttpStatus.OK);
-        }
+    // Quote cache counters for sizing under real traffic
+    @GetMapping("/metrics/quote-cache")
+    public ResponseEntity<Map<String, Long>> getQuoteCacheStats() {
+        return new ResponseEntity<>(stockApiService.getQuoteCacheStats(), HttpStatus.OK);
+    }
+
+    // Finnhub rate limiter wait times and rejections
+    @GetMapping("/metrics/rate-limiter")
+    public ResponseEntity<Map<String, Long>> getRateLimiterStats() {
+        return new ResponseEntity<>(stockApiService.getRateLimiterStats(), HttpStatus.OK);
+    }
+
+    // Finnhub circuit breaker state
+    @GetMapping("/metrics/circuit-breaker")
+    public ResponseEntity<Map<String, Object>> getCircuitBreakerStats() {
+        return new ResponseEntity<>(stockApiService.getCircuitBreakerStats(), HttpStatus.OK);
+    }
+
+    // Price stream subscribers and delivery counters
+    @GetMapping("/metrics/stream")
+    public ResponseEntity<Map<String, Long>> getStreamStats() {
+        return new ResponseEntity<>(priceStreamService.getStats(), HttpStatus.OK);
+    }
+
+    // Candle aggregation counters and daily bar persistence
+    @GetMapping("/metrics/candles")
+    public ResponseEntity<Map<String, Long>> getCandleStats() {
+        return new ResponseEntity<>(candleAggregator.getStats(), HttpStatus.OK);
+    }
+
+    // Finnhub REST latency per endpoint (quote, profile2)
+    @GetMapping("/metrics/http")
+    public ResponseEntity<Map<String, Map<String, Object>>> getHttpLatencyStats() {
+        return new ResponseEntity<>(stockApiService.getHttpLatencyStats(), HttpStatus.OK);
     }
 
     // Get total portfolio value
@@ -132,4 +260,10 @@ public class StockController {
         // Logic should eventually take a User ID
         return new ResponseEntity<>(stockService.getTotalPortfolioValue(), HttpStatus.OK);
     }
+
+    // Market value of each portfolio, keyed by portfolio id
+    @GetMapping("/total-value/portfolios")
+    public ResponseEntity<Map<Long, Double>> getPortfolioValues() {
+        return new ResponseEntity<>(stockService.getPortfolioValues(), HttpStatus.OK);
+    }
 }
\ No newline at end of file
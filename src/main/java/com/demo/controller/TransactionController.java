@@ -1,11 +1,13 @@
 package com.demo.controller;
 
 import com.demo.dto.TransactionDTO;
+import com.demo.service.DataVersions;
 import com.demo.service.TransactionService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 import java.util.ArrayList;
@@ -15,10 +17,12 @@ import java.util.ArrayList;
 public class TransactionController {
 
     private final TransactionService transactionService;
+    private final DataVersions dataVersions;
 
     @Autowired
-    public TransactionController(TransactionService transactionService) {
+    public TransactionController(TransactionService transactionService, DataVersions dataVersions) {
         this.transactionService = transactionService;
+        this.dataVersions = dataVersions;
     }
 
     // Create a new transaction
@@ -59,10 +63,14 @@ public class TransactionController {
 
     // Get all transactions
     @GetMapping
-    public ResponseEntity<List<TransactionDTO>> getAllTransactions() {
+    public ResponseEntity<List<TransactionDTO>> getAllTransactions(WebRequest request) {
+        String etag = dataVersions.transactionsETag();
+        if (request.checkNotModified(etag)) {
+            return null;  // 304 without loading anything
+        }
         try {
             List<TransactionDTO> transactions = transactionService.getAllTransactions();
-            return new ResponseEntity<>(transactions, HttpStatus.OK);
+            return new ResponseEntity<>(transactions, ConditionalResponses.revalidate(etag), HttpStatus.OK);
         } catch (Exception e) {
             System.err.println("Error fetching transactions: " + e.getMessage());
             return new ResponseEntity<>(new ArrayList<>(), HttpStatus.OK);
@@ -71,10 +79,15 @@ public class TransactionController {
 
     // Get transactions by portfolio ID
     @GetMapping("/portfolio/{portfolioId}")
-    public ResponseEntity<List<TransactionDTO>> getTransactionsByPortfolio(@PathVariable Long portfolioId) {
+    public ResponseEntity<List<TransactionDTO>> getTransactionsByPortfolio(@PathVariable Long portfolioId,
+            WebRequest request) {
+        String etag = dataVersions.transactionsETag(portfolioId);
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
         try {
             List<TransactionDTO> transactions = transactionService.getTransactionsByPortfolio(portfolioId);
-            return new ResponseEntity<>(transactions, HttpStatus.OK);
+            return new ResponseEntity<>(transactions, ConditionalResponses.revalidate(etag), HttpStatus.OK);
         } catch (Exception e) {
             System.err.println("Error fetching transactions for portfolio: " + e.getMessage());
             return new ResponseEntity<>(new ArrayList<>(), HttpStatus.OK);
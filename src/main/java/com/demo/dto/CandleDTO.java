@@ -0,0 +1,86 @@
+package com.demo.dto;
+
+public class CandleDTO {
+
+    private Long startTime;  // Bar start, epoch millis
+    private Double open;
+    private Double high;
+    private Double low;
+    private Double close;
+    private Double volume;
+
+    // Default constructor
+    public CandleDTO() {
+    }
+
+    // Constructor with all fields
+    public CandleDTO(Long startTime, Double open, Double high, Double low, Double close, Double volume) {
+        this.startTime = startTime;
+        this.open = open;
+        this.high = high;
+        this.low = low;
+        this.close = close;
+        this.volume = volume;
+    }
+
+    // Getters and Setters
+    public Long getStartTime() {
+        return startTime;
+    }
+
+    public void setStartTime(Long startTime) {
+        this.startTime = startTime;
+    }
+
+    public Double getOpen() {
+        return open;
+    }
+
+    public void setOpen(Double open) {
+        this.open = open;
+    }
+
+    public Double getHigh() {
+        return high;
+    }
+
+    public void setHigh(Double high) {
+        this.high = high;
+    }
+
+    public Double getLow() {
+        return low;
+    }
+
+    public void setLow(Double low) {
+        this.low = low;
+    }
+
+    public Double getClose() {
+        return close;
+    }
+
+    public void setClose(Double close) {
+        this.close = close;
+    }
+
+    public Double getVolume() {
+        return volume;
+    }
+
+    public void setVolume(Double volume) {
+        this.volume = volume;
+    }
+
+    @Override
+    public String toString() {
+        return "CandleDTO{" +
+                "startTime=" + startTime +
+                ", open=" + open +
+                ", high=" + high +
+                ", low=" + low +
+                ", close=" + close +
+                ", volume=" + volume +
+                '}';
+    }
+}
@@ -0,0 +1,186 @@
+package com.demo.dto;
+
+import tools.jackson.core.JsonParser;
+import tools.jackson.core.JsonToken;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.util.Arrays;
+
+/**
+ * Finnhub /stock/candle response, read with the streaming parser into
+ * parallel primitive arrays.
+ *
+ * {"s": "ok" | "no_data", "t": [epochSeconds...], "o": [...], "h": [...], "l": [...], "c": [...], "v": [...]}
+ *
+ * Timestamps are converted to epoch millis. Prices are as returned by Finnhub
+ * (USD) until {@link #scalePrices(double)} is applied.
+ */
+public class FinnhubCandles {
+
+    private static final ObjectMapper JSON = new JsonMapper();
+    private static final long[] NO_TIMES = new long[0];
+    private static final double[] NO_VALUES = new double[0];
+
+    private String status;
+    private long[] timestamps = NO_TIMES;
+    private double[] open = NO_VALUES;
+    private double[] high = NO_VALUES;
+    private double[] low = NO_VALUES;
+    private double[] close = NO_VALUES;
+    private double[] volume = NO_VALUES;
+
+    // Default constructor
+    public FinnhubCandles() {
+    }
+
+    /**
+     * Parses a raw candle response body, returning null when the body is empty or not a JSON object
+     */
+    public static FinnhubCandles parse(byte[] body) {
+        if (body == null || body.length == 0) {
+            return null;
+        }
+        try (JsonParser parser = JSON.createParser(body)) {
+            return parse(parser);
+        }
+    }
+
+    public static FinnhubCandles parse(JsonParser parser) {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            return null;
+        }
+        FinnhubCandles candles = new FinnhubCandles();
+        JsonToken token;
+        while ((token = parser.nextToken()) != null && token != JsonToken.END_OBJECT) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if (field == null || value == JsonToken.VALUE_NULL) {
+                continue;
+            }
+            if (value == JsonToken.START_ARRAY) {
+                switch (field) {
+                    case "t":
+                        candles.timestamps = readSecondsAsMillis(parser);
+                        break;
+                    case "o":
+                        candles.open = readDoubles(parser);
+                        break;
+                    case "h":
+                        candles.high = readDoubles(parser);
+                        break;
+                    case "l":
+                        candles.low = readDoubles(parser);
+                        break;
+                    case "c":
+                        candles.close = readDoubles(parser);
+                        break;
+                    case "v":
+                        candles.volume = readDoubles(parser);
+                        break;
+                    default:
+                        parser.skipChildren();
+                        break;
+                }
+            } else if (value == JsonToken.START_OBJECT) {
+                parser.skipChildren();
+            } else if ("s".equals(field)) {
+                candles.status = parser.getValueAsString();
+            }
+        }
+        return candles;
+    }
+
+    private static double[] readDoubles(JsonParser parser) {
+        double[] values = new double[64];
+        int count = 0;
+        JsonToken token;
+        while ((token = parser.nextToken()) != null && token != JsonToken.END_ARRAY) {
+            if (count == values.length) {
+                values = Arrays.copyOf(values, count * 2);
+            }
+            values[count++] = token == JsonToken.VALUE_NULL ? 0.0 : parser.getValueAsDouble();
+        }
+        return Arrays.copyOf(values, count);
+    }
+
+    private static long[] readSecondsAsMillis(JsonParser parser) {
+        long[] values = new long[64];
+        int count = 0;
+        JsonToken token;
+        while ((token = parser.nextToken()) != null && token != JsonToken.END_ARRAY) {
+            if (count == values.length) {
+                values = Arrays.copyOf(values, count * 2);
+            }
+            values[count++] = parser.getValueAsLong() * 1000;
+        }
+        return Arrays.copyOf(values, count);
+    }
+
+    /**
+     * Number of candles with both a time and a close
+     */
+    public int size() {
+        return Math.min(timestamps.length, close.length);
+    }
+
+    /**
+     * Whether open, high, low and volume are present for every candle
+     */
+    public boolean hasFullBars() {
+        int size = size();
+        return open.length >= size && high.length >= size && low.length >= size && volume.length >= size;
+    }
+
+    public boolean isOk() {
+        return "ok".equals(status);
+    }
+
+    /**
+     * Multiplies every price (not volume) by the factor, e.g. to convert USD to INR
+     */
+    public void scalePrices(double factor) {
+        for (double[] prices : new double[][] { open, high, low, close }) {
+            for (int i = 0; i < prices.length; i++) {
+                prices[i] *= factor;
+            }
+        }
+    }
+
+    // Getters; the arrays are shared, not copied
+    public String getStatus() {
+        return status;
+    }
+
+    public long[] getTimestamps() {
+        return timestamps;
+    }
+
+    public double[] getOpen() {
+        return open;
+    }
+
+    public double[] getHigh() {
+        return high;
+    }
+
+    public double[] getLow() {
+        return low;
+    }
+
+    public double[] getClose() {
+        return close;
+    }
+
+    public double[] getVolume() {
+        return volume;
+    }
+
+    @Override
+    public String toString() {
+        return "FinnhubCandles{" +
+                "status='" + status + '\'' +
+                ", size=" + size() +
+                '}';
+    }
+}
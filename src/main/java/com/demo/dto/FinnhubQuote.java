@@ -0,0 +1,203 @@
+package com.demo.dto;
+
+import tools.jackson.core.JsonParser;
+import tools.jackson.core.JsonToken;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * Finnhub /quote response, read with Jackson's streaming parser straight into
+ * primitive fields so a quote costs one object instead of a map of boxed values.
+ *
+ * {"c": current, "d": change, "dp": changePercent, "h": high, "l": low, "o": open, "pc": previousClose, "t": timestamp}
+ *
+ * Prices are in USD as returned by Finnhub. Finnhub sends {@code null} for
+ * d and dp on symbols without trading data, so their presence is tracked.
+ */
+public class FinnhubQuote {
+
+    private static final ObjectMapper JSON = new JsonMapper();
+
+    private double current;
+    private double change;
+    private double changePercent;
+    private double high;
+    private double low;
+    private double open;
+    private double previousClose;
+    private long timestamp;  // Epoch seconds of the last trade
+    private boolean hasChange;
+    private boolean hasChangePercent;
+
+    // Default constructor
+    public FinnhubQuote() {
+    }
+
+    /**
+     * Parses a raw quote response body, returning null when the body is empty or not a JSON object
+     * @throws tools.jackson.core.JacksonException when the body is not well-formed JSON
+     */
+    public static FinnhubQuote parse(byte[] body) {
+        if (body == null || body.length == 0) {
+            return null;
+        }
+        try (JsonParser parser = JSON.createParser(body)) {
+            return parse(parser);
+        }
+    }
+
+    /**
+     * Reads one quote object from the parser; unknown fields are skipped and numeric strings are accepted
+     */
+    public static FinnhubQuote parse(JsonParser parser) {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            return null;
+        }
+        FinnhubQuote quote = new FinnhubQuote();
+        JsonToken token;
+        while ((token = parser.nextToken()) != null && token != JsonToken.END_OBJECT) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if (value == JsonToken.START_OBJECT || value == JsonToken.START_ARRAY) {
+                parser.skipChildren();
+                continue;
+            }
+            if (value == JsonToken.VALUE_NULL || field == null) {
+                continue;
+            }
+            switch (field) {
+                case "c":
+                    quote.current = parser.getValueAsDouble();
+                    break;
+                case "d":
+                    quote.change = parser.getValueAsDouble();
+                    quote.hasChange = true;
+                    break;
+                case "dp":
+                    quote.changePercent = parser.getValueAsDouble();
+                    quote.hasChangePercent = true;
+                    break;
+                case "h":
+                    quote.high = parser.getValueAsDouble();
+                    break;
+                case "l":
+                    quote.low = parser.getValueAsDouble();
+                    break;
+                case "o":
+                    quote.open = parser.getValueAsDouble();
+                    break;
+                case "pc":
+                    quote.previousClose = parser.getValueAsDouble();
+                    break;
+                case "t":
+                    quote.timestamp = parser.getValueAsLong();
+                    break;
+                default:
+                    break;
+            }
+        }
+        return quote;
+    }
+
+    /**
+     * Change percent as reported, or derived from the previous close when Finnhub omits it
+     */
+    public double resolveChangePercent() {
+        if (hasChangePercent) {
+            return changePercent;
+        }
+        if (previousClose > 0) {
+            return ((current - previousClose) / previousClose) * 100;
+        }
+        return 0.0;
+    }
+
+    // Getters and Setters
+    public double getCurrent() {
+        return current;
+    }
+
+    public void setCurrent(double current) {
+        this.current = current;
+    }
+
+    public double getChange() {
+        return change;
+    }
+
+    public void setChange(double change) {
+        this.change = change;
+        this.hasChange = true;
+    }
+
+    public double getChangePercent() {
+        return changePercent;
+    }
+
+    public void setChangePercent(double changePercent) {
+        this.changePercent = changePercent;
+        this.hasChangePercent = true;
+    }
+
+    public double getHigh() {
+        return high;
+    }
+
+    public void setHigh(double high) {
+        this.high = high;
+    }
+
+    public double getLow() {
+        return low;
+    }
+
+    public void setLow(double low) {
+        this.low = low;
+    }
+
+    public double getOpen() {
+        return open;
+    }
+
+    public void setOpen(double open) {
+        this.open = open;
+    }
+
+    public double getPreviousClose() {
+        return previousClose;
+    }
+
+    public void setPreviousClose(double previousClose) {
+        this.previousClose = previousClose;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public void setTimestamp(long timestamp) {
+        this.timestamp = timestamp;
+    }
+
+    public boolean hasChange() {
+        return hasChange;
+    }
+
+    public boolean hasChangePercent() {
+        return hasChangePercent;
+    }
+
+    @Override
+    public String toString() {
+        return "FinnhubQuote{" +
+                "current=" + current +
+                ", change=" + change +
+                ", changePercent=" + changePercent +
+                ", high=" + high +
+                ", low=" + low +
+                ", open=" + open +
+                ", previousClose=" + previousClose +
+                ", timestamp=" + timestamp +
+                '}';
+    }
+}
@@ -0,0 +1,55 @@
+package com.demo.dto;
+
+import java.util.Map;
+
+public class HistoryBatchDTO {
+
+    private String range;
+    private long[] timestamps;  // Shared time axis, epoch millis, ascending
+    private Map<String, Double[]> values;  // Per symbol, one price per timestamp (null where the symbol has no point)
+
+    // Default constructor
+    public HistoryBatchDTO() {
+    }
+
+    // Constructor with all fields
+    public HistoryBatchDTO(String range, long[] timestamps, Map<String, Double[]> values) {
+        this.range = range;
+        this.timestamps = timestamps;
+        this.values = values;
+    }
+
+    // Getters and Setters
+    public String getRange() {
+        return range;
+    }
+
+    public void setRange(String range) {
+        this.range = range;
+    }
+
+    public long[] getTimestamps() {
+        return timestamps;
+    }
+
+    public void setTimestamps(long[] timestamps) {
+        this.timestamps = timestamps;
+    }
+
+    public Map<String, Double[]> getValues() {
+        return values;
+    }
+
+    public void setValues(Map<String, Double[]> values) {
+        this.values = values;
+    }
+
+    @Override
+    public String toString() {
+        return "HistoryBatchDTO{" +
+                "range='" + range + '\'' +
+                ", timestamps=" + (timestamps != null ? timestamps.length : 0) +
+                ", symbols=" + (values != null ? values.keySet() : "[]") +
+                '}';
+    }
+}
@@ -0,0 +1,97 @@
+package com.demo.dto;
+
+public class HoldingValueDTO {
+
+    private Long stockId;
+    private String symbol;
+    private Long quantity;
+    private Double price;  // Live price, or the stored price until the symbol is first priced
+    private Double marketValue;
+    private Double dayChange;  // Value change since the previous close
+    private Double weight;  // Share of the portfolio's market value, 0 to 1
+
+    // Default constructor
+    public HoldingValueDTO() {
+    }
+
+    // Constructor with all fields
+    public HoldingValueDTO(Long stockId, String symbol, Long quantity, Double price, Double marketValue, Double dayChange, Double weight) {
+        this.stockId = stockId;
+        this.symbol = symbol;
+        this.quantity = quantity;
+        this.price = price;
+        this.marketValue = marketValue;
+        this.dayChange = dayChange;
+        this.weight = weight;
+    }
+
+    // Getters and Setters
+    public Long getStockId() {
+        return stockId;
+    }
+
+    public void setStockId(Long stockId) {
+        this.stockId = stockId;
+    }
+
+    public String getSymbol() {
+        return symbol;
+    }
+
+    public void setSymbol(String symbol) {
+        this.symbol = symbol;
+    }
+
+    public Long getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(Long quantity) {
+        this.quantity = quantity;
+    }
+
+    public Double getPrice() {
+        return price;
+    }
+
+    public void setPrice(Double price) {
+        this.price = price;
+    }
+
+    public Double getMarketValue() {
+        return marketValue;
+    }
+
+    public void setMarketValue(Double marketValue) {
+        this.marketValue = marketValue;
+    }
+
+    public Double getDayChange() {
+        return dayChange;
+    }
+
+    public void setDayChange(Double dayChange) {
+        this.dayChange = dayChange;
+    }
+
+    public Double getWeight() {
+        return weight;
+    }
+
+    public void setWeight(Double weight) {
+        this.weight = weight;
+    }
+
+    @Override
+    public String toString() {
+        return "HoldingValueDTO{" +
+                "stockId=" + stockId +
+                ", symbol='" + symbol + '\'' +
+                ", quantity=" + quantity +
+                ", price=" + price +
+                ", marketValue=" + marketValue +
+                ", dayChange=" + dayChange +
+                ", weight=" + weight +
+                '}';
+    }
+}
@@ -0,0 +1,86 @@
+package com.demo.dto;
+
+public class ImportResultDTO {
+
+    private String fileName;
+    private Long rows;  // Rows loaded
+    private Long skippedRows;  // Lines that didn't parse, e.g. a header
+    private Long bytes;
+    private Long millis;
+    private Double rowsPerSecond;
+
+    // Default constructor
+    public ImportResultDTO() {
+    }
+
+    // Constructor with all fields
+    public ImportResultDTO(String fileName, Long rows, Long skippedRows, Long bytes, Long millis, Double rowsPerSecond) {
+        this.fileName = fileName;
+        this.rows = rows;
+        this.skippedRows = skippedRows;
+        this.bytes = bytes;
+        this.millis = millis;
+        this.rowsPerSecond = rowsPerSecond;
+    }
+
+    // Getters and Setters
+    public String getFileName() {
+        return fileName;
+    }
+
+    public void setFileName(String fileName) {
+        this.fileName = fileName;
+    }
+
+    public Long getRows() {
+        return rows;
+    }
+
+    public void setRows(Long rows) {
+        this.rows = rows;
+    }
+
+    public Long getSkippedRows() {
+        return skippedRows;
+    }
+
+    public void setSkippedRows(Long skippedRows) {
+        this.skippedRows = skippedRows;
+    }
+
+    public Long getBytes() {
+        return bytes;
+    }
+
+    public void setBytes(Long bytes) {
+        this.bytes = bytes;
+    }
+
+    public Long getMillis() {
+        return millis;
+    }
+
+    public void setMillis(Long millis) {
+        this.millis = millis;
+    }
+
+    public Double getRowsPerSecond() {
+        return rowsPerSecond;
+    }
+
+    public void setRowsPerSecond(Double rowsPerSecond) {
+        this.rowsPerSecond = rowsPerSecond;
+    }
+
+    @Override
+    public String toString() {
+        return "ImportResultDTO{" +
+                "fileName='" + fileName + '\'' +
+                ", rows=" + rows +
+                ", skippedRows=" + skippedRows +
+                ", bytes=" + bytes +
+                ", millis=" + millis +
+                ", rowsPerSecond=" + rowsPerSecond +
+                '}';
+    }
+}
@@ -9,18 +9,25 @@ public class PortfolioDTO {
     private String description;  // Description of the portfolio
     private Double totalValue;  // Total value of the portfolio (calculated from the stocks)
     private List<Long> stockIds;  // List of stock IDs in this portfolio
+    private Double dayChange;  // Value change since the previous close
+    private Double dayChangePercent;
+    private List<HoldingValueDTO> holdings;  // Value and weight of each stock, when served from live valuation
 
     // Default constructor
     public PortfolioDTO() {
     }
 
     // Constructor with all fields
-    public PortfolioDTO(Long id, String name, String description, Double totalValue, List<Long> stockIds) {
+    public PortfolioDTO(Long id, String name, String description, Double totalValue, List<Long> stockIds,
+                        Double dayChange, Double dayChangePercent, List<HoldingValueDTO> holdings) {
         this.id = id;
         this.name = name;
         this.description = description;
         this.totalValue = totalValue;
         this.stockIds = stockIds;
+        this.dayChange = dayChange;
+        this.dayChangePercent = dayChangePercent;
+        this.holdings = holdings;
     }
 
     // Getters and Setters
@@ -64,6 +71,30 @@ public class PortfolioDTO {
         this.stockIds = stockIds;
     }
 
+    public Double getDayChange() {
+        return dayChange;
+    }
+
+    public void setDayChange(Double dayChange) {
+        this.dayChange = dayChange;
+    }
+
+    public Double getDayChangePercent() {
+        return dayChangePercent;
+    }
+
+    public void setDayChangePercent(Double dayChangePercent) {
+        this.dayChangePercent = dayChangePercent;
+    }
+
+    public List<HoldingValueDTO> getHoldings() {
+        return holdings;
+    }
+
+    public void setHoldings(List<HoldingValueDTO> holdings) {
+        this.holdings = holdings;
+    }
+
     @Override
     public String toString() {
         return "PortfolioDTO{" +
@@ -72,6 +103,8 @@ public class PortfolioDTO {
                 ", description='" + description + '\'' +
                 ", totalValue=" + totalValue +
                 ", stockIds=" + stockIds +
+                ", dayChange=" + dayChange +
+                ", dayChangePercent=" + dayChangePercent +
                 '}';
     }
 }
@@ -0,0 +1,97 @@
+package com.demo.dto;
+
+public class PositionDTO {
+
+    private Long portfolioId;
+    private Long stockId;
+    private String symbol;
+    private Double quantity;  // Bought minus sold
+    private Double boughtQuantity;  // Units over all buys
+    private Double soldQuantity;  // Units over all sells
+    private Long transactionCount;
+
+    // Default constructor
+    public PositionDTO() {
+    }
+
+    // Constructor with all fields
+    public PositionDTO(Long portfolioId, Long stockId, String symbol, Double quantity, Double boughtQuantity, Double soldQuantity, Long transactionCount) {
+        this.portfolioId = portfolioId;
+        this.stockId = stockId;
+        this.symbol = symbol;
+        this.quantity = quantity;
+        this.boughtQuantity = boughtQuantity;
+        this.soldQuantity = soldQuantity;
+        this.transactionCount = transactionCount;
+    }
+
+    // Getters and Setters
+    public Long getPortfolioId() {
+        return portfolioId;
+    }
+
+    public void setPortfolioId(Long portfolioId) {
+        this.portfolioId = portfolioId;
+    }
+
+    public Long getStockId() {
+        return stockId;
+    }
+
+    public void setStockId(Long stockId) {
+        this.stockId = stockId;
+    }
+
+    public String getSymbol() {
+        return symbol;
+    }
+
+    public void setSymbol(String symbol) {
+        this.symbol = symbol;
+    }
+
+    public Double getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(Double quantity) {
+        this.quantity = quantity;
+    }
+
+    public Double getBoughtQuantity() {
+        return boughtQuantity;
+    }
+
+    public void setBoughtQuantity(Double boughtQuantity) {
+        this.boughtQuantity = boughtQuantity;
+    }
+
+    public Double getSoldQuantity() {
+        return soldQuantity;
+    }
+
+    public void setSoldQuantity(Double soldQuantity) {
+        this.soldQuantity = soldQuantity;
+    }
+
+    public Long getTransactionCount() {
+        return transactionCount;
+    }
+
+    public void setTransactionCount(Long transactionCount) {
+        this.transactionCount = transactionCount;
+    }
+
+    @Override
+    public String toString() {
+        return "PositionDTO{" +
+                "portfolioId=" + portfolioId +
+                ", stockId=" + stockId +
+                ", symbol='" + symbol + '\'' +
+                ", quantity=" + quantity +
+                ", boughtQuantity=" + boughtQuantity +
+                ", soldQuantity=" + soldQuantity +
+                ", transactionCount=" + transactionCount +
+                '}';
+    }
+}
@@ -0,0 +1,64 @@
+package com.demo.dto;
+
+public class PriceUpdateDTO {
+
+    private String symbol;
+    private Double price;
+    private Double changePercent;
+    private Long timestamp;  // Epoch millis of the quote or trade
+
+    // Default constructor
+    public PriceUpdateDTO() {
+    }
+
+    // Constructor with all fields
+    public PriceUpdateDTO(String symbol, Double price, Double changePercent, Long timestamp) {
+        this.symbol = symbol;
+        this.price = price;
+        this.changePercent = changePercent;
+        this.timestamp = timestamp;
+    }
+
+    // Getters and Setters
+    public String getSymbol() {
+        return symbol;
+    }
+
+    public void setSymbol(String symbol) {
+        this.symbol = symbol;
+    }
+
+    public Double getPrice() {
+        return price;
+    }
+
+    public void setPrice(Double price) {
+        this.price = price;
+    }
+
+    public Double getChangePercent() {
+        return changePercent;
+    }
+
+    public void setChangePercent(Double changePercent) {
+        this.changePercent = changePercent;
+    }
+
+    public Long getTimestamp() {
+        return timestamp;
+    }
+
+    public void setTimestamp(Long timestamp) {
+        this.timestamp = timestamp;
+    }
+
+    @Override
+    public String toString() {
+        return "PriceUpdateDTO{" +
+                "symbol='" + symbol + '\'' +
+                ", price=" + price +
+                ", changePercent=" + changePercent +
+                ", timestamp=" + timestamp +
+                '}';
+    }
+}
@@ -0,0 +1,110 @@
+package com.demo.dto;
+
+import java.util.List;
+
+public class ProfitLossDTO {
+
+    private Long portfolioId;
+    private String method;  // FIFO or AVERAGE
+    private Double costBasis;
+    private Double marketValue;
+    private Double realizedProfit;
+    private Double unrealizedProfit;
+    private Long transactionCount;
+    private List<SymbolProfitLossDTO> symbols;
+
+    // Default constructor
+    public ProfitLossDTO() {
+    }
+
+    // Constructor with all fields
+    public ProfitLossDTO(Long portfolioId, String method, Double costBasis, Double marketValue, Double realizedProfit,
+                         Double unrealizedProfit, Long transactionCount, List<SymbolProfitLossDTO> symbols) {
+        this.portfolioId = portfolioId;
+        this.method = method;
+        this.costBasis = costBasis;
+        this.marketValue = marketValue;
+        this.realizedProfit = realizedProfit;
+        this.unrealizedProfit = unrealizedProfit;
+        this.transactionCount = transactionCount;
+        this.symbols = symbols;
+    }
+
+    // Getters and Setters
+    public Long getPortfolioId() {
+        return portfolioId;
+    }
+
+    public void setPortfolioId(Long portfolioId) {
+        this.portfolioId = portfolioId;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public void setMethod(String method) {
+        this.method = method;
+    }
+
+    public Double getCostBasis() {
+        return costBasis;
+    }
+
+    public void setCostBasis(Double costBasis) {
+        this.costBasis = costBasis;
+    }
+
+    public Double getMarketValue() {
+        return marketValue;
+    }
+
+    public void setMarketValue(Double marketValue) {
+        this.marketValue = marketValue;
+    }
+
+    public Double getRealizedProfit() {
+        return realizedProfit;
+    }
+
+    public void setRealizedProfit(Double realizedProfit) {
+        this.realizedProfit = realizedProfit;
+    }
+
+    public Double getUnrealizedProfit() {
+        return unrealizedProfit;
+    }
+
+    public void setUnrealizedProfit(Double unrealizedProfit) {
+        this.unrealizedProfit = unrealizedProfit;
+    }
+
+    public Long getTransactionCount() {
+        return transactionCount;
+    }
+
+    public void setTransactionCount(Long transactionCount) {
+        this.transactionCount = transactionCount;
+    }
+
+    public List<SymbolProfitLossDTO> getSymbols() {
+        return symbols;
+    }
+
+    public void setSymbols(List<SymbolProfitLossDTO> symbols) {
+        this.symbols = symbols;
+    }
+
+    @Override
+    public String toString() {
+        return "ProfitLossDTO{" +
+                "portfolioId=" + portfolioId +
+                ", method='" + method + '\'' +
+                ", costBasis=" + costBasis +
+                ", marketValue=" + marketValue +
+                ", realizedProfit=" + realizedProfit +
+                ", unrealizedProfit=" + unrealizedProfit +
+                ", transactionCount=" + transactionCount +
+                '}';
+    }
+}
@@ -0,0 +1,65 @@
+package com.demo.dto;
+
+public class QuoteResultDTO {
+
+    private String symbol;
+    private StockDTO quote;  // Null when the lookup failed
+    private String error;    // Reason for the failure, null on success
+
+    // Default constructor
+    public QuoteResultDTO() {
+    }
+
+    // Constructor with all fields
+    public QuoteResultDTO(String symbol, StockDTO quote, String error) {
+        this.symbol = symbol;
+        this.quote = quote;
+        this.error = error;
+    }
+
+    public static QuoteResultDTO success(String symbol, StockDTO quote) {
+        return new QuoteResultDTO(symbol, quote, null);
+    }
+
+    public static QuoteResultDTO failure(String symbol, String error) {
+        return new QuoteResultDTO(symbol, null, error);
+    }
+
+    // Getters and Setters
+    public String getSymbol() {
+        return symbol;
+    }
+
+    public void setSymbol(String symbol) {
+        this.symbol = symbol;
+    }
+
+    public StockDTO getQuote() {
+        return quote;
+    }
+
+    public void setQuote(StockDTO quote) {
+        this.quote = quote;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    public boolean isSuccess() {
+        return quote != null;
+    }
+
+    @Override
+    public String toString() {
+        return "QuoteResultDTO{" +
+                "symbol='" + symbol + '\'' +
+                ", quote=" + quote +
+                ", error='" + error + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,173 @@
+package com.demo.dto;
+
+import java.util.List;
+
+public class RiskDTO {
+
+    private Long portfolioId;
+    private String range;
+    private String asOf;  // UTC day the figures were computed for, yyyy-MM-dd
+    private Double confidence;
+    private Integer observations;  // Daily returns every symbol has in common
+    private Double portfolioValue;  // Market value of the holdings the figures cover
+    private Double volatility;  // Annualized
+    private Double historicalVar;  // One-day value at risk from the observed returns
+    private Double parametricVar;  // One-day value at risk assuming normally distributed returns
+    private Double beta;
+    private String benchmark;
+    private List<SymbolRiskDTO> symbols;
+    private double[][] correlation;  // Rows and columns in the order of symbols
+    private List<String> excludedSymbols;  // Held, but without enough price history
+
+    // Default constructor
+    public RiskDTO() {
+    }
+
+    // Constructor with all fields
+    public RiskDTO(Long portfolioId, String range, String asOf, Double confidence, Integer observations,
+                   Double portfolioValue, Double volatility, Double historicalVar, Double parametricVar, Double beta,
+                   String benchmark, List<SymbolRiskDTO> symbols, double[][] correlation, List<String> excludedSymbols) {
+        this.portfolioId = portfolioId;
+        this.range = range;
+        this.asOf = asOf;
+        this.confidence = confidence;
+        this.observations = observations;
+        this.portfolioValue = portfolioValue;
+        this.volatility = volatility;
+        this.historicalVar = historicalVar;
+        this.parametricVar = parametricVar;
+        this.beta = beta;
+        this.benchmark = benchmark;
+        this.symbols = symbols;
+        this.correlation = correlation;
+        this.excludedSymbols = excludedSymbols;
+    }
+
+    // Getters and Setters
+    public Long getPortfolioId() {
+        return portfolioId;
+    }
+
+    public void setPortfolioId(Long portfolioId) {
+        this.portfolioId = portfolioId;
+    }
+
+    public String getRange() {
+        return range;
+    }
+
+    public void setRange(String range) {
+        this.range = range;
+    }
+
+    public String getAsOf() {
+        return asOf;
+    }
+
+    public void setAsOf(String asOf) {
+        this.asOf = asOf;
+    }
+
+    public Double getConfidence() {
+        return confidence;
+    }
+
+    public void setConfidence(Double confidence) {
+        this.confidence = confidence;
+    }
+
+    public Integer getObservations() {
+        return observations;
+    }
+
+    public void setObservations(Integer observations) {
+        this.observations = observations;
+    }
+
+    public Double getPortfolioValue() {
+        return portfolioValue;
+    }
+
+    public void setPortfolioValue(Double portfolioValue) {
+        this.portfolioValue = portfolioValue;
+    }
+
+    public Double getVolatility() {
+        return volatility;
+    }
+
+    public void setVolatility(Double volatility) {
+        this.volatility = volatility;
+    }
+
+    public Double getHistoricalVar() {
+        return historicalVar;
+    }
+
+    public void setHistoricalVar(Double historicalVar) {
+        this.historicalVar = historicalVar;
+    }
+
+    public Double getParametricVar() {
+        return parametricVar;
+    }
+
+    public void setParametricVar(Double parametricVar) {
+        this.parametricVar = parametricVar;
+    }
+
+    public Double getBeta() {
+        return beta;
+    }
+
+    public void setBeta(Double beta) {
+        this.beta = beta;
+    }
+
+    public String getBenchmark() {
+        return benchmark;
+    }
+
+    public void setBenchmark(String benchmark) {
+        this.benchmark = benchmark;
+    }
+
+    public List<SymbolRiskDTO> getSymbols() {
+        return symbols;
+    }
+
+    public void setSymbols(List<SymbolRiskDTO> symbols) {
+        this.symbols = symbols;
+    }
+
+    public double[][] getCorrelation() {
+        return correlation;
+    }
+
+    public void setCorrelation(double[][] correlation) {
+        this.correlation = correlation;
+    }
+
+    public List<String> getExcludedSymbols() {
+        return excludedSymbols;
+    }
+
+    public void setExcludedSymbols(List<String> excludedSymbols) {
+        this.excludedSymbols = excludedSymbols;
+    }
+
+    @Override
+    public String toString() {
+        return "RiskDTO{" +
+                "portfolioId=" + portfolioId +
+                ", range='" + range + '\'' +
+                ", asOf='" + asOf + '\'' +
+                ", observations=" + observations +
+                ", volatility=" + volatility +
+                ", historicalVar=" + historicalVar +
+                ", parametricVar=" + parametricVar +
+                ", beta=" + beta +
+                ", symbols=" + (symbols != null ? symbols.size() : 0) +
+                '}';
+    }
+}
@@ -11,6 +11,13 @@ public class StockDTO {
     private Integer quantity;
     private Double totalValue;
     private Double changePercent;
+    private Double dayHigh;  // Session high/low/open and previous close from the quote, same currency as currentPrice
+    private Double dayLow;
+    private Double openPrice;
+    private Double previousClose;
+    private Long lastUpdated;  // Epoch millis when the live price was fetched (null for database-only values)
+    private Long tradeTime;  // Epoch millis of the last trade behind the price (null when unknown)
+    private boolean stale;  // True when Finnhub is failing and this is the last known price
 
     // Default constructor
     public StockDTO() {
@@ -84,12 +91,81 @@ public class StockDTO {
         this.changePercent = changePercent;
     }
 
+    public Double getDayHigh() {
+        return dayHigh;
+    }
+
+    public void setDayHigh(Double dayHigh) {
+        this.dayHigh = dayHigh;
+    }
+
+    public Double getDayLow() {
+        return dayLow;
+    }
+
+    public void setDayLow(Double dayLow) {
+        this.dayLow = dayLow;
+    }
+
+    public Double getOpenPrice() {
+        return openPrice;
+    }
+
+    public void setOpenPrice(Double openPrice) {
+        this.openPrice = openPrice;
+    }
+
+    public Double getPreviousClose() {
+        return previousClose;
+    }
+
+    public void setPreviousClose(Double previousClose) {
+        this.previousClose = previousClose;
+    }
+
+    public Long getLastUpdated() {
+        return lastUpdated;
+    }
+
+    public void setLastUpdated(Long lastUpdated) {
+        this.lastUpdated = lastUpdated;
+    }
+
+    public Long getTradeTime() {
+        return tradeTime;
+    }
+
+    public void setTradeTime(Long tradeTime) {
+        this.tradeTime = tradeTime;
+    }
+
+    public boolean isStale() {
+        return stale;
+    }
+
+    public void setStale(boolean stale) {
+        this.stale = stale;
+    }
+
     // Convert a Stock entity to a StockDTO
     public static StockDTO fromEntity(Stock stock) {
         Double totalValue = stock.getCurrentPrice() * stock.getQuantity();
         return new StockDTO(stock.getId(), stock.getSymbol(), stock.getCompanyName(), stock.getCurrentPrice(), stock.getQuantity(), totalValue, 0.0);
     }
 
+    // Create an independent copy, used when sharing cached quotes between callers
+    public StockDTO copy() {
+        StockDTO copy = new StockDTO(id, symbol, companyName, currentPrice, quantity, totalValue, changePercent);
+        copy.setDayHigh(dayHigh);
+        copy.setDayLow(dayLow);
+        copy.setOpenPrice(openPrice);
+        copy.setPreviousClose(previousClose);
+        copy.setLastUpdated(lastUpdated);
+        copy.setTradeTime(tradeTime);
+        copy.setStale(stale);
+        return copy;
+    }
+
     // Convert a StockDTO to a Stock entity (optional, for updates)
     public Stock toEntity() {
         Stock stock = new Stock();
@@ -110,6 +186,13 @@ public class StockDTO {
                 ", quantity=" + quantity +
                 ", totalValue=" + totalValue +
                 ", changePercent=" + changePercent +
+                ", dayHigh=" + dayHigh +
+                ", dayLow=" + dayLow +
+                ", openPrice=" + openPrice +
+                ", previousClose=" + previousClose +
+                ", lastUpdated=" + lastUpdated +
+                ", tradeTime=" + tradeTime +
+                ", stale=" + stale +
                 '}';
     }
 }
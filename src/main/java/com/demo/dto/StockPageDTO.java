@@ -0,0 +1,89 @@
+package com.demo.dto;
+
+import java.util.List;
+import java.util.Map;
+
+public class StockPageDTO {
+
+    private List<Map<String, Object>> content;  // Stocks, limited to the requested fields
+    private Integer page;            // Page number for offset paging, null for cursor paging
+    private int size;
+    private Long totalElements;      // Only computed for offset paging
+    private Integer totalPages;
+    private String nextCursor;       // Pass as cursor= to get the next page; null on the last page
+
+    // Default constructor
+    public StockPageDTO() {
+    }
+
+    // Constructor with all fields
+    public StockPageDTO(List<Map<String, Object>> content, Integer page, int size, Long totalElements, Integer totalPages, String nextCursor) {
+        this.content = content;
+        this.page = page;
+        this.size = size;
+        this.totalElements = totalElements;
+        this.totalPages = totalPages;
+        this.nextCursor = nextCursor;
+    }
+
+    // Getters and Setters
+    public List<Map<String, Object>> getContent() {
+        return content;
+    }
+
+    public void setContent(List<Map<String, Object>> content) {
+        this.content = content;
+    }
+
+    public Integer getPage() {
+        return page;
+    }
+
+    public void setPage(Integer page) {
+        this.page = page;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public void setSize(int size) {
+        this.size = size;
+    }
+
+    public Long getTotalElements() {
+        return totalElements;
+    }
+
+    public void setTotalElements(Long totalElements) {
+        this.totalElements = totalElements;
+    }
+
+    public Integer getTotalPages() {
+        return totalPages;
+    }
+
+    public void setTotalPages(Integer totalPages) {
+        this.totalPages = totalPages;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    @Override
+    public String toString() {
+        return "StockPageDTO{" +
+                "content=" + content +
+                ", page=" + page +
+                ", size=" + size +
+                ", totalElements=" + totalElements +
+                ", totalPages=" + totalPages +
+                ", nextCursor='" + nextCursor + '\'' +
+                '}';
+    }
+}
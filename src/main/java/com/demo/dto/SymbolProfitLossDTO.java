@@ -0,0 +1,129 @@
+package com.demo.dto;
+
+public class SymbolProfitLossDTO {
+
+    private Long stockId;
+    private String symbol;
+    private Double quantity;  // Units still held
+    private Double costBasis;  // Cost of the units still held
+    private Double averageCost;  // Cost basis per unit held, null when nothing is held
+    private Double marketPrice;  // Live price, or the stored price when the symbol is not priced
+    private Double marketValue;
+    private Double realizedProfit;
+    private Double unrealizedProfit;
+    private Double unmatchedQuantity;  // Units sold beyond what was held, excluded from realized profit
+
+    // Default constructor
+    public SymbolProfitLossDTO() {
+    }
+
+    // Constructor with all fields
+    public SymbolProfitLossDTO(Long stockId, String symbol, Double quantity, Double costBasis, Double averageCost,
+                               Double marketPrice, Double marketValue, Double realizedProfit, Double unrealizedProfit,
+                               Double unmatchedQuantity) {
+        this.stockId = stockId;
+        this.symbol = symbol;
+        this.quantity = quantity;
+        this.costBasis = costBasis;
+        this.averageCost = averageCost;
+        this.marketPrice = marketPrice;
+        this.marketValue = marketValue;
+        this.realizedProfit = realizedProfit;
+        this.unrealizedProfit = unrealizedProfit;
+        this.unmatchedQuantity = unmatchedQuantity;
+    }
+
+    // Getters and Setters
+    public Long getStockId() {
+        return stockId;
+    }
+
+    public void setStockId(Long stockId) {
+        this.stockId = stockId;
+    }
+
+    public String getSymbol() {
+        return symbol;
+    }
+
+    public void setSymbol(String symbol) {
+        this.symbol = symbol;
+    }
+
+    public Double getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(Double quantity) {
+        this.quantity = quantity;
+    }
+
+    public Double getCostBasis() {
+        return costBasis;
+    }
+
+    public void setCostBasis(Double costBasis) {
+        this.costBasis = costBasis;
+    }
+
+    public Double getAverageCost() {
+        return averageCost;
+    }
+
+    public void setAverageCost(Double averageCost) {
+        this.averageCost = averageCost;
+    }
+
+    public Double getMarketPrice() {
+        return marketPrice;
+    }
+
+    public void setMarketPrice(Double marketPrice) {
+        this.marketPrice = marketPrice;
+    }
+
+    public Double getMarketValue() {
+        return marketValue;
+    }
+
+    public void setMarketValue(Double marketValue) {
+        this.marketValue = marketValue;
+    }
+
+    public Double getRealizedProfit() {
+        return realizedProfit;
+    }
+
+    public void setRealizedProfit(Double realizedProfit) {
+        this.realizedProfit = realizedProfit;
+    }
+
+    public Double getUnrealizedProfit() {
+        return unrealizedProfit;
+    }
+
+    public void setUnrealizedProfit(Double unrealizedProfit) {
+        this.unrealizedProfit = unrealizedProfit;
+    }
+
+    public Double getUnmatchedQuantity() {
+        return unmatchedQuantity;
+    }
+
+    public void setUnmatchedQuantity(Double unmatchedQuantity) {
+        this.unmatchedQuantity = unmatchedQuantity;
+    }
+
+    @Override
+    public String toString() {
+        return "SymbolProfitLossDTO{" +
+                "stockId=" + stockId +
+                ", symbol='" + symbol + '\'' +
+                ", quantity=" + quantity +
+                ", costBasis=" + costBasis +
+                ", marketValue=" + marketValue +
+                ", realizedProfit=" + realizedProfit +
+                ", unrealizedProfit=" + unrealizedProfit +
+                '}';
+    }
+}
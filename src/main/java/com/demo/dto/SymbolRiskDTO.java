@@ -0,0 +1,64 @@
+package com.demo.dto;
+
+public class SymbolRiskDTO {
+
+    private String symbol;
+    private Double weight;  // Share of the portfolio's market value covered by the risk figures, 0 to 1
+    private Double volatility;  // Annualized standard deviation of daily returns
+    private Double beta;  // Against the benchmark, null when it has no history
+
+    // Default constructor
+    public SymbolRiskDTO() {
+    }
+
+    // Constructor with all fields
+    public SymbolRiskDTO(String symbol, Double weight, Double volatility, Double beta) {
+        this.symbol = symbol;
+        this.weight = weight;
+        this.volatility = volatility;
+        this.beta = beta;
+    }
+
+    // Getters and Setters
+    public String getSymbol() {
+        return symbol;
+    }
+
+    public void setSymbol(String symbol) {
+        this.symbol = symbol;
+    }
+
+    public Double getWeight() {
+        return weight;
+    }
+
+    public void setWeight(Double weight) {
+        this.weight = weight;
+    }
+
+    public Double getVolatility() {
+        return volatility;
+    }
+
+    public void setVolatility(Double volatility) {
+        this.volatility = volatility;
+    }
+
+    public Double getBeta() {
+        return beta;
+    }
+
+    public void setBeta(Double beta) {
+        this.beta = beta;
+    }
+
+    @Override
+    public String toString() {
+        return "SymbolRiskDTO{" +
+                "symbol='" + symbol + '\'' +
+                ", weight=" + weight +
+                ", volatility=" + volatility +
+                ", beta=" + beta +
+                '}';
+    }
+}
@@ -0,0 +1,123 @@
+package com.demo.model;
+
+import jakarta.persistence.*;
+
+import java.util.Date;
+
+@Entity
+public class CompanyProfile {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(unique = true, nullable = false)
+    private String symbol;  // Stock symbol the profile belongs to
+
+    private String name;  // Company name (null if Finnhub has no profile for the symbol)
+
+    private String exchange;
+
+    private String industry;
+
+    private String currency;
+
+    @Column(length = 512)
+    private String logoUrl;
+
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date lastRefreshed;  // When the profile was last fetched from Finnhub
+
+    // Default constructor
+    public CompanyProfile() {
+    }
+
+    // Constructor with all fields
+    public CompanyProfile(String symbol, String name, String exchange, String industry, String currency, String logoUrl, Date lastRefreshed) {
+        this.symbol = symbol;
+        this.name = name;
+        this.exchange = exchange;
+        this.industry = industry;
+        this.currency = currency;
+        this.logoUrl = logoUrl;
+        this.lastRefreshed = lastRefreshed;
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getSymbol() {
+        return symbol;
+    }
+
+    public void setSymbol(String symbol) {
+        this.symbol = symbol;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getExchange() {
+        return exchange;
+    }
+
+    public void setExchange(String exchange) {
+        this.exchange = exchange;
+    }
+
+    public String getIndustry() {
+        return industry;
+    }
+
+    public void setIndustry(String industry) {
+        this.industry = industry;
+    }
+
+    public String getCurrency() {
+        return currency;
+    }
+
+    public void setCurrency(String currency) {
+        this.currency = currency;
+    }
+
+    public String getLogoUrl() {
+        return logoUrl;
+    }
+
+    public void setLogoUrl(String logoUrl) {
+        this.logoUrl = logoUrl;
+    }
+
+    public Date getLastRefreshed() {
+        return lastRefreshed;
+    }
+
+    public void setLastRefreshed(Date lastRefreshed) {
+        this.lastRefreshed = lastRefreshed;
+    }
+
+    @Override
+    public String toString() {
+        return "CompanyProfile{" +
+                "id=" + id +
+                ", symbol='" + symbol + '\'' +
+                ", name='" + name + '\'' +
+                ", exchange='" + exchange + '\'' +
+                ", industry='" + industry + '\'' +
+                ", currency='" + currency + '\'' +
+                ", lastRefreshed=" + lastRefreshed +
+                '}';
+    }
+}
@@ -0,0 +1,122 @@
+package com.demo.model;
+
+import jakarta.persistence.*;
+
+@Entity
+@Table(uniqueConstraints = @UniqueConstraint(columnNames = {"symbol", "start_time"}))
+public class DailyCandle {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String symbol;
+
+    @Column(name = "start_time", nullable = false)
+    private Long startTime;  // Start of the UTC day, epoch millis
+
+    private Double open;
+
+    private Double high;
+
+    private Double low;
+
+    private Double close;
+
+    private Double volume;  // Streamed trade volume; 0 when the day was only priced by REST quotes
+
+    // Default constructor
+    public DailyCandle() {
+    }
+
+    // Constructor with all fields
+    public DailyCandle(String symbol, Long startTime, Double open, Double high, Double low, Double close, Double volume) {
+        this.symbol = symbol;
+        this.startTime = startTime;
+        this.open = open;
+        this.high = high;
+        this.low = low;
+        this.close = close;
+        this.volume = volume;
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getSymbol() {
+        return symbol;
+    }
+
+    public void setSymbol(String symbol) {
+        this.symbol = symbol;
+    }
+
+    public Long getStartTime() {
+        return startTime;
+    }
+
+    public void setStartTime(Long startTime) {
+        this.startTime = startTime;
+    }
+
+    public Double getOpen() {
+        return open;
+    }
+
+    public void setOpen(Double open) {
+        this.open = open;
+    }
+
+    public Double getHigh() {
+        return high;
+    }
+
+    public void setHigh(Double high) {
+        this.high = high;
+    }
+
+    public Double getLow() {
+        return low;
+    }
+
+    public void setLow(Double low) {
+        this.low = low;
+    }
+
+    public Double getClose() {
+        return close;
+    }
+
+    public void setClose(Double close) {
+        this.close = close;
+    }
+
+    public Double getVolume() {
+        return volume;
+    }
+
+    public void setVolume(Double volume) {
+        this.volume = volume;
+    }
+
+    @Override
+    public String toString() {
+        return "DailyCandle{" +
+                "id=" + id +
+                ", symbol='" + symbol + '\'' +
+                ", startTime=" + startTime +
+                ", open=" + open +
+                ", high=" + high +
+                ", low=" + low +
+                ", close=" + close +
+                ", volume=" + volume +
+                '}';
+    }
+}
@@ -0,0 +1,159 @@
+package com.demo.model;
+
+import jakarta.persistence.*;
+
+import java.util.Date;
+
+@Entity
+@Table(indexes = @Index(columnList = "through_transaction_id"))
+public class PositionSnapshot {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "through_transaction_id", nullable = false)
+    private Long throughTransactionId;  // The snapshot covers every transaction with an id up to this one
+
+    @Column(nullable = false)
+    private Long portfolioId;
+
+    @Column(nullable = false)
+    private Long stockId;
+
+    private String symbol;
+
+    private Double buyQuantity;  // Sums over the covered BUY and SELL transactions of this portfolio and stock
+
+    private Double buyCost;
+
+    private Double sellQuantity;
+
+    private Double sellProceeds;
+
+    private Long transactionCount;  // Covered transactions of this portfolio and stock
+
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date createdAt;
+
+    // Default constructor
+    public PositionSnapshot() {
+    }
+
+    // Constructor with all fields
+    public PositionSnapshot(Long throughTransactionId, Long portfolioId, Long stockId, String symbol, Double buyQuantity,
+                            Double buyCost, Double sellQuantity, Double sellProceeds, Long transactionCount, Date createdAt) {
+        this.throughTransactionId = throughTransactionId;
+        this.portfolioId = portfolioId;
+        this.stockId = stockId;
+        this.symbol = symbol;
+        this.buyQuantity = buyQuantity;
+        this.buyCost = buyCost;
+        this.sellQuantity = sellQuantity;
+        this.sellProceeds = sellProceeds;
+        this.transactionCount = transactionCount;
+        this.createdAt = createdAt;
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getThroughTransactionId() {
+        return throughTransactionId;
+    }
+
+    public void setThroughTransactionId(Long throughTransactionId) {
+        this.throughTransactionId = throughTransactionId;
+    }
+
+    public Long getPortfolioId() {
+        return portfolioId;
+    }
+
+    public void setPortfolioId(Long portfolioId) {
+        this.portfolioId = portfolioId;
+    }
+
+    public Long getStockId() {
+        return stockId;
+    }
+
+    public void setStockId(Long stockId) {
+        this.stockId = stockId;
+    }
+
+    public String getSymbol() {
+        return symbol;
+    }
+
+    public void setSymbol(String symbol) {
+        this.symbol = symbol;
+    }
+
+    public Double getBuyQuantity() {
+        return buyQuantity;
+    }
+
+    public void setBuyQuantity(Double buyQuantity) {
+        this.buyQuantity = buyQuantity;
+    }
+
+    public Double getBuyCost() {
+        return buyCost;
+    }
+
+    public void setBuyCost(Double buyCost) {
+        this.buyCost = buyCost;
+    }
+
+    public Double getSellQuantity() {
+        return sellQuantity;
+    }
+
+    public void setSellQuantity(Double sellQuantity) {
+        this.sellQuantity = sellQuantity;
+    }
+
+    public Double getSellProceeds() {
+        return sellProceeds;
+    }
+
+    public void setSellProceeds(Double sellProceeds) {
+        this.sellProceeds = sellProceeds;
+    }
+
+    public Long getTransactionCount() {
+        return transactionCount;
+    }
+
+    public void setTransactionCount(Long transactionCount) {
+        this.transactionCount = transactionCount;
+    }
+
+    public Date getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Date createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    @Override
+    public String toString() {
+        return "PositionSnapshot{" +
+                "throughTransactionId=" + throughTransactionId +
+                ", portfolioId=" + portfolioId +
+                ", stockId=" + stockId +
+                ", symbol='" + symbol + '\'' +
+                ", buyQuantity=" + buyQuantity +
+                ", sellQuantity=" + sellQuantity +
+                ", transactionCount=" + transactionCount +
+                '}';
+    }
+}
@@ -5,6 +5,7 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import org.hibernate.annotations.Formula;
 
 @Entity
 public class Stock {
@@ -18,6 +19,14 @@ public class Stock {
     private Double currentPrice;
     private Integer quantity;
 
+    // Latest live quote written back by QuoteRefresher, so listings can be sorted in the database
+    private Double livePrice;
+    private Double changePercent;
+
+    // Market value at the live price (purchase price until first priced); read-only, used for sorting
+    @Formula("coalesce(live_price, current_price) * quantity")
+    private Double marketValue;
+
     // Default constructor
     public Stock() {
     }
@@ -71,6 +80,26 @@ public class Stock {
         this.quantity = quantity;
     }
 
+    public Double getLivePrice() {
+        return livePrice;
+    }
+
+    public void setLivePrice(Double livePrice) {
+        this.livePrice = livePrice;
+    }
+
+    public Double getChangePercent() {
+        return changePercent;
+    }
+
+    public void setChangePercent(Double changePercent) {
+        this.changePercent = changePercent;
+    }
+
+    public Double getMarketValue() {
+        return marketValue;
+    }
+
     // Calculate total value of this stock in the portfolio
     public Double getTotalValue() {
         return this.currentPrice * this.quantity;
@@ -84,6 +113,8 @@ public class Stock {
                 ", companyName='" + companyName + '\'' +
                 ", currentPrice=" + currentPrice +
                 ", quantity=" + quantity +
+                ", livePrice=" + livePrice +
+                ", changePercent=" + changePercent +
                 '}';
     }
 
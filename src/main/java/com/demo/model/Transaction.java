@@ -6,6 +6,8 @@ import jakarta.persistence.*;
 import java.util.Date;
 
 @Entity
+// Serves a portfolio's transactions in date order without sorting
+@Table(indexes = @Index(columnList = "portfolio_id, transaction_date, id"))
 public class Transaction {
 
     @Id
@@ -0,0 +1,10 @@
+package com.demo.repository;
+
+import com.demo.model.CompanyProfile;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.Optional;
+
+public interface CompanyProfileRepository extends JpaRepository<CompanyProfile, Long> {
+    Optional<CompanyProfile> findBySymbol(String symbol);  // Find profile by stock symbol
+}
@@ -0,0 +1,15 @@
+package com.demo.repository;
+
+import com.demo.model.DailyCandle;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface DailyCandleRepository extends JpaRepository<DailyCandle, Long> {
+    // Stored daily bars for a symbol in [from, to], oldest first
+    List<DailyCandle> findBySymbolAndStartTimeBetweenOrderByStartTimeAsc(String symbol, Long from, Long to);
+
+    // Rows already stored for any of these symbol/day pairs, to merge a batch into
+    List<DailyCandle> findBySymbolInAndStartTimeIn(Collection<String> symbols, Collection<Long> startTimes);
+}
@@ -2,7 +2,24 @@ package com.demo.repository;
 
 import com.demo.model.Portfolio;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
 
 public interface PortfolioRepository extends JpaRepository<Portfolio, Long> {
-    // You can add custom queries here if needed
+    // (id, name, description) of every portfolio
+    @Query("select p.id, p.name, p.description from Portfolio p order by p.id")
+    List<Object[]> findNameRows();
+
+    // (portfolio id, stock id, current price, quantity) for every stock held in a portfolio
+    @Query("select p.id, s.id, s.currentPrice, s.quantity from Portfolio p join p.stocks s")
+    List<Object[]> findStockValueRows();
+
+    // (portfolio id, stock id) pairs for every stock held in a portfolio
+    @Query("select p.id, s.id from Portfolio p join p.stocks s")
+    List<Object[]> findStockMemberships();
+
+    // (portfolio id, market value) per portfolio, summed in the database
+    @Query("select p.id, coalesce(sum(coalesce(s.livePrice, s.currentPrice) * s.quantity), 0) from Portfolio p join p.stocks s group by p.id")
+    List<Object[]> sumMarketValueByPortfolio();
 }
@@ -0,0 +1,34 @@
+package com.demo.repository;
+
+import com.demo.model.PositionSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+public interface PositionSnapshotRepository extends JpaRepository<PositionSnapshot, Long> {
+    // The newest snapshot generation, or null if none was taken
+    @Query("select max(s.throughTransactionId) from PositionSnapshot s")
+    Long findLatestThroughTransactionId();
+
+    // The newest generation older than the given one
+    @Query("select max(s.throughTransactionId) from PositionSnapshot s where s.throughTransactionId < :through")
+    Long findLatestThroughTransactionIdBefore(@Param("through") Long through);
+
+    List<PositionSnapshot> findByThroughTransactionId(Long throughTransactionId);
+
+    // Drop generations that can no longer be used
+    @Modifying
+    @Transactional
+    @Query("delete from PositionSnapshot s where s.throughTransactionId < :through")
+    int deleteOlderThan(@Param("through") Long through);
+
+    // Drop generations covering a transaction that was changed or deleted
+    @Modifying
+    @Transactional
+    @Query("delete from PositionSnapshot s where s.throughTransactionId >= :transactionId")
+    int deleteCovering(@Param("transactionId") Long transactionId);
+}
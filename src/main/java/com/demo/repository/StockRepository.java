@@ -1,12 +1,39 @@
 package com.demo.repository;
 
 import com.demo.model.Stock;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
 import java.util.Optional;
 
 
 public interface StockRepository extends JpaRepository<Stock, Long> {
     Optional<Stock> findBySymbol(String symbol);  // Find stock by symbol
-}
 
+    // First keyset page in symbol order
+    @Query("select s from Stock s order by s.symbol asc, s.id asc")
+    List<Stock> findFirstBySymbolOrder(Pageable pageable);
+
+    // Keyset page in symbol order: the rows after (symbol, id) of the previous page's last row
+    @Query("select s from Stock s where s.symbol > :symbol or (s.symbol = :symbol and s.id > :id) order by s.symbol asc, s.id asc")
+    List<Stock> findAfterBySymbolOrder(@Param("symbol") String symbol, @Param("id") Long id, Pageable pageable);
+
+    // Scalar rows (id, symbol, quantity, live or purchase price) for building running totals without loading entities
+    @Query("select s.id, s.symbol, s.quantity, coalesce(s.livePrice, s.currentPrice) from Stock s")
+    List<Object[]> findHoldingRows();
+
+    // Market value of every holding, summed in the database
+    @Query("select coalesce(sum(coalesce(s.livePrice, s.currentPrice) * s.quantity), 0) from Stock s")
+    Double sumMarketValue();
+
+    // Store the latest live quote for a symbol
+    @Modifying
+    @Transactional
+    @Query("update Stock s set s.livePrice = :price, s.changePercent = :changePercent where s.symbol = :symbol")
+    int updateLiveQuote(@Param("symbol") String symbol, @Param("price") Double price, @Param("changePercent") Double changePercent);
+}
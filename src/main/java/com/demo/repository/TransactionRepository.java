@@ -1,12 +1,44 @@
 package com.demo.repository;
 
 import com.demo.model.Transaction;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Date;
 import java.util.List;
+import java.util.Optional;
 
 public interface TransactionRepository extends JpaRepository<Transaction, Long> {
     List<Transaction> findByPortfolioId(Long portfolioId);
-    // Add custom queries if needed
-}
 
+    // Row-locks the transaction until the surrounding database transaction ends, so edits and deletes of it queue up
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select t from Transaction t where t.id = :id")
+    Optional<Transaction> findByIdForUpdate(@Param("id") Long id);
+
+    // Ledger rows are (id, portfolio id, stock id, symbol, type, amount, price per unit), without loading entities
+
+    // Keyset page of ledger rows after the given transaction id, in id order
+    @Query("select t.id, t.portfolio.id, t.stock.id, t.stock.symbol, t.type, t.amount, t.pricePerUnit from Transaction t where t.id > :afterId order by t.id asc")
+    List<Object[]> findLedgerRowsAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    // Ledger rows of one portfolio
+    @Query("select t.id, t.portfolio.id, t.stock.id, t.stock.symbol, t.type, t.amount, t.pricePerUnit from Transaction t where t.portfolio.id = :portfolioId")
+    List<Object[]> findLedgerRowsByPortfolio(@Param("portfolioId") Long portfolioId);
+
+    long countByIdLessThanEqual(Long id);
+
+    // Cost basis rows are (id, stock id, symbol, type, amount, price per unit, date, stored live or purchase price)
+
+    // First keyset page of a portfolio's cost basis rows in date order
+    @Query("select t.id, t.stock.id, t.stock.symbol, t.type, t.amount, t.pricePerUnit, t.transactionDate, coalesce(t.stock.livePrice, t.stock.currentPrice) from Transaction t where t.portfolio.id = :portfolioId order by t.transactionDate asc, t.id asc")
+    List<Object[]> findFirstCostBasisRows(@Param("portfolioId") Long portfolioId, Pageable pageable);
+
+    // Keyset page in date order: the rows after (date, id) of the previous page's last row
+    @Query("select t.id, t.stock.id, t.stock.symbol, t.type, t.amount, t.pricePerUnit, t.transactionDate, coalesce(t.stock.livePrice, t.stock.currentPrice) from Transaction t where t.portfolio.id = :portfolioId and (t.transactionDate > :date or (t.transactionDate = :date and t.id > :id)) order by t.transactionDate asc, t.id asc")
+    List<Object[]> findCostBasisRowsAfter(@Param("portfolioId") Long portfolioId, @Param("date") Date date, @Param("id") Long id, Pageable pageable);
+}
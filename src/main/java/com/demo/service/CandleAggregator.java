@@ -0,0 +1,316 @@
+package com.demo.service;
+
+import com.demo.dto.CandleDTO;
+import com.demo.dto.StockDTO;
+import com.demo.model.DailyCandle;
+import com.demo.repository.DailyCandleRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Rolls quotes and streamed trades into OHLCV bars per symbol at each
+ * {@link CandleResolution}, each held in a fixed-size {@link CandleRing}.
+ * Prices only ever touch the 1-minute bar; when a bar closes (a later price
+ * arrives or its period has passed) it is folded into the next coarser bar,
+ * so coarse bars are never recomputed from ticks. Closed daily bars are
+ * queued and written to the database in batches by {@link #flush()}.
+ */
+@Component
+public class CandleAggregator implements PriceBook.Listener {
+
+    private static final CandleResolution[] RESOLUTIONS = CandleResolution.values();
+    private static final int DAILY = CandleResolution.ONE_DAY.ordinal();
+
+    private final PriceBook priceBook;
+    private final DailyCandleRepository dailyCandleRepository;
+    private final int[] capacities;
+    private final int persistBatchSize;
+    private final ConcurrentHashMap<String, SymbolCandles> candles = new ConcurrentHashMap<>();
+    // Closed daily bars waiting to be written
+    private final ConcurrentLinkedQueue<DailyCandle> pendingDaily = new ConcurrentLinkedQueue<>();
+
+    private final AtomicLong trades = new AtomicLong();
+    private final AtomicLong lateTicks = new AtomicLong();
+    private final AtomicLong dailyBarsPersisted = new AtomicLong();
+    private final AtomicLong persistFailures = new AtomicLong();
+
+    public CandleAggregator(
+            PriceBook priceBook,
+            DailyCandleRepository dailyCandleRepository,
+            @Value("${candles.minute-bars:1440}") int minuteBars,
+            @Value("${candles.five-minute-bars:2016}") int fiveMinuteBars,
+            @Value("${candles.hour-bars:2160}") int hourBars,
+            @Value("${candles.daily-bars:400}") int dailyBars,
+            @Value("${candles.persist-batch-size:500}") int persistBatchSize
+    ) {
+        this.priceBook = priceBook;
+        this.dailyCandleRepository = dailyCandleRepository;
+        this.capacities = new int[] { minuteBars, fiveMinuteBars, hourBars, dailyBars };
+        this.persistBatchSize = Math.max(1, persistBatchSize);
+    }
+
+    @PostConstruct
+    public void start() {
+        priceBook.addListener(this);
+    }
+
+    /**
+     * Closes every bar and writes the daily ones, so a restart merges with today's partial bar instead of losing it
+     */
+    @PreDestroy
+    public void stop() {
+        sweep(Long.MAX_VALUE);
+        flushPending();
+    }
+
+    @Override
+    public void onUpdate(StockDTO quote) {
+        // Accepted trades also arrive through onTrade at the same price and time; applying a price twice leaves the bar unchanged.
+        // Bars are keyed on the trade time, so polling a closed market only re-applies the last trade instead of opening new bars.
+        if (quote.getCurrentPrice() != null && quote.getTradeTime() != null) {
+            apply(quote.getSymbol(), quote.getTradeTime(), quote.getCurrentPrice(), 0);
+        }
+    }
+
+    @Override
+    public void onTrade(String symbol, double price, double volume, long timestamp) {
+        trades.incrementAndGet();
+        apply(symbol, timestamp, price, volume);
+    }
+
+    /**
+     * Adds a price (and traded volume) to the symbol's 1-minute bar. A price for a minute that has already been rolled up is dropped.
+     */
+    public void apply(String symbol, long timestamp, double price, double volume) {
+        if (price <= 0) {
+            return;
+        }
+        SymbolCandles symbolCandles = candles.computeIfAbsent(key(symbol), k -> new SymbolCandles(k, capacities));
+        synchronized (symbolCandles) {
+            CandleRing minutes = symbolCandles.rings[0];
+            long start = CandleResolution.ONE_MINUTE.barStart(timestamp);
+            if (minutes.size() > 0 && minutes.isLastOpen() && start == minutes.lastStart()) {
+                minutes.mergeLast(price, price, price, volume);
+            } else if (minutes.size() == 0 || start > minutes.lastStart()) {
+                if (minutes.isLastOpen()) {
+                    rollUp(symbolCandles, 0);
+                }
+                minutes.append(start, price, price, price, price, volume);
+            } else {
+                lateTicks.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Bars with from <= start <= to, oldest first. The newest bar includes finer bars not yet rolled up, and daily
+     * bars older than the in-memory ring are read from the database.
+     */
+    public List<CandleDTO> getCandles(String symbol, CandleResolution resolution, long from, long to) {
+        String key = key(symbol);
+        int level = resolution.ordinal();
+        SymbolCandles symbolCandles = candles.get(key);
+        List<CandleDTO> result = new ArrayList<>();
+
+        if (level == DAILY) {
+            Long firstInMemory = null;
+            if (symbolCandles != null) {
+                synchronized (symbolCandles) {
+                    CandleRing days = symbolCandles.rings[DAILY];
+                    firstInMemory = days.size() > 0 ? days.startAt(0) : null;
+                }
+            }
+            if (firstInMemory == null || from < firstInMemory) {
+                long storedTo = firstInMemory == null ? to : Math.min(to, firstInMemory - 1);
+                for (DailyCandle row : dailyCandleRepository.findBySymbolAndStartTimeBetweenOrderByStartTimeAsc(key, from, storedTo)) {
+                    result.add(new CandleDTO(row.getStartTime(), row.getOpen(), row.getHigh(), row.getLow(), row.getClose(), row.getVolume()));
+                }
+            }
+        }
+        if (symbolCandles == null) {
+            return result;
+        }
+
+        synchronized (symbolCandles) {
+            CandleRing ring = symbolCandles.rings[level];
+            for (int i = ring.lowerBound(from); i < ring.size() && ring.startAt(i) <= to; i++) {
+                result.add(new CandleDTO(ring.startAt(i), ring.openAt(i), ring.highAt(i), ring.lowAt(i), ring.closeAt(i), ring.volumeAt(i)));
+            }
+            // Fold in the open finer bars, coarsest (earliest) first so the newest price ends up as the close
+            for (int finer = level - 1; finer >= 0; finer--) {
+                CandleRing finerRing = symbolCandles.rings[finer];
+                if (finerRing.size() == 0 || !finerRing.isLastOpen()) {
+                    continue;
+                }
+                long start = resolution.barStart(finerRing.lastStart());
+                if (start < from || start > to) {
+                    continue;
+                }
+                int i = finerRing.size() - 1;
+                CandleDTO last = result.isEmpty() ? null : result.get(result.size() - 1);
+                if (last != null && last.getStartTime() == start) {
+                    last.setHigh(Math.max(last.getHigh(), finerRing.highAt(i)));
+                    last.setLow(Math.min(last.getLow(), finerRing.lowAt(i)));
+                    last.setClose(finerRing.closeAt(i));
+                    last.setVolume(last.getVolume() + finerRing.volumeAt(i));
+                } else {
+                    result.add(new CandleDTO(start, finerRing.openAt(i), finerRing.highAt(i), finerRing.lowAt(i), finerRing.closeAt(i), finerRing.volumeAt(i)));
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Bars covering as far back as the in-memory ring for the resolution holds, oldest first
+     */
+    public List<CandleDTO> getCandles(String symbol, CandleResolution resolution) {
+        long now = System.currentTimeMillis();
+        long span = capacities[resolution.ordinal()] * resolution.getMillis();
+        return getCandles(symbol, resolution, resolution.barStart(now) - span, now);
+    }
+
+    /**
+     * Closes bars whose period has ended and writes queued daily bars in batches
+     */
+    @Scheduled(
+            fixedDelayString = "${candles.flush-interval-ms:60000}",
+            initialDelayString = "${candles.flush-interval-ms:60000}"
+    )
+    public void flush() {
+        sweep(System.currentTimeMillis());
+        flushPending();
+    }
+
+    public Map<String, Long> getStats() {
+        Map<String, Long> stats = new LinkedHashMap<>();
+        stats.put("symbols", (long) candles.size());
+        stats.put("trades", trades.get());
+        stats.put("lateTicks", lateTicks.get());
+        stats.put("pendingDailyBars", (long) pendingDaily.size());
+        stats.put("dailyBarsPersisted", dailyBarsPersisted.get());
+        stats.put("persistFailures", persistFailures.get());
+        return stats;
+    }
+
+    // Closes every open bar whose period ended at or before now, finest first so closes cascade upwards
+    private void sweep(long now) {
+        for (SymbolCandles symbolCandles : candles.values()) {
+            synchronized (symbolCandles) {
+                for (int level = 0; level < RESOLUTIONS.length; level++) {
+                    CandleRing ring = symbolCandles.rings[level];
+                    if (ring.isLastOpen() && ring.lastStart() + RESOLUTIONS[level].getMillis() <= now) {
+                        rollUp(symbolCandles, level);
+                    }
+                }
+            }
+        }
+    }
+
+    // Closes the newest bar at this level and folds it into the next coarser one; closed daily bars are queued for the database
+    private void rollUp(SymbolCandles symbolCandles, int level) {
+        CandleRing ring = symbolCandles.rings[level];
+        ring.closeLast();
+        int i = ring.size() - 1;
+        if (level == DAILY) {
+            pendingDaily.add(new DailyCandle(symbolCandles.symbol, ring.startAt(i), ring.openAt(i), ring.highAt(i),
+                    ring.lowAt(i), ring.closeAt(i), ring.volumeAt(i)));
+            return;
+        }
+        CandleRing coarser = symbolCandles.rings[level + 1];
+        long start = RESOLUTIONS[level + 1].barStart(ring.startAt(i));
+        if (coarser.size() > 0 && coarser.isLastOpen() && start == coarser.lastStart()) {
+            coarser.mergeLast(ring.highAt(i), ring.lowAt(i), ring.closeAt(i), ring.volumeAt(i));
+        } else if (coarser.size() == 0 || start > coarser.lastStart()) {
+            if (coarser.isLastOpen()) {
+                rollUp(symbolCandles, level + 1);
+            }
+            coarser.append(start, ring.openAt(i), ring.highAt(i), ring.lowAt(i), ring.closeAt(i), ring.volumeAt(i));
+        }
+    }
+
+    private void flushPending() {
+        List<DailyCandle> batch = new ArrayList<>(persistBatchSize);
+        DailyCandle candle;
+        while ((candle = pendingDaily.poll()) != null) {
+            batch.add(candle);
+            if (batch.size() == persistBatchSize) {
+                if (!persist(batch)) {
+                    return;
+                }
+                batch = new ArrayList<>(persistBatchSize);
+            }
+        }
+        if (!batch.isEmpty()) {
+            persist(batch);
+        }
+    }
+
+    private boolean persist(List<DailyCandle> batch) {
+        try {
+            Set<String> symbols = new HashSet<>();
+            Set<Long> days = new HashSet<>();
+            for (DailyCandle candle : batch) {
+                symbols.add(candle.getSymbol());
+                days.add(candle.getStartTime());
+            }
+            // Merge with rows already stored for the same day, e.g. a partial bar written before a restart
+            Map<String, DailyCandle> stored = new HashMap<>();
+            for (DailyCandle row : dailyCandleRepository.findBySymbolInAndStartTimeIn(symbols, days)) {
+                stored.put(row.getSymbol() + "@" + row.getStartTime(), row);
+            }
+            List<DailyCandle> rows = new ArrayList<>(batch.size());
+            for (DailyCandle candle : batch) {
+                DailyCandle row = stored.get(candle.getSymbol() + "@" + candle.getStartTime());
+                if (row == null) {
+                    rows.add(candle);
+                } else {
+                    row.setHigh(Math.max(row.getHigh(), candle.getHigh()));
+                    row.setLow(Math.min(row.getLow(), candle.getLow()));
+                    row.setClose(candle.getClose());
+                    row.setVolume(row.getVolume() + candle.getVolume());
+                    rows.add(row);
+                }
+            }
+            dailyCandleRepository.saveAll(rows);
+            dailyBarsPersisted.addAndGet(batch.size());
+            return true;
+        } catch (Exception e) {
+            System.err.println("Error persisting daily candles: " + e.getMessage());
+            persistFailures.incrementAndGet();
+            pendingDaily.addAll(batch);  // retried on the next flush
+            return false;
+        }
+    }
+
+    private static String key(String symbol) {
+        return symbol.trim().toUpperCase(Locale.ROOT);
+    }
+
+    private static class SymbolCandles {
+        final String symbol;
+        final CandleRing[] rings = new CandleRing[RESOLUTIONS.length];
+
+        SymbolCandles(String symbol, int[] capacities) {
+            this.symbol = symbol;
+            for (int level = 0; level < rings.length; level++) {
+                rings[level] = new CandleRing(capacities[level]);
+            }
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.demo.service;
+
+/**
+ * Bar sizes kept by the {@link CandleAggregator}, finest first. Each period
+ * is a whole multiple of the one before it, so closed bars roll up exactly.
+ * Bars are aligned to the epoch, i.e. daily bars are UTC days.
+ */
+public enum CandleResolution {
+
+    ONE_MINUTE("1m", 60_000L),
+    FIVE_MINUTES("5m", 5 * 60_000L),
+    ONE_HOUR("1h", 60 * 60_000L),
+    ONE_DAY("1d", PriceHistoryStore.DAY_MILLIS);
+
+    private final String code;
+    private final long millis;
+
+    CandleResolution(String code, long millis) {
+        this.code = code;
+        this.millis = millis;
+    }
+
+    /**
+     * Looks up a resolution by its code (1m, 5m, 1h, 1d), case-insensitively
+     */
+    public static CandleResolution fromCode(String code) {
+        for (CandleResolution resolution : values()) {
+            if (resolution.code.equalsIgnoreCase(code)) {
+                return resolution;
+            }
+        }
+        throw new IllegalArgumentException("Unknown resolution '" + code + "', expected 1m, 5m, 1h or 1d");
+    }
+
+    /**
+     * Start of the bar containing the given time
+     */
+    public long barStart(long timestamp) {
+        return timestamp - Math.floorMod(timestamp, millis);
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public long getMillis() {
+        return millis;
+    }
+}
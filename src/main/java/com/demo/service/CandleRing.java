@@ -0,0 +1,147 @@
+package com.demo.service;
+
+import java.util.Arrays;
+
+/**
+ * Fixed-capacity ring of OHLCV bars in parallel primitive arrays, oldest
+ * first. Once full, each new bar overwrites the oldest. The arrays grow
+ * lazily up to the capacity so thinly traded symbols stay small. The newest
+ * bar is "open" until {@link #closeLast()}; only an open bar accepts merges.
+ * Not thread-safe; {@link CandleAggregator} guards each instance.
+ */
+class CandleRing {
+
+    private final int capacity;
+    private long[] starts;
+    private double[] open;
+    private double[] high;
+    private double[] low;
+    private double[] close;
+    private double[] volume;
+    private int head;  // Physical index of the oldest bar
+    private int size;
+    private boolean lastOpen;
+
+    CandleRing(int capacity) {
+        this.capacity = Math.max(1, capacity);
+        int initial = Math.min(this.capacity, 16);
+        this.starts = new long[initial];
+        this.open = new double[initial];
+        this.high = new double[initial];
+        this.low = new double[initial];
+        this.close = new double[initial];
+        this.volume = new double[initial];
+    }
+
+    /**
+     * Adds a new open bar after the newest one, dropping the oldest when full
+     */
+    void append(long start, double o, double h, double l, double c, double v) {
+        int index;
+        if (size < capacity) {
+            if (size == starts.length) {
+                grow();
+            }
+            index = physical(size);
+            size++;
+        } else {
+            index = head;
+            head = (head + 1) % capacity;
+        }
+        starts[index] = start;
+        open[index] = o;
+        high[index] = h;
+        low[index] = l;
+        close[index] = c;
+        volume[index] = v;
+        lastOpen = true;
+    }
+
+    /**
+     * Folds later data into the open newest bar: the open is kept, the range widened, the close replaced and volume added
+     */
+    void mergeLast(double h, double l, double c, double v) {
+        int index = physical(size - 1);
+        if (h > high[index]) {
+            high[index] = h;
+        }
+        if (l < low[index]) {
+            low[index] = l;
+        }
+        close[index] = c;
+        volume[index] += v;
+    }
+
+    void closeLast() {
+        lastOpen = false;
+    }
+
+    boolean isLastOpen() {
+        return lastOpen;
+    }
+
+    int size() {
+        return size;
+    }
+
+    // Start of the newest bar; only valid when size() > 0
+    long lastStart() {
+        return starts[physical(size - 1)];
+    }
+
+    // Accessors by logical index, 0 being the oldest bar
+    long startAt(int i) {
+        return starts[physical(i)];
+    }
+
+    double openAt(int i) {
+        return open[physical(i)];
+    }
+
+    double highAt(int i) {
+        return high[physical(i)];
+    }
+
+    double lowAt(int i) {
+        return low[physical(i)];
+    }
+
+    double closeAt(int i) {
+        return close[physical(i)];
+    }
+
+    double volumeAt(int i) {
+        return volume[physical(i)];
+    }
+
+    // First logical index whose start is >= the given time
+    int lowerBound(long time) {
+        int lowIndex = 0;
+        int highIndex = size;
+        while (lowIndex < highIndex) {
+            int mid = (lowIndex + highIndex) >>> 1;
+            if (startAt(mid) < time) {
+                lowIndex = mid + 1;
+            } else {
+                highIndex = mid;
+            }
+        }
+        return lowIndex;
+    }
+
+    private int physical(int i) {
+        int index = head + i;
+        return index < capacity ? index : index - capacity;
+    }
+
+    // Only called before the ring first fills, while head is still 0
+    private void grow() {
+        int newLength = Math.min(capacity, starts.length * 2);
+        starts = Arrays.copyOf(starts, newLength);
+        open = Arrays.copyOf(open, newLength);
+        high = Arrays.copyOf(high, newLength);
+        low = Arrays.copyOf(low, newLength);
+        close = Arrays.copyOf(close, newLength);
+        volume = Arrays.copyOf(volume, newLength);
+    }
+}
@@ -0,0 +1,103 @@
+package com.demo.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Circuit breaker for Finnhub calls. After {@code failureThreshold}
+ * consecutive failures the circuit opens and calls are short-circuited for
+ * {@code openMillis}; then a single trial call is let through (half-open).
+ * A successful trial closes the circuit, a failed one re-opens it.
+ * Only upstream faults count as failures; a caller that was let through
+ * but never made its call reports that with {@link #recordIgnored()} so
+ * the trial slot is freed.
+ */
+@Component
+public class CircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final int failureThreshold;
+    private final long openMillis;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+    private boolean trialInFlight;
+
+    private long timesOpened;
+    private long shortCircuited;
+
+    public CircuitBreaker(
+            @Value("${finnhub.circuit.failure-threshold:5}") int failureThreshold,
+            @Value("${finnhub.circuit.open-ms:30000}") long openMillis
+    ) {
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.openMillis = openMillis;
+    }
+
+    /**
+     * Whether a call may go upstream now; false means it should be short-circuited
+     */
+    public synchronized boolean allowRequest() {
+        if (state == State.OPEN && System.currentTimeMillis() - openedAt >= openMillis) {
+            state = State.HALF_OPEN;
+            trialInFlight = false;
+        }
+        if (state == State.CLOSED) {
+            return true;
+        }
+        if (state == State.HALF_OPEN && !trialInFlight) {
+            trialInFlight = true;
+            return true;
+        }
+        shortCircuited++;
+        return false;
+    }
+
+    public synchronized void recordSuccess() {
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+        trialInFlight = false;
+    }
+
+    /**
+     * Reports that a call let through by {@link #allowRequest()} did not go upstream
+     * (e.g. it was refused by the rate limiter), so a half-open trial slot is handed to the next caller
+     */
+    public synchronized void recordIgnored() {
+        if (state == State.HALF_OPEN) {
+            trialInFlight = false;
+        }
+    }
+
+    public synchronized void recordFailure() {
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+            if (state != State.OPEN) {
+                timesOpened++;
+            }
+            state = State.OPEN;
+            openedAt = System.currentTimeMillis();
+            trialInFlight = false;
+        }
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    public synchronized Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("state", state.name());
+        stats.put("consecutiveFailures", consecutiveFailures);
+        stats.put("failureThreshold", failureThreshold);
+        stats.put("openMs", openMillis);
+        stats.put("timesOpened", timesOpened);
+        stats.put("shortCircuited", shortCircuited);
+        return stats;
+    }
+}
@@ -0,0 +1,101 @@
+package com.demo.service;
+
+import com.demo.model.CompanyProfile;
+import com.demo.repository.CompanyProfileRepository;
+import com.demo.repository.StockRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Company profiles (name, exchange, industry, currency, logo) keyed by symbol.
+ * Profiles essentially never change, so they are kept in memory, persisted to
+ * the company_profile table so they survive restarts, and only re-fetched from
+ * Finnhub once they are older than the configured refresh interval.
+ */
+@Component
+public class CompanyProfileCache {
+
+    private final CompanyProfileRepository profileRepository;
+    private final StockRepository stockRepository;
+    private final long refreshIntervalMillis;
+
+    private final ConcurrentHashMap<String, CompanyProfile> profiles = new ConcurrentHashMap<>();
+
+    public CompanyProfileCache(
+            CompanyProfileRepository profileRepository,
+            StockRepository stockRepository,
+            @Value("${company.profile.refresh-days:30}") long refreshDays
+    ) {
+        this.profileRepository = profileRepository;
+        this.stockRepository = stockRepository;
+        this.refreshIntervalMillis = TimeUnit.DAYS.toMillis(refreshDays);
+    }
+
+    /**
+     * Returns the known profile for the symbol from memory or the database, or null if never fetched
+     */
+    public CompanyProfile get(String symbol) {
+        String key = key(symbol);
+        CompanyProfile profile = profiles.get(key);
+        if (profile != null) {
+            return profile;
+        }
+        try {
+            profile = profileRepository.findBySymbol(key).orElse(null);
+        } catch (Exception e) {
+            System.err.println("Error loading company profile for " + symbol + ": " + e.getMessage());
+            return null;
+        }
+        if (profile != null) {
+            profiles.putIfAbsent(key, profile);
+        }
+        return profile;
+    }
+
+    /**
+     * Whether the profile was refreshed recently enough to skip the upstream call
+     */
+    public boolean isFresh(CompanyProfile profile) {
+        return profile.getLastRefreshed() != null
+                && System.currentTimeMillis() - profile.getLastRefreshed().getTime() < refreshIntervalMillis;
+    }
+
+    /**
+     * Stores a freshly fetched profile in memory and the database, and syncs the company name onto the Stock row
+     */
+    public void save(CompanyProfile fetched) {
+        String key = key(fetched.getSymbol());
+        fetched.setSymbol(key);
+        try {
+            CompanyProfile existing = profiles.get(key);
+            if (existing == null) {
+                existing = profileRepository.findBySymbol(key).orElse(null);
+            }
+            if (existing != null) {
+                fetched.setId(existing.getId());
+            }
+            profiles.put(key, profileRepository.save(fetched));
+
+            if (fetched.getName() != null && !fetched.getName().isEmpty()) {
+                stockRepository.findBySymbol(key).ifPresent(stock -> {
+                    if (!fetched.getName().equals(stock.getCompanyName())) {
+                        stock.setCompanyName(fetched.getName());
+                        stockRepository.save(stock);
+                    }
+                });
+            }
+        } catch (Exception e) {
+            // Keep the profile in memory even if persisting it failed
+            profiles.put(key, fetched);
+            System.err.println("Error saving company profile for " + key + ": " + e.getMessage());
+        }
+    }
+
+    private static String key(String symbol) {
+        return symbol.trim().toUpperCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,186 @@
+package com.demo.service;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Folds a stream of buys and sells, in date order, into the held quantity,
+ * remaining cost basis and realized profit of each stock. State is kept in
+ * parallel primitive arrays indexed by the order stocks were first seen; under
+ * FIFO each stock's open lots are a queue of (quantity, price) pairs in two
+ * growable double arrays, so no object is allocated per lot.
+ *
+ * Units sold beyond what is held have no cost to match and are counted as
+ * unmatched rather than realized.
+ */
+final class CostBasisCalculator {
+
+    // Lot remainders below this are treated as fully consumed
+    private static final double EPSILON = 1e-9;
+
+    private final CostBasisMethod method;
+    private final Map<Long, Integer> slots = new HashMap<>();
+
+    private int size;
+    private long[] stockIds = new long[16];
+    private String[] symbols = new String[16];
+    private double[] quantities = new double[16];
+    private double[] costs = new double[16];
+    private double[] realized = new double[16];
+    private double[] unmatched = new double[16];
+
+    // FIFO lot queues per slot: live lots are [lotHeads, lotTails)
+    private double[][] lotQuantities = new double[16][];
+    private double[][] lotPrices = new double[16][];
+    private int[] lotHeads = new int[16];
+    private int[] lotTails = new int[16];
+
+    CostBasisCalculator(CostBasisMethod method) {
+        this.method = method;
+    }
+
+    void buy(long stockId, String symbol, double quantity, double price) {
+        if (quantity <= 0) {
+            return;
+        }
+        int slot = slot(stockId, symbol);
+        quantities[slot] += quantity;
+        costs[slot] += quantity * price;
+        if (method == CostBasisMethod.FIFO) {
+            pushLot(slot, quantity, price);
+        }
+    }
+
+    void sell(long stockId, String symbol, double quantity, double price) {
+        if (quantity <= 0) {
+            return;
+        }
+        int slot = slot(stockId, symbol);
+        double remaining = method == CostBasisMethod.FIFO
+                ? sellLots(slot, quantity, price)
+                : sellAverage(slot, quantity, price);
+        unmatched[slot] += remaining;
+        if (quantities[slot] < EPSILON) {
+            quantities[slot] = 0;
+            costs[slot] = 0;
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    long stockIdAt(int slot) {
+        return stockIds[slot];
+    }
+
+    String symbolAt(int slot) {
+        return symbols[slot];
+    }
+
+    double quantityAt(int slot) {
+        return quantities[slot];
+    }
+
+    // Cost of the units still held
+    double costBasisAt(int slot) {
+        return costs[slot];
+    }
+
+    double realizedAt(int slot) {
+        return realized[slot];
+    }
+
+    double unmatchedAt(int slot) {
+        return unmatched[slot];
+    }
+
+    // Consumes the oldest lots first; returns the quantity no lot covered
+    private double sellLots(int slot, double quantity, double price) {
+        double[] lotQuantity = lotQuantities[slot];
+        double[] lotPrice = lotPrices[slot];
+        int head = lotHeads[slot];
+        int tail = lotTails[slot];
+        double remaining = quantity;
+        while (remaining > EPSILON && head < tail) {
+            double taken = Math.min(lotQuantity[head], remaining);
+            realized[slot] += taken * (price - lotPrice[head]);
+            costs[slot] -= taken * lotPrice[head];
+            quantities[slot] -= taken;
+            lotQuantity[head] -= taken;
+            remaining -= taken;
+            if (lotQuantity[head] < EPSILON) {
+                head++;
+            }
+        }
+        lotHeads[slot] = head;
+        return remaining > EPSILON ? remaining : 0;
+    }
+
+    private double sellAverage(int slot, double quantity, double price) {
+        double held = quantities[slot];
+        double taken = Math.min(held, quantity);
+        if (taken > 0) {
+            double averageCost = costs[slot] / held;
+            realized[slot] += taken * (price - averageCost);
+            costs[slot] -= taken * averageCost;
+            quantities[slot] -= taken;
+        }
+        double remaining = quantity - taken;
+        return remaining > EPSILON ? remaining : 0;
+    }
+
+    private void pushLot(int slot, double quantity, double price) {
+        double[] lotQuantity = lotQuantities[slot];
+        int head = lotHeads[slot];
+        int tail = lotTails[slot];
+        if (lotQuantity == null) {
+            lotQuantities[slot] = new double[8];
+            lotPrices[slot] = new double[8];
+        } else if (tail == lotQuantity.length) {
+            int live = tail - head;
+            if (head > 0 && live <= lotQuantity.length / 2) {
+                // Reuse the space of consumed lots before growing
+                System.arraycopy(lotQuantity, head, lotQuantity, 0, live);
+                System.arraycopy(lotPrices[slot], head, lotPrices[slot], 0, live);
+            } else {
+                double[] grownQuantity = new double[lotQuantity.length * 2];
+                double[] grownPrice = new double[lotQuantity.length * 2];
+                System.arraycopy(lotQuantity, head, grownQuantity, 0, live);
+                System.arraycopy(lotPrices[slot], head, grownPrice, 0, live);
+                lotQuantities[slot] = grownQuantity;
+                lotPrices[slot] = grownPrice;
+            }
+            lotHeads[slot] = 0;
+            tail = live;
+        }
+        lotQuantities[slot][tail] = quantity;
+        lotPrices[slot][tail] = price;
+        lotTails[slot] = tail + 1;
+    }
+
+    private int slot(long stockId, String symbol) {
+        Integer slot = slots.get(stockId);
+        if (slot != null) {
+            return slot;
+        }
+        if (size == stockIds.length) {
+            int capacity = size * 2;
+            stockIds = Arrays.copyOf(stockIds, capacity);
+            symbols = Arrays.copyOf(symbols, capacity);
+            quantities = Arrays.copyOf(quantities, capacity);
+            costs = Arrays.copyOf(costs, capacity);
+            realized = Arrays.copyOf(realized, capacity);
+            unmatched = Arrays.copyOf(unmatched, capacity);
+            lotQuantities = Arrays.copyOf(lotQuantities, capacity);
+            lotPrices = Arrays.copyOf(lotPrices, capacity);
+            lotHeads = Arrays.copyOf(lotHeads, capacity);
+            lotTails = Arrays.copyOf(lotTails, capacity);
+        }
+        stockIds[size] = stockId;
+        symbols[size] = symbol;
+        slots.put(stockId, size);
+        return size++;
+    }
+}
@@ -0,0 +1,25 @@
+package com.demo.service;
+
+import java.util.Locale;
+
+/**
+ * How sold units are matched against earlier buys when computing profit
+ */
+public enum CostBasisMethod {
+
+    // Sales consume the oldest remaining lots first
+    FIFO,
+    // Sales are costed at the average price of all units held
+    AVERAGE;
+
+    /**
+     * Looks up a method by name (fifo, average), case-insensitively
+     */
+    public static CostBasisMethod fromName(String name) {
+        try {
+            return valueOf(name.trim().toUpperCase(Locale.ROOT));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Unknown cost basis method '" + name + "', expected FIFO or AVERAGE");
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.demo.service;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Monotonic version counters for the data behind the read endpoints. Services
+ * bump a counter on every write; controllers turn the counters into ETags so a
+ * conditional GET can be answered with 304 before any query runs.
+ *
+ * Inside a transaction the bump is deferred until it completes, so a reader
+ * can never pair the new version with data from before the write.
+ *
+ * Counters live in memory, so every ETag is prefixed with the start time of
+ * this instance to keep tags from before a restart from matching.
+ */
+@Component
+public class DataVersions {
+
+    private final PriceBook priceBook;
+    private final String instanceId = Long.toString(System.currentTimeMillis(), 36);
+
+    private final AtomicLong stocks = new AtomicLong();
+    private final AtomicLong portfolios = new AtomicLong();
+    private final AtomicLong transactions = new AtomicLong();
+    private final ConcurrentHashMap<Long, AtomicLong> portfolioTransactions = new ConcurrentHashMap<>();
+
+    public DataVersions(PriceBook priceBook) {
+        this.priceBook = priceBook;
+    }
+
+    // Stock rows were created, changed or deleted
+    public void stocksChanged() {
+        afterTransaction(stocks::incrementAndGet);
+    }
+
+    // A portfolio was created, changed or deleted
+    public void portfoliosChanged() {
+        afterTransaction(portfolios::incrementAndGet);
+    }
+
+    // A transaction of the portfolio was created or deleted
+    public void transactionsChanged(Long portfolioId) {
+        afterTransaction(() -> {
+            transactions.incrementAndGet();
+            if (portfolioId != null) {
+                portfolioTransactions.computeIfAbsent(portfolioId, id -> new AtomicLong()).incrementAndGet();
+            }
+        });
+    }
+
+    /**
+     * ETag for stock listings, which combine the stock table with live prices
+     */
+    public String stocksETag() {
+        return etag("s", stocks.get(), priceBook.getVersion());
+    }
+
+    /**
+     * ETag for portfolios; their values combine the stock table with live prices
+     */
+    public String portfoliosETag() {
+        return etag("p" + portfolios.get(), stocks.get(), priceBook.getVersion());
+    }
+
+    /**
+     * Version of portfolio membership and stock quantities, for caches of values derived from holdings
+     */
+    public String holdingsVersion() {
+        return portfolios.get() + "." + stocks.get();
+    }
+
+    /**
+     * ETag for the list of all transactions
+     */
+    public String transactionsETag() {
+        return etag("t", transactions.get(), stocks.get());
+    }
+
+    /**
+     * ETag for the transactions of one portfolio
+     */
+    public String transactionsETag(Long portfolioId) {
+        AtomicLong version = portfolioTransactions.get(portfolioId);
+        return etag("t" + portfolioId, version != null ? version.get() : 0, stocks.get());
+    }
+
+    private static void afterTransaction(Runnable bump) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            bump.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                // Also bump on rollback; a spurious change only costs one full response
+                bump.run();
+            }
+        });
+    }
+
+    private String etag(String resource, long version, long dependencyVersion) {
+        return "\"" + instanceId + "-" + resource + "-" + version + "." + dependencyVersion + "\"";
+    }
+}
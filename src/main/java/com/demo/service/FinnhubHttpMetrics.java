@@ -0,0 +1,105 @@
+package com.demo.service;
+
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Records the latency of every Finnhub REST call per endpoint (quote,
+ * profile2, ...). Installed as an interceptor on the Finnhub RestTemplate;
+ * percentiles are computed over the most recent {@value #WINDOW} calls.
+ */
+@Component
+public class FinnhubHttpMetrics implements ClientHttpRequestInterceptor {
+
+    private static final int WINDOW = 1024;
+
+    private final ConcurrentHashMap<String, EndpointStats> endpoints = new ConcurrentHashMap<>();
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        EndpointStats stats = endpoints.computeIfAbsent(endpointName(request), k -> new EndpointStats());
+        long start = System.nanoTime();
+        try {
+            ClientHttpResponse response = execution.execute(request, body);
+            stats.record(System.nanoTime() - start, response.getStatusCode().isError());
+            return response;
+        } catch (IOException | RuntimeException e) {
+            stats.record(System.nanoTime() - start, true);
+            throw e;
+        }
+    }
+
+    /**
+     * Per-endpoint call counts, errors and latency (ms), keyed by endpoint name
+     */
+    public Map<String, Map<String, Object>> getStats() {
+        Map<String, Map<String, Object>> stats = new TreeMap<>();
+        endpoints.forEach((name, endpoint) -> stats.put(name, endpoint.snapshot()));
+        return stats;
+    }
+
+    // Last path segment, e.g. /api/v1/stock/profile2 -> profile2
+    private static String endpointName(HttpRequest request) {
+        String path = request.getURI().getPath();
+        if (path == null || path.isEmpty()) {
+            return "unknown";
+        }
+        return path.substring(path.lastIndexOf('/') + 1);
+    }
+
+    private static class EndpointStats {
+
+        private final long[] recent = new long[WINDOW];  // nanos, ring buffer
+        private long calls;
+        private long errors;
+        private long totalNanos;
+        private long maxNanos;
+
+        synchronized void record(long nanos, boolean error) {
+            recent[(int) (calls % WINDOW)] = nanos;
+            calls++;
+            if (error) {
+                errors++;
+            }
+            totalNanos += nanos;
+            maxNanos = Math.max(maxNanos, nanos);
+        }
+
+        synchronized Map<String, Object> snapshot() {
+            long[] window = Arrays.copyOf(recent, (int) Math.min(calls, WINDOW));
+            Arrays.sort(window);
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("calls", calls);
+            stats.put("errors", errors);
+            stats.put("avgMs", calls > 0 ? toMillis(totalNanos / calls) : 0.0);
+            stats.put("p50Ms", percentile(window, 0.50));
+            stats.put("p95Ms", percentile(window, 0.95));
+            stats.put("p99Ms", percentile(window, 0.99));
+            stats.put("maxMs", toMillis(maxNanos));
+            return stats;
+        }
+
+        private static double percentile(long[] sorted, double p) {
+            if (sorted.length == 0) {
+                return 0.0;
+            }
+            int index = (int) Math.ceil(p * sorted.length) - 1;
+            return toMillis(sorted[Math.max(0, index)]);
+        }
+
+        private static double toMillis(long nanos) {
+            return nanos / 1_000_000.0;
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.demo.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Process-wide token bucket shared by every Finnhub call. Up to {@code burst}
+ * calls go out immediately when budget is available; after that callers are
+ * queued in arrival order, each reserving the next token as it refills.
+ * A caller whose wait would exceed the configured maximum is rejected
+ * instead of queued.
+ */
+@Component
+public class FinnhubRateLimiter {
+
+    private final double tokensPerNano;
+    private final double capacity;
+    private final long maxWaitNanos;
+
+    // Fair lock so reservations are handed out in arrival order
+    private final ReentrantLock lock = new ReentrantLock(true);
+    private double tokens;  // goes negative while callers are queued for future tokens
+    private long lastRefillNanos;
+
+    private final AtomicLong acquired = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong delayed = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong maxObservedWaitNanos = new AtomicLong();
+
+    public FinnhubRateLimiter(
+            @Value("${finnhub.rate-limit.calls-per-minute:50}") int callsPerMinute,
+            @Value("${finnhub.rate-limit.burst:10}") int burst,
+            @Value("${finnhub.rate-limit.max-wait-ms:30000}") long maxWaitMillis
+    ) {
+        this.tokensPerNano = Math.max(1, callsPerMinute) / (double) TimeUnit.MINUTES.toNanos(1);
+        this.capacity = Math.max(1, burst);
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxWaitMillis);
+        this.tokens = capacity;
+        this.lastRefillNanos = System.nanoTime();
+    }
+
+    /**
+     * Takes one token, waiting up to the configured maximum for one to become available
+     * @return false if the call was rejected or the thread was interrupted while queued
+     */
+    public boolean acquire() {
+        return tryAcquire(maxWaitNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Takes one token, waiting at most the given time for one to become available.
+     * A caller interrupted while queued gives its reserved token back.
+     * @return false if the call was rejected or the thread was interrupted while queued
+     */
+    public boolean tryAcquire(long timeout, TimeUnit unit) {
+        long waitNanos;
+        lock.lock();
+        try {
+            long now = System.nanoTime();
+            refill(now);
+            waitNanos = tokens >= 1 ? 0 : (long) Math.ceil((1 - tokens) / tokensPerNano);
+            if (waitNanos > unit.toNanos(timeout)) {
+                rejected.incrementAndGet();
+                return false;
+            }
+            tokens -= 1;
+        } finally {
+            lock.unlock();
+        }
+
+        if (waitNanos > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(waitNanos);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                release();
+                return false;
+            }
+            delayed.incrementAndGet();
+            totalWaitNanos.addAndGet(waitNanos);
+            maxObservedWaitNanos.accumulateAndGet(waitNanos, Math::max);
+        }
+        acquired.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * Acquisition counters and wait times, in milliseconds
+     */
+    public Map<String, Long> getStats() {
+        long acquiredCount = acquired.get();
+        double available;
+        lock.lock();
+        try {
+            refill(System.nanoTime());
+            available = tokens;
+        } finally {
+            lock.unlock();
+        }
+
+        Map<String, Long> stats = new LinkedHashMap<>();
+        stats.put("acquired", acquiredCount);
+        stats.put("delayed", delayed.get());
+        stats.put("rejected", rejected.get());
+        stats.put("availableTokens", (long) Math.floor(Math.max(0, available)));
+        stats.put("totalWaitMs", TimeUnit.NANOSECONDS.toMillis(totalWaitNanos.get()));
+        stats.put("avgWaitMs", acquiredCount == 0 ? 0L : TimeUnit.NANOSECONDS.toMillis(totalWaitNanos.get() / acquiredCount));
+        stats.put("maxWaitMs", TimeUnit.NANOSECONDS.toMillis(maxObservedWaitNanos.get()));
+        return stats;
+    }
+
+    // Hands back a reserved token that was never used, so the budget it held isn't lost
+    private void release() {
+        lock.lock();
+        try {
+            refill(System.nanoTime());
+            tokens = Math.min(capacity, tokens + 1);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Must be called with the lock held
+    private void refill(long now) {
+        long elapsed = now - lastRefillNanos;
+        if (elapsed > 0) {
+            tokens = Math.min(capacity, tokens + elapsed * tokensPerNano);
+            lastRefillNanos = now;
+        }
+    }
+}
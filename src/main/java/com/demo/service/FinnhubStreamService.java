@@ -0,0 +1,300 @@
+package com.demo.service;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.WebSocket;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Ingests real-time trades from the Finnhub websocket feed into the
+ * {@link PriceBook}. Subscriptions follow the symbol set tracked by
+ * {@link QuoteRefresher}; when the socket drops it reconnects with
+ * exponential backoff and resubscribes everything. While the socket is down
+ * the refresher polls the REST quote endpoint for all symbols instead.
+ *
+ * All connection management and sends run on a single scheduler thread, so
+ * the JDK websocket never sees overlapping sends.
+ */
+@Component
+public class FinnhubStreamService {
+
+    private final PriceBook priceBook;
+    private final String streamUrl;
+    private final String apiKey;
+    private final boolean enabled;
+    private final double usdInrRate;
+    private final long reconnectMinMillis;
+    private final long reconnectMaxMillis;
+
+    private final ObjectMapper objectMapper = new JsonMapper();
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "finnhub-stream");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Symbols we want to receive trades for, and those the current socket is subscribed to
+    private final Set<String> wantedSymbols = ConcurrentHashMap.newKeySet();
+    private final Set<String> subscribedSymbols = new HashSet<>();  // only touched on the scheduler thread
+
+    private final AtomicLong generation = new AtomicLong();
+    private final AtomicLong ticksApplied = new AtomicLong();
+    private final AtomicLong reconnects = new AtomicLong();
+    private volatile WebSocket webSocket;
+    private volatile boolean connected;
+    private volatile boolean running;
+    private long reconnectDelayMillis;  // scheduler thread only
+    private boolean reconnectPending;    // scheduler thread only
+
+    public FinnhubStreamService(
+            PriceBook priceBook,
+            @Value("${finnhub.ws.url:wss://ws.finnhub.io}") String streamUrl,
+            @Value("${finnhub.api.key:}") String apiKey,
+            @Value("${finnhub.ws.enabled:false}") boolean enabled,
+            @Value("${usd.inr.rate:83.5}") double usdInrRate,
+            @Value("${finnhub.ws.reconnect-min-ms:1000}") long reconnectMinMillis,
+            @Value("${finnhub.ws.reconnect-max-ms:60000}") long reconnectMaxMillis
+    ) {
+        this.priceBook = priceBook;
+        this.streamUrl = streamUrl;
+        this.apiKey = apiKey;
+        this.enabled = enabled;
+        this.usdInrRate = usdInrRate;
+        this.reconnectMinMillis = Math.max(1, reconnectMinMillis);
+        this.reconnectMaxMillis = Math.max(this.reconnectMinMillis, reconnectMaxMillis);
+        this.reconnectDelayMillis = this.reconnectMinMillis;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled || apiKey == null || apiKey.isEmpty()) {
+            return;
+        }
+        running = true;
+        scheduler.execute(this::connect);
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        connected = false;
+        WebSocket socket = webSocket;
+        if (socket != null) {
+            socket.abort();
+        }
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * Whether trades are currently flowing; when false callers should fall back to REST polling
+     */
+    public boolean isConnected() {
+        return connected;
+    }
+
+    public long getTicksApplied() {
+        return ticksApplied.get();
+    }
+
+    public long getReconnects() {
+        return reconnects.get();
+    }
+
+    /**
+     * Replaces the set of symbols to stream; changes are sent to the socket if it is up, otherwise on the next connect
+     */
+    public void syncSubscriptions(Collection<String> symbols) {
+        Set<String> wanted = new HashSet<>();
+        for (String symbol : symbols) {
+            wanted.add(symbol.trim().toUpperCase(Locale.ROOT));
+        }
+        wantedSymbols.retainAll(wanted);
+        wantedSymbols.addAll(wanted);
+        if (running) {
+            runOnScheduler(this::reconcileSubscriptions);
+        }
+    }
+
+    private void connect() {
+        reconnectPending = false;
+        if (!running) {
+            return;
+        }
+        long connectionId = generation.incrementAndGet();
+        String url = streamUrl + "?token=" + URLEncoder.encode(apiKey, StandardCharsets.UTF_8);
+        httpClient.newWebSocketBuilder()
+                .connectTimeout(Duration.ofSeconds(10))
+                .buildAsync(URI.create(url), new StreamListener(connectionId))
+                .whenComplete((socket, error) -> runOnScheduler(() -> {
+                    if (error != null) {
+                        System.err.println("Finnhub stream connect failed: " + error.getMessage());
+                        scheduleReconnect(connectionId);
+                        return;
+                    }
+                    if (!running || connectionId != generation.get()) {
+                        socket.abort();
+                        return;
+                    }
+                    webSocket = socket;
+                    connected = true;
+                    reconnectDelayMillis = reconnectMinMillis;
+                    subscribedSymbols.clear();
+                    reconcileSubscriptions();
+                }));
+    }
+
+    // Runs on the scheduler thread
+    private void reconcileSubscriptions() {
+        WebSocket socket = webSocket;
+        if (!connected || socket == null) {
+            return;
+        }
+        try {
+            for (String symbol : List.copyOf(wantedSymbols)) {
+                if (subscribedSymbols.add(symbol)) {
+                    send(socket, "{\"type\":\"subscribe\",\"symbol\":\"" + symbol + "\"}");
+                }
+            }
+            for (String symbol : List.copyOf(subscribedSymbols)) {
+                if (!wantedSymbols.contains(symbol)) {
+                    send(socket, "{\"type\":\"unsubscribe\",\"symbol\":\"" + symbol + "\"}");
+                    subscribedSymbols.remove(symbol);
+                }
+            }
+        } catch (Exception e) {
+            System.err.println("Finnhub stream subscribe failed: " + e.getMessage());
+            socket.abort();
+            onDisconnect(generation.get());
+        }
+    }
+
+    private void send(WebSocket socket, String message) throws Exception {
+        socket.sendText(message, true).get(10, TimeUnit.SECONDS);
+    }
+
+    private void onDisconnect(long connectionId) {
+        if (connectionId != generation.get()) {
+            return;  // an older socket closing after we already reconnected
+        }
+        connected = false;
+        webSocket = null;
+        scheduleReconnect(connectionId);
+    }
+
+    private void scheduleReconnect(long connectionId) {
+        if (!running || reconnectPending || connectionId != generation.get()) {
+            return;
+        }
+        reconnectPending = true;
+        long delay = reconnectDelayMillis;
+        reconnectDelayMillis = Math.min(reconnectDelayMillis * 2, reconnectMaxMillis);
+        reconnects.incrementAndGet();
+        try {
+            scheduler.schedule(this::connect, delay, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // Shutting down
+        }
+    }
+
+    private void runOnScheduler(Runnable task) {
+        try {
+            scheduler.execute(task);
+        } catch (RejectedExecutionException e) {
+            // Shutting down
+        }
+    }
+
+    void handleMessage(String text) {
+        try {
+            StreamMessage message = objectMapper.readValue(text, StreamMessage.class);
+            if (!"trade".equals(message.type) || message.data == null) {
+                return;  // pings and subscription acks
+            }
+            for (Trade trade : message.data) {
+                if (trade.s != null && trade.p > 0) {
+                    // Finnhub trades are in USD; the book holds INR like the REST quotes
+                    priceBook.applyTick(trade.s, trade.p * usdInrRate, trade.v, trade.t);
+                    ticksApplied.incrementAndGet();
+                }
+            }
+        } catch (Exception e) {
+            System.err.println("Error parsing Finnhub stream message: " + e.getMessage());
+        }
+    }
+
+    private class StreamListener implements WebSocket.Listener {
+
+        private final long connectionId;
+        private final StringBuilder buffer = new StringBuilder();
+
+        StreamListener(long connectionId) {
+            this.connectionId = connectionId;
+        }
+
+        @Override
+        public void onOpen(WebSocket socket) {
+            socket.request(1);
+        }
+
+        @Override
+        public CompletionStage<?> onText(WebSocket socket, CharSequence data, boolean last) {
+            buffer.append(data);
+            if (last) {
+                handleMessage(buffer.toString());
+                buffer.setLength(0);
+            }
+            socket.request(1);
+            return null;
+        }
+
+        @Override
+        public CompletionStage<?> onClose(WebSocket socket, int statusCode, String reason) {
+            runOnScheduler(() -> onDisconnect(connectionId));
+            return null;
+        }
+
+        @Override
+        public void onError(WebSocket socket, Throwable error) {
+            System.err.println("Finnhub stream error: " + error.getMessage());
+            runOnScheduler(() -> onDisconnect(connectionId));
+        }
+    }
+
+    // {"type":"trade","data":[{"s":"AAPL","p":187.5,"t":1575526691134,"v":100}]}
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    static class StreamMessage {
+        public String type;
+        public List<Trade> data;
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    static class Trade {
+        public String s;  // symbol
+        public double p;  // price
+        public long t;    // epoch millis
+        public double v;  // volume
+    }
+}
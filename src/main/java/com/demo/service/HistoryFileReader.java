@@ -0,0 +1,339 @@
+package com.demo.service;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
+
+/**
+ * Reads CSV price history through memory-mapped windows of the file, parsing
+ * fields straight from the mapped bytes so no String or boxed number is
+ * allocated per line. Each line is
+ *
+ *   symbol,date,open,high,low,close[,volume]
+ *
+ * where date is yyyy-MM-dd (a UTC day) or epoch seconds/millis and prices
+ * are in USD (converted by the importer). Lines that
+ * don't parse, such as a header, are skipped and counted. Each distinct
+ * symbol is allocated once and the same String is passed for every row.
+ * Not thread-safe; use one reader per file.
+ */
+class HistoryFileReader {
+
+    /**
+     * Receives each parsed row; the time is the start of the row's UTC day in epoch millis
+     */
+    interface RowHandler {
+        void onRow(String symbol, long startTime, double open, double high, double low, double close, double volume);
+    }
+
+    // Largest mapping the reader asks for; a line must fit in one window
+    static final int DEFAULT_WINDOW_BYTES = 256 * 1024 * 1024;
+
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+            1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+    private static final int MAX_FIELDS = 7;
+
+    private final int windowBytes;
+    private final SymbolTable symbols = new SymbolTable();
+    // Field boundaries of the line being parsed, reused for every line
+    private final int[] fieldStarts = new int[MAX_FIELDS];
+    private final int[] fieldEnds = new int[MAX_FIELDS];
+    private long rows;
+    private long skipped;
+
+    HistoryFileReader() {
+        this(DEFAULT_WINDOW_BYTES);
+    }
+
+    HistoryFileReader(int windowBytes) {
+        this.windowBytes = windowBytes;
+    }
+
+    /**
+     * Streams every row of the file to the handler
+     * @return Bytes read
+     */
+    long read(Path path, RowHandler handler) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long position = 0;
+            while (position < size) {
+                int length = (int) Math.min(windowBytes, size - position);
+                MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+                int consumed = readWindow(window, length, position + length == size, handler);
+                if (consumed == 0) {
+                    throw new IOException("Line longer than " + windowBytes + " bytes at offset " + position);
+                }
+                // The next window starts at the first line this one didn't finish
+                position += consumed;
+            }
+            return size;
+        }
+    }
+
+    long getRows() {
+        return rows;
+    }
+
+    long getSkipped() {
+        return skipped;
+    }
+
+    // Parses every complete line in the window and returns how many bytes that covered
+    private int readWindow(MappedByteBuffer buffer, int length, boolean endOfFile, RowHandler handler) {
+        int lineStart = 0;
+        for (int i = 0; i < length; i++) {
+            if (buffer.get(i) == '\n') {
+                readLine(buffer, lineStart, i, handler);
+                lineStart = i + 1;
+            }
+        }
+        if (endOfFile && lineStart < length) {
+            readLine(buffer, lineStart, length, handler);  // last line without a trailing newline
+            lineStart = length;
+        }
+        return lineStart;
+    }
+
+    private void readLine(MappedByteBuffer buffer, int start, int end, RowHandler handler) {
+        if (end > start && buffer.get(end - 1) == '\r') {
+            end--;
+        }
+        if (start == end) {
+            return;
+        }
+        int fields = 0;
+        int fieldStart = start;
+        for (int i = start; i <= end; i++) {
+            if (i == end || buffer.get(i) == ',') {
+                if (fields == MAX_FIELDS) {
+                    skipped++;
+                    return;
+                }
+                fieldStarts[fields] = fieldStart;
+                fieldEnds[fields] = i;
+                fields++;
+                fieldStart = i + 1;
+            }
+        }
+        if (fields < 6) {
+            skipped++;
+            return;
+        }
+        long startTime = parseDay(buffer, fieldStarts[1], fieldEnds[1]);
+        double open = parseDecimal(buffer, fieldStarts[2], fieldEnds[2]);
+        double high = parseDecimal(buffer, fieldStarts[3], fieldEnds[3]);
+        double low = parseDecimal(buffer, fieldStarts[4], fieldEnds[4]);
+        double close = parseDecimal(buffer, fieldStarts[5], fieldEnds[5]);
+        double volume = fields == 7 ? parseDecimal(buffer, fieldStarts[6], fieldEnds[6]) : 0.0;
+        // NaN fails every comparison, so this also rejects unparseable fields
+        if (startTime == Long.MIN_VALUE || !(open > 0 && high > 0 && low > 0 && close > 0 && volume >= 0)
+                || fieldEnds[0] == fieldStarts[0]) {
+            skipped++;
+            return;
+        }
+        handler.onRow(symbols.get(buffer, fieldStarts[0], fieldEnds[0]), startTime, open, high, low, close, volume);
+        rows++;
+    }
+
+    // UTC day start in epoch millis, or Long.MIN_VALUE when the field is neither yyyy-MM-dd nor a number
+    static long parseDay(MappedByteBuffer buffer, int from, int to) {
+        if (to - from == 10 && buffer.get(from + 4) == '-' && buffer.get(from + 7) == '-') {
+            int year = parseDigits(buffer, from, from + 4);
+            int month = parseDigits(buffer, from + 5, from + 7);
+            int day = parseDigits(buffer, from + 8, from + 10);
+            if (year < 0 || month < 1 || month > 12 || day < 1 || day > 31) {
+                return Long.MIN_VALUE;
+            }
+            return epochDay(year, month, day) * PriceHistoryStore.DAY_MILLIS;
+        }
+        if (to - from < 1 || to - from > 18) {
+            return Long.MIN_VALUE;
+        }
+        long value = 0;
+        for (int i = from; i < to; i++) {
+            byte b = buffer.get(i);
+            if (b < '0' || b > '9') {
+                return Long.MIN_VALUE;
+            }
+            value = value * 10 + (b - '0');
+        }
+        // Ten or fewer digits is epoch seconds (good until 2286), more is millis
+        long millis = to - from <= 10 ? value * 1000 : value;
+        return PriceHistoryStore.dayStart(millis);
+    }
+
+    // Plain decimal with optional sign, fraction and exponent; NaN when malformed
+    static double parseDecimal(MappedByteBuffer buffer, int from, int to) {
+        int i = from;
+        boolean negative = false;
+        if (i < to && (buffer.get(i) == '-' || buffer.get(i) == '+')) {
+            negative = buffer.get(i) == '-';
+            i++;
+        }
+        long mantissa = 0;
+        int significant = 0;
+        int scale = 0;  // Power of ten to divide the mantissa by
+        boolean digits = false;
+        boolean fraction = false;
+        for (; i < to; i++) {
+            byte b = buffer.get(i);
+            if (b >= '0' && b <= '9') {
+                digits = true;
+                if (significant < 18) {
+                    if (mantissa != 0 || b != '0') {
+                        mantissa = mantissa * 10 + (b - '0');
+                        significant++;
+                    }
+                    if (fraction) {
+                        scale++;
+                    }
+                } else if (!fraction) {
+                    scale--;  // integer digit past the precision we keep
+                }
+            } else if (b == '.' && !fraction) {
+                fraction = true;
+            } else if ((b == 'e' || b == 'E') && digits) {
+                int exponent = parseExponent(buffer, i + 1, to);
+                if (exponent == Integer.MIN_VALUE) {
+                    return Double.NaN;
+                }
+                scale -= exponent;
+                break;
+            } else {
+                return Double.NaN;
+            }
+        }
+        if (!digits) {
+            return Double.NaN;
+        }
+        double value;
+        if (scale >= 0) {
+            value = scale < POWERS_OF_TEN.length ? mantissa / POWERS_OF_TEN[scale] : mantissa / Math.pow(10, scale);
+        } else {
+            value = -scale < POWERS_OF_TEN.length ? mantissa * POWERS_OF_TEN[-scale] : mantissa * Math.pow(10, -scale);
+        }
+        return negative ? -value : value;
+    }
+
+    private static int parseExponent(MappedByteBuffer buffer, int from, int to) {
+        int i = from;
+        boolean negative = false;
+        if (i < to && (buffer.get(i) == '-' || buffer.get(i) == '+')) {
+            negative = buffer.get(i) == '-';
+            i++;
+        }
+        if (i == to || to - i > 3) {
+            return Integer.MIN_VALUE;
+        }
+        int value = parseDigits(buffer, i, to);
+        if (value < 0) {
+            return Integer.MIN_VALUE;
+        }
+        return negative ? -value : value;
+    }
+
+    // Non-negative integer from ASCII digits, or -1 if any byte isn't a digit
+    private static int parseDigits(MappedByteBuffer buffer, int from, int to) {
+        int value = 0;
+        for (int i = from; i < to; i++) {
+            byte b = buffer.get(i);
+            if (b < '0' || b > '9') {
+                return -1;
+            }
+            value = value * 10 + (b - '0');
+        }
+        return value;
+    }
+
+    // Days since 1970-01-01 for a proleptic Gregorian date
+    static long epochDay(int year, int month, int day) {
+        long y = month <= 2 ? year - 1 : year;
+        long era = Math.floorDiv(y, 400);
+        long yearOfEra = y - era * 400;
+        long dayOfYear = (153L * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+        long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097 + dayOfEra - 719468;
+    }
+
+    /**
+     * Open-addressing table from symbol bytes to an upper-case String, so a
+     * symbol is only decoded the first time it is seen.
+     */
+    private static class SymbolTable {
+
+        private byte[][] keys = new byte[256][];
+        private String[] values = new String[256];
+        private int size;
+
+        String get(MappedByteBuffer buffer, int from, int to) {
+            int hash = 1;
+            for (int i = from; i < to; i++) {
+                hash = 31 * hash + buffer.get(i);
+            }
+            int mask = keys.length - 1;
+            int slot = mix(hash) & mask;
+            while (keys[slot] != null) {
+                if (matches(keys[slot], buffer, from, to)) {
+                    return values[slot];
+                }
+                slot = (slot + 1) & mask;
+            }
+            byte[] key = new byte[to - from];
+            for (int i = from; i < to; i++) {
+                key[i - from] = buffer.get(i);
+            }
+            String symbol = new String(key, StandardCharsets.US_ASCII).trim().toUpperCase(Locale.ROOT);
+            keys[slot] = key;
+            values[slot] = symbol;
+            if (++size * 2 > keys.length) {
+                resize();
+            }
+            return symbol;
+        }
+
+        private static boolean matches(byte[] key, MappedByteBuffer buffer, int from, int to) {
+            if (key.length != to - from) {
+                return false;
+            }
+            for (int i = 0; i < key.length; i++) {
+                if (key[i] != buffer.get(from + i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void resize() {
+            byte[][] oldKeys = keys;
+            String[] oldValues = values;
+            keys = new byte[oldKeys.length * 2][];
+            values = new String[oldKeys.length * 2];
+            int mask = keys.length - 1;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != null) {
+                    int hash = 1;
+                    for (byte b : oldKeys[i]) {
+                        hash = 31 * hash + b;
+                    }
+                    int slot = mix(hash) & mask;
+                    while (keys[slot] != null) {
+                        slot = (slot + 1) & mask;
+                    }
+                    keys[slot] = oldKeys[i];
+                    values[slot] = oldValues[i];
+                }
+            }
+        }
+
+        private static int mix(int hash) {
+            return hash ^ (hash >>> 16);
+        }
+    }
+}
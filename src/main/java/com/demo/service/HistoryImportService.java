@@ -0,0 +1,155 @@
+package com.demo.service;
+
+import com.demo.dto.ImportResultDTO;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Bulk loads daily price history from CSV files (see {@link HistoryFileReader}
+ * for the format) without going through Finnhub. Prices in the files are in
+ * USD, as Finnhub reports them, and are converted to INR with the configured
+ * {@code usd.inr.rate} like every other price source. Rows are written to the
+ * daily_candle table with JDBC batch upserts and recorded in the daily tier
+ * of the {@link PriceHistoryStore}. Files are only read from the configured
+ * import directory.
+ */
+@Service
+public class HistoryImportService {
+
+    // MySQL upsert, so re-importing a file or overlapping a live daily bar replaces the row
+    private static final String UPSERT_SQL = "insert into daily_candle (symbol, start_time, open, high, low, close, volume) "
+            + "values (?, ?, ?, ?, ?, ?, ?) on duplicate key update "
+            + "open = values(open), high = values(high), low = values(low), close = values(close), volume = values(volume)";
+
+    private final PriceHistoryStore historyStore;
+    private final JdbcTemplate jdbcTemplate;
+    private final Path importDir;
+    private final int batchSize;
+    private final double usdInrRate;
+    // Imports are heavy on the database; run one at a time
+    private final AtomicBoolean importing = new AtomicBoolean();
+
+    public HistoryImportService(
+            PriceHistoryStore historyStore,
+            JdbcTemplate jdbcTemplate,
+            @Value("${history.import.dir:imports}") String importDir,
+            @Value("${history.import.batch-size:5000}") int batchSize,
+            @Value("${usd.inr.rate:83.5}") double usdInrRate
+    ) {
+        this.historyStore = historyStore;
+        this.jdbcTemplate = jdbcTemplate;
+        this.importDir = Paths.get(importDir).toAbsolutePath().normalize();
+        this.batchSize = Math.max(1, batchSize);
+        this.usdInrRate = usdInrRate;
+    }
+
+    /**
+     * Imports a file from the import directory, returning row counts and throughput
+     * @throws IllegalArgumentException when the file is not a regular file inside the import directory
+     * @throws IllegalStateException when another import is running
+     */
+    public ImportResultDTO importFile(String fileName) {
+        Path path = importDir.resolve(fileName).normalize();
+        if (!path.startsWith(importDir) || !Files.isRegularFile(path)) {
+            throw new IllegalArgumentException("No such file in the import directory: " + fileName);
+        }
+        if (!importing.compareAndSet(false, true)) {
+            throw new IllegalStateException("Another history import is running");
+        }
+        try {
+            long started = System.nanoTime();
+            RowBatch batch = new RowBatch(batchSize);
+            HistoryFileReader reader = new HistoryFileReader();
+            long bytes = reader.read(path, (symbol, startTime, open, high, low, close, volume) -> {
+                batch.add(symbol, startTime, open * usdInrRate, high * usdInrRate, low * usdInrRate,
+                        close * usdInrRate, volume);
+                if (batch.size == batchSize) {
+                    write(batch);
+                }
+            });
+            write(batch);
+            long millis = Math.max(1, (System.nanoTime() - started) / 1_000_000);
+            return new ImportResultDTO(fileName, reader.getRows(), reader.getSkipped(), bytes, millis,
+                    reader.getRows() * 1000.0 / millis);
+        } catch (IOException e) {
+            throw new RuntimeException("Error reading history file " + fileName + ": " + e.getMessage());
+        } finally {
+            importing.set(false);
+        }
+    }
+
+    private void write(RowBatch batch) {
+        if (batch.size == 0) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(UPSERT_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                ps.setString(1, batch.symbols[i]);
+                ps.setLong(2, batch.startTimes[i]);
+                ps.setDouble(3, batch.open[i]);
+                ps.setDouble(4, batch.high[i]);
+                ps.setDouble(5, batch.low[i]);
+                ps.setDouble(6, batch.close[i]);
+                ps.setDouble(7, batch.volume[i]);
+            }
+
+            @Override
+            public int getBatchSize() {
+                return batch.size;
+            }
+        });
+        // Files are usually grouped by symbol, so record each run of rows in one call
+        int runStart = 0;
+        for (int i = 1; i <= batch.size; i++) {
+            if (i == batch.size || batch.symbols[i] != batch.symbols[runStart]) {
+                historyStore.recordAll(batch.symbols[runStart], batch.startTimes, batch.close, runStart, i - runStart, false);
+                runStart = i;
+            }
+        }
+        batch.size = 0;
+    }
+
+    // Column buffers for one JDBC batch, reused across batches
+    private static class RowBatch {
+        final String[] symbols;
+        final long[] startTimes;
+        final double[] open;
+        final double[] high;
+        final double[] low;
+        final double[] close;
+        final double[] volume;
+        int size;
+
+        RowBatch(int capacity) {
+            symbols = new String[capacity];
+            startTimes = new long[capacity];
+            open = new double[capacity];
+            high = new double[capacity];
+            low = new double[capacity];
+            close = new double[capacity];
+            volume = new double[capacity];
+        }
+
+        void add(String symbol, long startTime, double o, double h, double l, double c, double v) {
+            symbols[size] = symbol;
+            startTimes[size] = startTime;
+            open[size] = o;
+            high[size] = h;
+            low[size] = l;
+            close[size] = c;
+            volume[size] = v;
+            size++;
+        }
+    }
+}
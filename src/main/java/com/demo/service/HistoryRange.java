@@ -0,0 +1,57 @@
+package com.demo.service;
+
+/**
+ * Chart ranges accepted by the history endpoints. Short ranges are served
+ * from the intraday tier of {@link PriceHistoryStore}, longer ones from
+ * daily closes.
+ */
+public enum HistoryRange {
+
+    ONE_DAY("1D", 1, true, "5"),
+    ONE_WEEK("1W", 7, true, "15"),
+    ONE_MONTH("1M", 30, false, "D"),
+    THREE_MONTHS("3M", 91, false, "D"),
+    SIX_MONTHS("6M", 182, false, "D"),
+    ONE_YEAR("1Y", 365, false, "D"),
+    FIVE_YEARS("5Y", 1826, false, "D");
+
+    private final String code;
+    private final long millis;
+    private final boolean intraday;
+    private final String candleResolution;  // Finnhub resolution used to backfill this range
+
+    HistoryRange(String code, int days, boolean intraday, String candleResolution) {
+        this.code = code;
+        this.millis = days * PriceHistoryStore.DAY_MILLIS;
+        this.intraday = intraday;
+        this.candleResolution = candleResolution;
+    }
+
+    /**
+     * Looks up a range by its code (1D, 1W, 1M, 3M, 6M, 1Y, 5Y), case-insensitively
+     */
+    public static HistoryRange fromCode(String code) {
+        for (HistoryRange range : values()) {
+            if (range.code.equalsIgnoreCase(code)) {
+                return range;
+            }
+        }
+        throw new IllegalArgumentException("Unknown range '" + code + "', expected 1D, 1W, 1M, 3M, 6M, 1Y or 5Y");
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public long getMillis() {
+        return millis;
+    }
+
+    public boolean isIntraday() {
+        return intraday;
+    }
+
+    public String getCandleResolution() {
+        return candleResolution;
+    }
+}
@@ -0,0 +1,79 @@
+package com.demo.service;
+
+/**
+ * Largest-Triangle-Three-Buckets downsampling of a {@link PriceSeries}.
+ * Keeps the first and last points and, from each of the buckets between
+ * them, the point forming the largest triangle with the point kept from the
+ * previous bucket and the average of the next bucket. Peaks and troughs
+ * survive, unlike with plain averaging or every-nth sampling.
+ */
+final class Lttb {
+
+    private Lttb() {
+    }
+
+    /**
+     * Reduces the series to at most maxPoints points, or returns it unchanged when it is already small enough
+     * @param maxPoints Target point count, at least 3
+     */
+    static PriceSeries downsample(PriceSeries series, int maxPoints) {
+        int size = series.size();
+        if (maxPoints < 3 || size <= maxPoints) {
+            return series;
+        }
+        long[] times = series.timestamps();
+        double[] prices = series.prices();
+        long[] sampledTimes = new long[maxPoints];
+        double[] sampledPrices = new double[maxPoints];
+
+        // Buckets cover the points between the first and last, which are always kept
+        double bucketSize = (double) (size - 2) / (maxPoints - 2);
+        int selected = 0;
+        sampledTimes[0] = times[0];
+        sampledPrices[0] = prices[0];
+
+        for (int bucket = 0; bucket < maxPoints - 2; bucket++) {
+            int start = (int) (bucket * bucketSize) + 1;
+            int end = (int) ((bucket + 1) * bucketSize) + 1;
+
+            // Average of the next bucket (just the last point for the final bucket)
+            int nextStart = end;
+            int nextEnd = Math.min((int) ((bucket + 2) * bucketSize) + 1, size);
+            if (nextStart >= nextEnd) {
+                nextStart = size - 1;
+                nextEnd = size;
+            }
+            double averageTime = 0;
+            double averagePrice = 0;
+            for (int i = nextStart; i < nextEnd; i++) {
+                averageTime += times[i];
+                averagePrice += prices[i];
+            }
+            averageTime /= nextEnd - nextStart;
+            averagePrice /= nextEnd - nextStart;
+
+            // Times are taken relative to the selected point to keep the products well within double precision
+            long originTime = times[selected];
+            double originPrice = prices[selected];
+            double nextTime = averageTime - originTime;
+            double nextPrice = averagePrice - originPrice;
+            double maxArea = -1;
+            int chosen = start;
+            for (int i = start; i < end; i++) {
+                // Twice the triangle area; the constant factor doesn't change which point wins
+                double area = Math.abs((times[i] - originTime) * nextPrice - nextTime * (prices[i] - originPrice));
+                if (area > maxArea) {
+                    maxArea = area;
+                    chosen = i;
+                }
+            }
+            sampledTimes[bucket + 1] = times[chosen];
+            sampledPrices[bucket + 1] = prices[chosen];
+            selected = chosen;
+        }
+
+        sampledTimes[maxPoints - 1] = times[size - 1];
+        sampledPrices[maxPoints - 1] = prices[size - 1];
+        return new PriceSeries(sampledTimes, sampledPrices);
+    }
+}
@@ -1,6 +1,7 @@
 package com.demo.service;
 
 import com.demo.dto.PortfolioDTO;
+import com.demo.dto.PositionDTO;
 
 import java.util.List;
 
@@ -15,6 +16,9 @@ public interface PortfolioService {
     // Get portfolio by ID
     PortfolioDTO getPortfolioById(Long portfolioId);
 
+    // Positions of a portfolio derived from its transactions
+    List<PositionDTO> getPositions(Long portfolioId);
+
     // Delete portfolio by ID
     void deletePortfolio(Long portfolioId);
 }
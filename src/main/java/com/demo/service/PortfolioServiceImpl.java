@@ -1,6 +1,7 @@
 package com.demo.service;
 
 import com.demo.dto.PortfolioDTO;
+import com.demo.dto.PositionDTO;
 import com.demo.model.Portfolio;
 import com.demo.model.Stock;
 import com.demo.repository.PortfolioRepository;
@@ -9,7 +10,10 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -18,11 +22,19 @@ public class PortfolioServiceImpl implements PortfolioService {
 
     private final PortfolioRepository portfolioRepository;
     private final StockRepository stockRepository;
+    private final DataVersions dataVersions;
+    private final PortfolioValueTracker portfolioValueTracker;
+    private final PositionLedger positionLedger;
 
     @Autowired
-    public PortfolioServiceImpl(PortfolioRepository portfolioRepository, StockRepository stockRepository) {
+    public PortfolioServiceImpl(PortfolioRepository portfolioRepository, StockRepository stockRepository,
+                                DataVersions dataVersions, PortfolioValueTracker portfolioValueTracker,
+                                PositionLedger positionLedger) {
         this.portfolioRepository = portfolioRepository;
         this.stockRepository = stockRepository;
+        this.dataVersions = dataVersions;
+        this.portfolioValueTracker = portfolioValueTracker;
+        this.positionLedger = positionLedger;
     }
 
     @Override
@@ -37,6 +49,10 @@ public class PortfolioServiceImpl implements PortfolioService {
         portfolio.setStocks(stocks);
 
         Portfolio savedPortfolio = portfolioRepository.save(portfolio);
+        // Registered before the version bump so a reader never sees the new ETag with the old values
+        portfolioValueTracker.portfolioSaved(savedPortfolio.getId(), savedPortfolio.getName(), savedPortfolio.getDescription(),
+                stocks.stream().map(Stock::getId).collect(Collectors.toList()));
+        dataVersions.portfoliosChanged();
 
         // Calculate value based on Current Price of the stocks
         Double totalValue = stocks.stream()
@@ -48,24 +64,62 @@ public class PortfolioServiceImpl implements PortfolioService {
                 savedPortfolio.getName(),
                 savedPortfolio.getDescription(),
                 totalValue,
-                stocks.stream().map(Stock::getId).collect(Collectors.toList())
+                stocks.stream().map(Stock::getId).collect(Collectors.toList()),
+                null,
+                null,
+                null
         );
     }
 
     @Override
     public List<PortfolioDTO> getAllPortfolios() {
-        return portfolioRepository.findAll().stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        // Served from live valuation once it is loaded
+        List<PortfolioDTO> portfolios = portfolioValueTracker.getPortfolios();
+        if (portfolios != null) {
+            return portfolios;
+        }
+        return loadPortfolios();
     }
 
     @Override
     public PortfolioDTO getPortfolioById(Long portfolioId) {
+        PortfolioDTO portfolio = portfolioValueTracker.getPortfolio(portfolioId);
+        if (portfolio != null) {
+            return portfolio;
+        }
         return portfolioRepository.findById(portfolioId)
                 .map(this::convertToDTO)
                 .orElseThrow(() -> new RuntimeException("Portfolio not found"));
     }
 
+    @Override
+    public List<PositionDTO> getPositions(Long portfolioId) {
+        if (!portfolioRepository.existsById(portfolioId)) {
+            throw new RuntimeException("Portfolio not found");
+        }
+        return positionLedger.getPositions(portfolioId);
+    }
+
+    // All portfolios in two scalar queries, however many there are, instead of one stock query per portfolio
+    private List<PortfolioDTO> loadPortfolios() {
+        Map<Long, PortfolioDTO> portfolios = new LinkedHashMap<>();
+        for (Object[] row : portfolioRepository.findNameRows()) {
+            portfolios.put((Long) row[0], new PortfolioDTO((Long) row[0], (String) row[1], (String) row[2],
+                    0.0, new ArrayList<>(), null, null, null));
+        }
+        for (Object[] row : portfolioRepository.findStockValueRows()) {
+            PortfolioDTO portfolio = portfolios.get((Long) row[0]);
+            if (portfolio == null) {
+                continue;  // Created after the first query
+            }
+            double price = row[2] != null ? ((Number) row[2]).doubleValue() : 0.0;
+            int quantity = row[3] != null ? ((Number) row[3]).intValue() : 0;
+            portfolio.getStockIds().add((Long) row[1]);
+            portfolio.setTotalValue(portfolio.getTotalValue() + price * quantity);
+        }
+        return new ArrayList<>(portfolios.values());
+    }
+
     private PortfolioDTO convertToDTO(Portfolio portfolio) {
         Double totalValue = portfolio.getStocks().stream()
                 .mapToDouble(s -> s.getCurrentPrice() * (s.getQuantity() != null ? s.getQuantity() : 0))
@@ -75,13 +129,21 @@ public class PortfolioServiceImpl implements PortfolioService {
                 portfolio.getName(),
                 portfolio.getDescription(),
                 totalValue,
-                portfolio.getStocks().stream().map(Stock::getId).collect(Collectors.toList())
+                portfolio.getStocks().stream().map(Stock::getId).collect(Collectors.toList()),
+                null,
+                null,
+                null
         );
     }
 
     @Override
     @Transactional
     public void deletePortfolio(Long portfolioId) {
+        PositionLedger.Write ledger = positionLedger.beginWrite();
         portfolioRepository.deleteById(portfolioId);
+        ledger.portfolioDeleted(portfolioId);
+        portfolioValueTracker.portfolioDeleted(portfolioId);
+        dataVersions.portfoliosChanged();
+        dataVersions.transactionsChanged(portfolioId);
     }
 }
\ No newline at end of file
@@ -0,0 +1,495 @@
+package com.demo.service;
+
+import com.demo.dto.HoldingValueDTO;
+import com.demo.dto.PortfolioDTO;
+import com.demo.dto.StockDTO;
+import com.demo.model.Stock;
+import com.demo.repository.PortfolioRepository;
+import com.demo.repository.StockRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Running market value and day change of all holdings and of each portfolio,
+ * so reading a total is O(1). A holding is worth its quantity times the live
+ * price in the {@link PriceBook}, or times its stored live/purchase price until
+ * the symbol is first priced; its day change is measured from the quote's
+ * previous close.
+ *
+ * Each symbol keeps the positions of the portfolios holding it, so a price
+ * update only revalues those portfolios. Portfolio names are kept alongside,
+ * which lets portfolio listings be served without touching the database.
+ *
+ * The state is built once in the background from scalar rows (no entities are
+ * loaded), then kept current by price updates from the book and by the stock
+ * and portfolio services once their writes commit. Until the first build
+ * finishes, totals are summed in the database.
+ *
+ * Values are held as fixed-point longs so adding and later subtracting the
+ * same amount leaves no floating-point residue in the running sums.
+ */
+@Component
+public class PortfolioValueTracker implements PriceBook.Listener {
+
+    // Fixed-point units per rupee
+    private static final double SCALE = 10_000.0;
+
+    private final PriceBook priceBook;
+    private final StockRepository stockRepository;
+    private final PortfolioRepository portfolioRepository;
+    private final ExecutorService loader;
+
+    // All state below is guarded by this
+    private final Map<Long, Holding> holdings = new HashMap<>();
+    private final Map<String, SymbolValue> symbols = new HashMap<>();
+    private final Map<Long, Set<Long>> portfolioStocks = new HashMap<>();
+    private final Map<Long, String[]> portfolioNames = new HashMap<>();  // Name and description
+    private final Map<Long, long[]> portfolioUnits = new HashMap<>();  // Value and day change
+    private long totalUnits;
+    private long totalDayChangeUnits;
+    private boolean loaded;
+    private boolean loading;
+    // A write committed while the build was reading, so the build has to run again
+    private boolean changedWhileLoading;
+
+    public PortfolioValueTracker(PriceBook priceBook, StockRepository stockRepository, PortfolioRepository portfolioRepository) {
+        this.priceBook = priceBook;
+        this.stockRepository = stockRepository;
+        this.portfolioRepository = portfolioRepository;
+        this.loader = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "portfolio-value-loader");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PostConstruct
+    public void start() {
+        priceBook.addListener(this);
+    }
+
+    @PreDestroy
+    public void stop() {
+        loader.shutdownNow();
+    }
+
+    /**
+     * Market value of every holding
+     */
+    public double getTotalValue() {
+        synchronized (this) {
+            if (loaded) {
+                return totalUnits / SCALE;
+            }
+            startLoad();
+        }
+        Double sum = stockRepository.sumMarketValue();
+        return sum != null ? sum : 0.0;
+    }
+
+    /**
+     * Market value of each portfolio by id; portfolios without stocks are 0
+     */
+    public Map<Long, Double> getPortfolioValues() {
+        synchronized (this) {
+            if (loaded) {
+                Map<Long, Double> values = new LinkedHashMap<>();
+                for (Map.Entry<Long, long[]> entry : portfolioUnits.entrySet()) {
+                    values.put(entry.getKey(), entry.getValue()[0] / SCALE);
+                }
+                return values;
+            }
+            startLoad();
+        }
+        Map<Long, Double> values = new LinkedHashMap<>();
+        for (Object[] row : portfolioRepository.sumMarketValueByPortfolio()) {
+            values.put((Long) row[0], ((Number) row[1]).doubleValue());
+        }
+        return values;
+    }
+
+    /**
+     * Every portfolio with its value, day change and holdings, ordered by id; null until the first build finishes
+     */
+    public List<PortfolioDTO> getPortfolios() {
+        synchronized (this) {
+            if (!loaded) {
+                startLoad();
+                return null;
+            }
+            List<Long> ids = new ArrayList<>(portfolioNames.keySet());
+            ids.sort(null);
+            List<PortfolioDTO> portfolios = new ArrayList<>(ids.size());
+            for (Long id : ids) {
+                portfolios.add(toPortfolio(id));
+            }
+            return portfolios;
+        }
+    }
+
+    /**
+     * One portfolio with its value, day change and holdings; null until the first build finishes or if there is no such portfolio
+     */
+    public PortfolioDTO getPortfolio(Long portfolioId) {
+        synchronized (this) {
+            if (!loaded) {
+                startLoad();
+                return null;
+            }
+            return portfolioNames.containsKey(portfolioId) ? toPortfolio(portfolioId) : null;
+        }
+    }
+
+    @Override
+    public void onUpdate(StockDTO quote) {
+        if (quote.getCurrentPrice() == null) {
+            return;
+        }
+        synchronized (this) {
+            SymbolValue symbol = loaded ? symbols.get(key(quote.getSymbol())) : null;
+            if (symbol != null) {
+                symbol.price = quote.getCurrentPrice();
+                symbol.previousClose = previousClose(quote);
+                revalue(symbol);
+            }
+        }
+    }
+
+    /**
+     * Applies a created or updated stock once the surrounding transaction commits
+     */
+    public void stockSaved(Stock stock) {
+        if (stock == null || stock.getId() == null) {
+            return;
+        }
+        Long id = stock.getId();
+        String symbol = key(stock.getSymbol());
+        long quantity = stock.getQuantity() != null ? stock.getQuantity() : 0;
+        Double stored = stock.getLivePrice() != null ? stock.getLivePrice() : stock.getCurrentPrice();
+        double fallbackPrice = stored != null ? stored : 0.0;
+        afterCommit(() -> {
+            Holding previous = holdings.remove(id);
+            Set<Long> portfolios = new HashSet<>();
+            if (previous != null) {
+                portfolios = previous.portfolios;
+                apply(previous, -1);
+            }
+            Holding holding = new Holding(symbol, quantity, fallbackPrice, portfolios);
+            holdings.put(id, holding);
+            apply(holding, 1);
+        });
+    }
+
+    /**
+     * Removes a deleted stock once the surrounding transaction commits
+     */
+    public void stockDeleted(Long stockId) {
+        afterCommit(() -> {
+            Holding holding = holdings.remove(stockId);
+            if (holding != null) {
+                apply(holding, -1);
+                for (Long portfolioId : holding.portfolios) {
+                    Set<Long> stocks = portfolioStocks.get(portfolioId);
+                    if (stocks != null) {
+                        stocks.remove(stockId);
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Replaces a portfolio's name and stocks once the surrounding transaction commits
+     */
+    public void portfolioSaved(Long portfolioId, String name, String description, Collection<Long> stockIds) {
+        Set<Long> ids = new HashSet<>(stockIds);
+        afterCommit(() -> {
+            removePortfolio(portfolioId);
+            portfolioNames.put(portfolioId, new String[] { name, description });
+            portfolioUnits.put(portfolioId, new long[2]);
+            portfolioStocks.put(portfolioId, ids);
+            for (Long stockId : ids) {
+                Holding holding = holdings.get(stockId);
+                if (holding != null) {
+                    holding.portfolios.add(portfolioId);
+                    adjust(symbolValue(holding.symbol), portfolioId, holding, 1);
+                }
+            }
+        });
+    }
+
+    /**
+     * Drops a deleted portfolio once the surrounding transaction commits
+     */
+    public void portfolioDeleted(Long portfolioId) {
+        afterCommit(() -> {
+            removePortfolio(portfolioId);
+            portfolioNames.remove(portfolioId);
+            portfolioUnits.remove(portfolioId);
+        });
+    }
+
+    // Runs a change under the lock after commit; before the first build only notes that a build in progress is outdated
+    private void afterCommit(Runnable change) {
+        Runnable guarded = () -> {
+            synchronized (this) {
+                if (loaded) {
+                    change.run();
+                } else if (loading) {
+                    changedWhileLoading = true;
+                }
+            }
+        };
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            guarded.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                // A rolled back write changed nothing
+                if (status == STATUS_COMMITTED) {
+                    guarded.run();
+                }
+            }
+        });
+    }
+
+    // Called holding the lock
+    private void startLoad() {
+        if (!loading) {
+            loading = true;
+            loader.execute(this::load);
+        }
+    }
+
+    private void load() {
+        try {
+            List<Object[]> stockRows = stockRepository.findHoldingRows();
+            List<Object[]> portfolioRows = portfolioRepository.findNameRows();
+            List<Object[]> membershipRows = portfolioRepository.findStockMemberships();
+            synchronized (this) {
+                if (changedWhileLoading) {
+                    changedWhileLoading = false;
+                    loader.execute(this::load);
+                    return;
+                }
+                build(stockRows, portfolioRows, membershipRows);
+                loaded = true;
+                loading = false;
+            }
+        } catch (Exception e) {
+            System.err.println("Error loading portfolio values: " + e.getMessage());
+            synchronized (this) {
+                loading = false;
+            }
+        }
+    }
+
+    // Called holding the lock
+    private void build(List<Object[]> stockRows, List<Object[]> portfolioRows, List<Object[]> membershipRows) {
+        holdings.clear();
+        symbols.clear();
+        portfolioStocks.clear();
+        portfolioNames.clear();
+        portfolioUnits.clear();
+        totalUnits = 0;
+        totalDayChangeUnits = 0;
+
+        for (Object[] row : portfolioRows) {
+            Long portfolioId = (Long) row[0];
+            portfolioNames.put(portfolioId, new String[] { (String) row[1], (String) row[2] });
+            portfolioStocks.put(portfolioId, new HashSet<>());
+            portfolioUnits.put(portfolioId, new long[2]);
+        }
+        Map<Long, Set<Long>> stockPortfolios = new HashMap<>();
+        for (Object[] row : membershipRows) {
+            Long portfolioId = (Long) row[0];
+            Long stockId = (Long) row[1];
+            stockPortfolios.computeIfAbsent(stockId, id -> new HashSet<>()).add(portfolioId);
+            portfolioStocks.computeIfAbsent(portfolioId, id -> new HashSet<>()).add(stockId);
+            portfolioUnits.computeIfAbsent(portfolioId, id -> new long[2]);
+        }
+        for (Object[] row : stockRows) {
+            Long id = (Long) row[0];
+            long quantity = row[2] != null ? ((Number) row[2]).longValue() : 0;
+            double fallbackPrice = row[3] != null ? ((Number) row[3]).doubleValue() : 0.0;
+            Set<Long> portfolios = stockPortfolios.getOrDefault(id, new HashSet<>());
+            Holding holding = new Holding(key((String) row[1]), quantity, fallbackPrice, portfolios);
+            holdings.put(id, holding);
+            apply(holding, 1);
+        }
+    }
+
+    // Adds (sign 1) or removes (sign -1) a holding from the total and from each of its portfolios
+    private void apply(Holding holding, int sign) {
+        SymbolValue symbol = symbolValue(holding.symbol);
+        adjust(symbol, null, holding, sign);
+        for (Long portfolioId : holding.portfolios) {
+            adjust(symbol, portfolioId, holding, sign);
+        }
+    }
+
+    private void adjust(SymbolValue symbol, Long portfolioId, Holding holding, int sign) {
+        Position position = portfolioId == null
+                ? symbol.all
+                : symbol.byPortfolio.computeIfAbsent(portfolioId, id -> new Position());
+        position.quantity += sign * holding.quantity;
+        position.fallbackUnits += sign * toUnits(holding.fallbackPrice, holding.quantity);
+        revalue(symbol, position, portfolioId);
+        if (portfolioId != null && position.quantity == 0 && position.units == 0 && position.dayChangeUnits == 0) {
+            symbol.byPortfolio.remove(portfolioId);
+        }
+    }
+
+    private void revalue(SymbolValue symbol) {
+        revalue(symbol, symbol.all, null);
+        for (Map.Entry<Long, Position> entry : symbol.byPortfolio.entrySet()) {
+            revalue(symbol, entry.getValue(), entry.getKey());
+        }
+    }
+
+    // Moves the position's contribution to the running sums to its current value and day change
+    private void revalue(SymbolValue symbol, Position position, Long portfolioId) {
+        long units = symbol.price != null ? toUnits(symbol.price, position.quantity) : position.fallbackUnits;
+        long dayChangeUnits = dayChangeUnits(symbol, position.quantity);
+        long delta = units - position.units;
+        long dayChangeDelta = dayChangeUnits - position.dayChangeUnits;
+        position.units = units;
+        position.dayChangeUnits = dayChangeUnits;
+        if (portfolioId == null) {
+            totalUnits += delta;
+            totalDayChangeUnits += dayChangeDelta;
+        } else {
+            long[] sums = portfolioUnits.computeIfAbsent(portfolioId, id -> new long[2]);
+            sums[0] += delta;
+            sums[1] += dayChangeDelta;
+        }
+    }
+
+    // Called holding the lock; holding weights are shares of the portfolio's running total
+    private PortfolioDTO toPortfolio(Long portfolioId) {
+        String[] name = portfolioNames.get(portfolioId);
+        long[] sums = portfolioUnits.getOrDefault(portfolioId, new long[2]);
+        List<Long> stockIds = new ArrayList<>(portfolioStocks.getOrDefault(portfolioId, Set.of()));
+        stockIds.sort(null);
+
+        List<HoldingValueDTO> values = new ArrayList<>(stockIds.size());
+        for (Long stockId : stockIds) {
+            Holding holding = holdings.get(stockId);
+            if (holding == null) {
+                continue;
+            }
+            SymbolValue symbol = symbolValue(holding.symbol);
+            double price = symbol.price != null ? symbol.price : holding.fallbackPrice;
+            long units = toUnits(price, holding.quantity);
+            values.add(new HoldingValueDTO(stockId, holding.symbol, holding.quantity, price, units / SCALE,
+                    dayChangeUnits(symbol, holding.quantity) / SCALE,
+                    sums[0] != 0 ? (double) units / sums[0] : 0.0));
+        }
+
+        // Percent of the value at the previous close
+        long previousUnits = sums[0] - sums[1];
+        Double dayChangePercent = previousUnits > 0 ? sums[1] * 100.0 / previousUnits : null;
+        return new PortfolioDTO(portfolioId, name[0], name[1], sums[0] / SCALE, stockIds,
+                sums[1] / SCALE, dayChangePercent, values);
+    }
+
+    private void removePortfolio(Long portfolioId) {
+        Set<Long> stocks = portfolioStocks.remove(portfolioId);
+        if (stocks == null) {
+            return;
+        }
+        for (Long stockId : stocks) {
+            Holding holding = holdings.get(stockId);
+            if (holding != null && holding.portfolios.remove(portfolioId)) {
+                adjust(symbolValue(holding.symbol), portfolioId, holding, -1);
+            }
+        }
+    }
+
+    private SymbolValue symbolValue(String symbol) {
+        return symbols.computeIfAbsent(symbol, k -> {
+            SymbolValue value = new SymbolValue();
+            StockDTO quote = priceBook.get(k);
+            if (quote != null && quote.getCurrentPrice() != null) {
+                value.price = quote.getCurrentPrice();
+                value.previousClose = previousClose(quote);
+            }
+            return value;
+        });
+    }
+
+    // Computed as the difference of two valuations so it cancels exactly against them
+    private static long dayChangeUnits(SymbolValue symbol, long quantity) {
+        if (symbol.price == null || symbol.previousClose == null) {
+            return 0;
+        }
+        return toUnits(symbol.price, quantity) - toUnits(symbol.previousClose, quantity);
+    }
+
+    // The quote's previous close, or the one its change percent implies
+    private static Double previousClose(StockDTO quote) {
+        if (quote.getPreviousClose() != null && quote.getPreviousClose() > 0) {
+            return quote.getPreviousClose();
+        }
+        Double change = quote.getChangePercent();
+        if (change != null && change > -100) {
+            return quote.getCurrentPrice() / (1 + change / 100);
+        }
+        return null;
+    }
+
+    private static long toUnits(double price, long quantity) {
+        return Math.round(price * quantity * SCALE);
+    }
+
+    private static String key(String symbol) {
+        return symbol == null ? "" : symbol.trim().toUpperCase(Locale.ROOT);
+    }
+
+    // One stock row
+    private static class Holding {
+        final String symbol;
+        final long quantity;
+        final double fallbackPrice;  // Stored live or purchase price, used until the symbol is priced
+        final Set<Long> portfolios;
+
+        Holding(String symbol, long quantity, double fallbackPrice, Set<Long> portfolios) {
+            this.symbol = symbol;
+            this.quantity = quantity;
+            this.fallbackPrice = fallbackPrice;
+            this.portfolios = portfolios;
+        }
+    }
+
+    // Quantity of a symbol held overall or in one portfolio, and what it currently contributes to the sums
+    private static class Position {
+        long quantity;
+        long fallbackUnits;
+        long units;
+        long dayChangeUnits;
+    }
+
+    private static class SymbolValue {
+        Double price;  // Live price, null until the book has priced the symbol
+        Double previousClose;  // Null when the quote carries no previous close or change percent
+        final Position all = new Position();
+        final Map<Long, Position> byPortfolio = new HashMap<>();
+    }
+}
@@ -0,0 +1,365 @@
+package com.demo.service;
+
+import com.demo.dto.PositionDTO;
+import com.demo.model.PositionSnapshot;
+import com.demo.model.Transaction;
+import com.demo.model.TransactionType;
+import com.demo.repository.PositionSnapshotRepository;
+import com.demo.repository.TransactionRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Positions of each portfolio, derived from its BUY and SELL transactions.
+ * A position keeps sums of bought and sold units and amounts, so applying a
+ * transaction is O(1) and the order transactions are applied in does not
+ * matter. Figures that do depend on trade order, such as cost basis and
+ * realized profit, are served by {@link ProfitLossService} instead.
+ *
+ * The ledger is kept in memory and updated by the transaction service once a
+ * write commits. Each write applies its own delta: an edit or delete takes
+ * the stored transaction out and an insert or edit adds the new one, so
+ * concurrent writes can be applied in any commit order. Snapshot generations of all positions are written
+ * periodically, each covering every transaction up to an id, so a restart
+ * only replays the transactions after the newest generation. A generation is
+ * only used if the number of transactions it covers still matches the table,
+ * which catches covered transactions deleted since it was taken.
+ */
+@Component
+public class PositionLedger {
+
+    private final TransactionRepository transactionRepository;
+    private final PositionSnapshotRepository snapshotRepository;
+    private final int replayBatchSize;
+
+    // Writes that have started but not completed; a snapshot is only taken when there are none, so every
+    // transaction with an id up to the highest applied one is in the ledger
+    private final AtomicInteger writesInFlight = new AtomicInteger();
+
+    // All state below is guarded by this
+    private final Map<Long, Map<Long, Position>> portfolios = new HashMap<>();
+    private boolean loaded;
+    private long lastTransactionId;
+    private boolean changedSinceSnapshot;
+    private Long snapshotThrough;  // Newest usable generation in the database, if any
+
+    public PositionLedger(TransactionRepository transactionRepository,
+                          PositionSnapshotRepository snapshotRepository,
+                          @Value("${ledger.replay-batch-size:5000}") int replayBatchSize) {
+        this.transactionRepository = transactionRepository;
+        this.snapshotRepository = snapshotRepository;
+        this.replayBatchSize = Math.max(1, replayBatchSize);
+    }
+
+    @PostConstruct
+    public void start() {
+        try {
+            load();
+        } catch (Exception e) {
+            // Positions are then folded from the database on every read
+            System.err.println("Error loading position ledger: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Positions of a portfolio, ordered by stock id
+     */
+    public List<PositionDTO> getPositions(Long portfolioId) {
+        synchronized (this) {
+            if (loaded) {
+                return toPositions(portfolioId, portfolios.getOrDefault(portfolioId, Map.of()));
+            }
+        }
+        Map<Long, Position> positions = new HashMap<>();
+        for (Object[] row : transactionRepository.findLedgerRowsByPortfolio(portfolioId)) {
+            positions.computeIfAbsent((Long) row[2], id -> new Position((String) row[3])).add(row);
+        }
+        return toPositions(portfolioId, positions);
+    }
+
+    /**
+     * Starts a write to the transaction table; call before the first change. Inside a transaction the
+     * ledger changes recorded on the returned write are applied once it commits, otherwise at once.
+     */
+    public Write beginWrite() {
+        Write write = new Write();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            writesInFlight.incrementAndGet();
+            write.deferred = true;
+            TransactionSynchronizationManager.registerSynchronization(write);
+        }
+        return write;
+    }
+
+    /**
+     * Writes a new snapshot generation if positions changed since the last one
+     */
+    @Scheduled(
+            fixedDelayString = "${ledger.snapshot-interval-ms:3600000}",
+            initialDelayString = "${ledger.snapshot-interval-ms:3600000}"
+    )
+    public void snapshot() {
+        List<PositionSnapshot> rows = new ArrayList<>();
+        long through;
+        Long previous;
+        synchronized (this) {
+            if (!loaded || !changedSinceSnapshot || writesInFlight.get() > 0) {
+                return;
+            }
+            through = lastTransactionId;
+            previous = snapshotThrough;
+            Date now = new Date();
+            for (Map.Entry<Long, Map<Long, Position>> portfolio : portfolios.entrySet()) {
+                for (Map.Entry<Long, Position> entry : portfolio.getValue().entrySet()) {
+                    Position position = entry.getValue();
+                    rows.add(new PositionSnapshot(through, portfolio.getKey(), entry.getKey(), position.symbol,
+                            position.buyQuantity, position.buyCost, position.sellQuantity, position.sellProceeds,
+                            position.transactionCount, now));
+                }
+            }
+            changedSinceSnapshot = false;
+            snapshotThrough = through;
+        }
+        try {
+            if (previous != null && previous == through) {
+                // Positions changed without new transactions; replace the generation
+                snapshotRepository.deleteCovering(through);
+                previous = null;
+            }
+            snapshotRepository.saveAll(rows);
+            // The previous generation is kept as a fallback
+            if (previous != null) {
+                snapshotRepository.deleteOlderThan(previous);
+            }
+        } catch (Exception e) {
+            System.err.println("Error writing position snapshot: " + e.getMessage());
+            synchronized (this) {
+                changedSinceSnapshot = true;
+            }
+        }
+    }
+
+    // Restores the newest usable generation and replays the transactions after it
+    private synchronized void load() {
+        portfolios.clear();
+        Long through = snapshotRepository.findLatestThroughTransactionId();
+        List<PositionSnapshot> snapshot = List.of();
+        while (through != null) {
+            List<PositionSnapshot> rows = snapshotRepository.findByThroughTransactionId(through);
+            long covered = 0;
+            for (PositionSnapshot row : rows) {
+                covered += row.getTransactionCount() != null ? row.getTransactionCount() : 0;
+            }
+            if (transactionRepository.countByIdLessThanEqual(through) == covered) {
+                snapshot = rows;
+                break;
+            }
+            System.err.println("Position snapshot through transaction " + through + " no longer matches the transactions, trying an older one");
+            through = snapshotRepository.findLatestThroughTransactionIdBefore(through);
+        }
+        for (PositionSnapshot row : snapshot) {
+            position(row.getPortfolioId(), row.getStockId(), row.getSymbol()).restore(row);
+        }
+
+        long after = through != null ? through : 0;
+        int replayed = 0;
+        while (true) {
+            List<Object[]> rows = transactionRepository.findLedgerRowsAfter(after, PageRequest.of(0, replayBatchSize));
+            for (Object[] row : rows) {
+                position((Long) row[1], (Long) row[2], (String) row[3]).add(row);
+                after = (Long) row[0];
+            }
+            replayed += rows.size();
+            if (rows.size() < replayBatchSize) {
+                break;
+            }
+        }
+        lastTransactionId = after;
+        snapshotThrough = through;
+        changedSinceSnapshot = replayed > 0;
+        loaded = true;
+    }
+
+    private Position position(Long portfolioId, Long stockId, String symbol) {
+        return portfolios.computeIfAbsent(portfolioId, id -> new HashMap<>())
+                .computeIfAbsent(stockId, id -> new Position(symbol));
+    }
+
+    // Called holding the lock
+    private void remove(Object[] row) {
+        Map<Long, Position> positions = portfolios.get((Long) row[1]);
+        Position position = positions != null ? positions.get((Long) row[2]) : null;
+        if (position == null) {
+            return;
+        }
+        position.remove(row);
+        if (position.transactionCount <= 0) {
+            positions.remove((Long) row[2]);
+            if (positions.isEmpty()) {
+                portfolios.remove((Long) row[1]);
+            }
+        }
+    }
+
+    private static List<PositionDTO> toPositions(Long portfolioId, Map<Long, Position> positions) {
+        List<PositionDTO> result = new ArrayList<>(positions.size());
+        for (Map.Entry<Long, Position> entry : new TreeMap<>(positions).entrySet()) {
+            Position position = entry.getValue();
+            result.add(new PositionDTO(portfolioId, entry.getKey(), position.symbol,
+                    position.buyQuantity - position.sellQuantity, position.buyQuantity, position.sellQuantity,
+                    position.transactionCount));
+        }
+        return result;
+    }
+
+    // Ledger row of a transaction, in the layout of TransactionRepository's ledger queries
+    private static Object[] row(Transaction transaction) {
+        return new Object[] {
+                transaction.getId(),
+                transaction.getPortfolio().getId(),
+                transaction.getStock().getId(),
+                transaction.getStock().getSymbol(),
+                transaction.getType(),
+                transaction.getAmount(),
+                transaction.getPricePerUnit()
+        };
+    }
+
+    /**
+     * Ledger changes of one write to the transaction table, from {@link #beginWrite()}
+     */
+    public class Write implements TransactionSynchronization {
+
+        private final List<Runnable> changes = new ArrayList<>();
+        private boolean deferred;
+
+        /**
+         * Adds a saved transaction to its position, whether new or the new version of an edited one
+         */
+        public void transactionAdded(Transaction transaction) {
+            Object[] row = row(transaction);
+            change(() -> {
+                position((Long) row[1], (Long) row[2], (String) row[3]).add(row);
+                lastTransactionId = Math.max(lastTransactionId, (Long) row[0]);
+            });
+        }
+
+        /**
+         * Takes a stored transaction out of its position before it is edited or deleted. Read it with
+         * {@link TransactionRepository#findByIdForUpdate(Long)}, so a concurrent write of the same transaction
+         * waits for this one and removes the version this one stores. Snapshot generations covering it are dropped.
+         */
+        public void transactionRemoved(Transaction stored) {
+            // Copied now: the entity is managed and changes when the edit is saved
+            Object[] row = row(stored);
+            Long transactionId = (Long) row[0];
+            snapshotRepository.deleteCovering(transactionId);
+            change(() -> {
+                remove(row);
+                if (snapshotThrough != null && transactionId <= snapshotThrough) {
+                    snapshotThrough = null;
+                }
+            });
+        }
+
+        /**
+         * Drops the positions of a deleted portfolio
+         */
+        public void portfolioDeleted(Long portfolioId) {
+            change(() -> portfolios.remove(portfolioId));
+        }
+
+        private void change(Runnable change) {
+            if (deferred) {
+                changes.add(change);
+            } else {
+                apply(change);
+            }
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            try {
+                // A rolled back write changed nothing
+                if (status == STATUS_COMMITTED) {
+                    for (Runnable change : changes) {
+                        apply(change);
+                    }
+                }
+            } finally {
+                writesInFlight.decrementAndGet();
+            }
+        }
+
+        private void apply(Runnable change) {
+            synchronized (PositionLedger.this) {
+                // Before the first load the database is read on every request instead
+                if (loaded) {
+                    change.run();
+                    changedSinceSnapshot = true;
+                }
+            }
+        }
+    }
+
+    // Sums over the transactions of one stock in one portfolio
+    private static class Position {
+        final String symbol;
+        double buyQuantity;
+        double buyCost;
+        double sellQuantity;
+        double sellProceeds;
+        long transactionCount;
+
+        Position(String symbol) {
+            this.symbol = symbol;
+        }
+
+        void add(Object[] row) {
+            double amount = row[5] != null ? ((Number) row[5]).doubleValue() : 0.0;
+            double price = row[6] != null ? ((Number) row[6]).doubleValue() : 0.0;
+            if (row[4] == TransactionType.BUY) {
+                buyQuantity += amount;
+                buyCost += amount * price;
+            } else if (row[4] == TransactionType.SELL) {
+                sellQuantity += amount;
+                sellProceeds += amount * price;
+            }
+            transactionCount++;
+        }
+
+        void remove(Object[] row) {
+            double amount = row[5] != null ? ((Number) row[5]).doubleValue() : 0.0;
+            double price = row[6] != null ? ((Number) row[6]).doubleValue() : 0.0;
+            if (row[4] == TransactionType.BUY) {
+                buyQuantity -= amount;
+                buyCost -= amount * price;
+            } else if (row[4] == TransactionType.SELL) {
+                sellQuantity -= amount;
+                sellProceeds -= amount * price;
+            }
+            transactionCount--;
+        }
+
+        void restore(PositionSnapshot row) {
+            buyQuantity += row.getBuyQuantity() != null ? row.getBuyQuantity() : 0.0;
+            buyCost += row.getBuyCost() != null ? row.getBuyCost() : 0.0;
+            sellQuantity += row.getSellQuantity() != null ? row.getSellQuantity() : 0.0;
+            sellProceeds += row.getSellProceeds() != null ? row.getSellProceeds() : 0.0;
+            transactionCount += row.getTransactionCount() != null ? row.getTransactionCount() : 0;
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package com.demo.service;
+
+import com.demo.dto.StockDTO;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory book of the latest known quote per symbol. Kept current in the
+ * background by {@link QuoteRefresher} and {@link FinnhubStreamService} so
+ * request threads can read prices without ever waiting on Finnhub. An update
+ * older than the quote already in the book is ignored; every accepted update
+ * bumps {@link #getVersion()}.
+ */
+@Component
+public class PriceBook {
+
+    private final ConcurrentHashMap<String, StockDTO> quotes = new ConcurrentHashMap<>();
+    // Bumped on every accepted update, so readers can tell cheaply whether anything changed
+    private final AtomicLong version = new AtomicLong();
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Notified on the updating thread after every accepted update; must return quickly and not modify the quote
+     */
+    public interface Listener {
+        void onUpdate(StockDTO quote);
+
+        /**
+         * Called for every streamed trade, including ones too old to change the book, after any resulting onUpdate
+         */
+        default void onTrade(String symbol, double price, double volume, long timestamp) {
+        }
+    }
+
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Records the latest quote for its symbol, stamping it with the current time if it has no timestamp
+     */
+    public void update(StockDTO quote) {
+        if (quote == null || quote.getSymbol() == null) {
+            return;
+        }
+        StockDTO stored = quote.copy();
+        if (stored.getLastUpdated() == null) {
+            stored.setLastUpdated(System.currentTimeMillis());
+        }
+        StockDTO result = quotes.compute(key(quote.getSymbol()), (k, existing) -> {
+            if (!isNewer(existing, stored.getLastUpdated())) {
+                return existing;
+            }
+            version.incrementAndGet();
+            return stored;
+        });
+        if (result == stored) {
+            notifyListeners(stored);
+        }
+    }
+
+    /**
+     * Applies a single trade to the book, deriving the change percent from the last quote's previous close (or the one its change percent implies) and widening the day range
+     * @param price Trade price, already converted to the display currency
+     * @param volume Traded quantity, 0 when unknown
+     * @param timestamp Trade time in epoch millis
+     */
+    public void applyTick(String symbol, double price, double volume, long timestamp) {
+        if (symbol == null || price <= 0) {
+            return;
+        }
+        StockDTO[] applied = new StockDTO[1];
+        quotes.compute(key(symbol), (k, existing) -> {
+            if (!isNewer(existing, timestamp)) {
+                return existing;
+            }
+            StockDTO next;
+            if (existing == null) {
+                next = new StockDTO((long) Math.abs(k.hashCode()), k, k, price, 0, 0.0, 0.0);
+            } else {
+                next = existing.copy();
+                Double previousClose = existing.getPreviousClose();
+                Double lastPrice = existing.getCurrentPrice();
+                Double lastChange = existing.getChangePercent();
+                if (previousClose == null && lastPrice != null && lastChange != null && lastChange > -100) {
+                    previousClose = lastPrice / (1 + lastChange / 100);
+                }
+                if (previousClose != null && previousClose > 0) {
+                    next.setChangePercent(((price - previousClose) / previousClose) * 100);
+                }
+                if (existing.getDayHigh() != null && price > existing.getDayHigh()) {
+                    next.setDayHigh(price);
+                }
+                if (existing.getDayLow() != null && price < existing.getDayLow()) {
+                    next.setDayLow(price);
+                }
+            }
+            next.setCurrentPrice(price);
+            next.setLastUpdated(timestamp);
+            next.setTradeTime(timestamp);
+            version.incrementAndGet();
+            applied[0] = next;
+            return next;
+        });
+        if (applied[0] != null) {
+            notifyListeners(applied[0]);
+        }
+        notifyTrade(key(symbol), price, volume, timestamp);
+    }
+
+    /**
+     * Returns a copy of the latest quote for the symbol, or null if it has never been priced
+     */
+    public StockDTO get(String symbol) {
+        StockDTO quote = quotes.get(key(symbol));
+        return quote != null ? quote.copy() : null;
+    }
+
+    /**
+     * Returns copies of the quotes that are present for the given symbols, in the given order
+     */
+    public List<StockDTO> getAll(Collection<String> symbols) {
+        List<StockDTO> result = new ArrayList<>(symbols.size());
+        for (String symbol : symbols) {
+            StockDTO quote = quotes.get(key(symbol));
+            if (quote != null) {
+                result.add(quote.copy());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns copies of every quote in the book
+     */
+    public List<StockDTO> snapshot() {
+        List<StockDTO> result = new ArrayList<>(quotes.size());
+        for (StockDTO quote : quotes.values()) {
+            result.add(quote.copy());
+        }
+        return result;
+    }
+
+    /**
+     * Returns copies of the quotes that are present for the given symbols, keyed by upper-case symbol
+     */
+    public Map<String, StockDTO> getAllBySymbol(Collection<String> symbols) {
+        Map<String, StockDTO> result = new HashMap<>(Math.max(16, symbols.size() * 2));
+        for (String symbol : symbols) {
+            String key = key(symbol);
+            StockDTO quote = quotes.get(key);
+            if (quote != null) {
+                result.put(key, quote.copy());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Epoch millis of the latest quote for the symbol, or null if it has never been priced
+     */
+    public Long getLastUpdated(String symbol) {
+        StockDTO quote = quotes.get(key(symbol));
+        return quote != null ? quote.getLastUpdated() : null;
+    }
+
+    public long getVersion() {
+        return version.get();
+    }
+
+    public boolean contains(String symbol) {
+        return quotes.containsKey(key(symbol));
+    }
+
+    public int size() {
+        return quotes.size();
+    }
+
+    private void notifyListeners(StockDTO quote) {
+        for (Listener listener : listeners) {
+            try {
+                listener.onUpdate(quote);
+            } catch (Exception e) {
+                System.err.println("Error in price book listener: " + e.getMessage());
+            }
+        }
+    }
+
+    private void notifyTrade(String symbol, double price, double volume, long timestamp) {
+        for (Listener listener : listeners) {
+            try {
+                listener.onTrade(symbol, price, volume, timestamp);
+            } catch (Exception e) {
+                System.err.println("Error in price book listener: " + e.getMessage());
+            }
+        }
+    }
+
+    private static boolean isNewer(StockDTO existing, long timestamp) {
+        return existing == null || existing.getLastUpdated() == null || existing.getLastUpdated() <= timestamp;
+    }
+
+    private static String key(String symbol) {
+        return symbol.trim().toUpperCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,139 @@
+package com.demo.service;
+
+import com.demo.dto.StockDTO;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-process price history per symbol, held column-wise in primitive arrays.
+ * Two tiers are kept:
+ * <ul>
+ *   <li>intraday: last price per {@code intradayIntervalMillis} bucket, kept for {@code intradayRetentionMillis}</li>
+ *   <li>daily: last price per UTC day (the close once the day is over), kept indefinitely</li>
+ * </ul>
+ * Live prices arrive from the {@link PriceBook}; older history is backfilled
+ * from Finnhub candles by {@link StockHistoryService}.
+ */
+@Component
+public class PriceHistoryStore implements PriceBook.Listener {
+
+    static final long DAY_MILLIS = 24L * 60 * 60 * 1000;
+
+    private final PriceBook priceBook;
+    private final long intradayIntervalMillis;
+    private final long intradayRetentionMillis;
+    private final ConcurrentHashMap<String, SymbolHistory> histories = new ConcurrentHashMap<>();
+
+    public PriceHistoryStore(
+            PriceBook priceBook,
+            @Value("${history.intraday-interval-ms:60000}") long intradayIntervalMillis,
+            @Value("${history.intraday-retention-days:7}") int intradayRetentionDays
+    ) {
+        this.priceBook = priceBook;
+        this.intradayIntervalMillis = Math.max(1000, intradayIntervalMillis);
+        this.intradayRetentionMillis = Math.max(1, intradayRetentionDays) * DAY_MILLIS;
+    }
+
+    @PostConstruct
+    public void start() {
+        priceBook.addListener(this);
+    }
+
+    @Override
+    public void onUpdate(StockDTO quote) {
+        // Keyed on the trade time, so quotes polled while the market is closed don't add weekend or overnight points
+        if (quote.getCurrentPrice() != null && quote.getTradeTime() != null) {
+            record(quote.getSymbol(), quote.getTradeTime(), quote.getCurrentPrice());
+        }
+    }
+
+    /**
+     * Records a live price in both tiers
+     */
+    public void record(String symbol, long timestamp, double price) {
+        SymbolHistory history = history(symbol);
+        synchronized (history) {
+            history.intraday.put(timestamp - Math.floorMod(timestamp, intradayIntervalMillis), price);
+            history.daily.put(dayStart(timestamp), price);
+            long cutoff = timestamp - intradayRetentionMillis;
+            if (history.intraday.firstTime() < cutoff) {
+                history.intraday.removeBefore(cutoff);
+            }
+        }
+    }
+
+    /**
+     * Records backfilled points, e.g. from Finnhub candles or a bulk import, into one tier
+     * @param offset Index of the first point to record
+     * @param count Number of points to record
+     * @param intraday True for the intraday tier, false for daily closes
+     */
+    public void recordAll(String symbol, long[] timestamps, double[] prices, int offset, int count, boolean intraday) {
+        SymbolHistory history = history(symbol);
+        synchronized (history) {
+            for (int i = offset; i < offset + count; i++) {
+                if (intraday) {
+                    history.intraday.put(timestamps[i] - Math.floorMod(timestamps[i], intradayIntervalMillis), prices[i]);
+                } else {
+                    history.daily.put(dayStart(timestamps[i]), prices[i]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Points in [from, to] from the intraday or daily tier, in ascending time order
+     */
+    public PriceSeries query(String symbol, long from, long to, boolean intraday) {
+        SymbolHistory history = histories.get(key(symbol));
+        if (history == null) {
+            return PriceSeries.EMPTY;
+        }
+        synchronized (history) {
+            return (intraday ? history.intraday : history.daily).range(from, to);
+        }
+    }
+
+    /**
+     * Time of the oldest point in a tier, or null when the tier is empty
+     */
+    public Long firstTimestamp(String symbol, boolean intraday) {
+        SymbolHistory history = histories.get(key(symbol));
+        if (history == null) {
+            return null;
+        }
+        synchronized (history) {
+            TimeSeries series = intraday ? history.intraday : history.daily;
+            return series.size() > 0 ? series.firstTime() : null;
+        }
+    }
+
+    public long getIntradayRetentionMillis() {
+        return intradayRetentionMillis;
+    }
+
+    public int symbolCount() {
+        return histories.size();
+    }
+
+    private SymbolHistory history(String symbol) {
+        return histories.computeIfAbsent(key(symbol), k -> new SymbolHistory());
+    }
+
+    static long dayStart(long timestamp) {
+        return timestamp - Math.floorMod(timestamp, DAY_MILLIS);
+    }
+
+    private static String key(String symbol) {
+        return symbol.trim().toUpperCase(Locale.ROOT);
+    }
+
+    private static class SymbolHistory {
+        final TimeSeries intraday = new TimeSeries(64);
+        final TimeSeries daily = new TimeSeries(64);
+    }
+}
@@ -0,0 +1,46 @@
+package com.demo.service;
+
+/**
+ * An immutable slice of a symbol's price history: parallel arrays of epoch
+ * millis and prices in ascending time order.
+ */
+public final class PriceSeries {
+
+    public static final PriceSeries EMPTY = new PriceSeries(new long[0], new double[0]);
+
+    private final long[] timestamps;
+    private final double[] prices;
+
+    public PriceSeries(long[] timestamps, double[] prices) {
+        if (timestamps.length != prices.length) {
+            throw new IllegalArgumentException("timestamps and prices differ in length");
+        }
+        this.timestamps = timestamps;
+        this.prices = prices;
+    }
+
+    public int size() {
+        return timestamps.length;
+    }
+
+    public boolean isEmpty() {
+        return timestamps.length == 0;
+    }
+
+    public long timestampAt(int index) {
+        return timestamps[index];
+    }
+
+    public double priceAt(int index) {
+        return prices[index];
+    }
+
+    // The backing arrays; callers must not modify them
+    public long[] timestamps() {
+        return timestamps;
+    }
+
+    public double[] prices() {
+        return prices;
+    }
+}
@@ -0,0 +1,372 @@
+package com.demo.service;
+
+import com.demo.dto.PriceUpdateDTO;
+import com.demo.dto.StockDTO;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pushes price changes from the {@link PriceBook} to Server-Sent Event
+ * subscribers. Each update is serialized once and handed to the clients
+ * whose symbol filter matches it.
+ *
+ * Clients never queue more than one pending event per symbol. A client that
+ * can't keep up just receives the latest price when its send completes. A
+ * client whose send has been blocked for longer than {@code slowClientMillis}
+ * is dropped: its blocked write is interrupted, so the pool thread is freed
+ * for the other clients, and its emitter is completed with an error. Clients
+ * with nothing to send for {@code heartbeatMillis} get an SSE comment to keep
+ * the connection alive. Sends run on a small shared pool; the connections
+ * themselves are async and hold no request threads.
+ *
+ * Symbols a client filters on are tracked by the {@link QuoteRefresher} for
+ * as long as the client is connected.
+ */
+@Component
+public class PriceStreamService implements PriceBook.Listener {
+
+    private final PriceBook priceBook;
+    private final QuoteRefresher quoteRefresher;
+    private final int maxClients;
+    private final int maxSymbolsPerClient;
+    private final long heartbeatMillis;
+    private final long slowClientMillis;
+    private final long emitterTimeoutMillis;
+
+    private final ObjectMapper objectMapper = new JsonMapper();
+    private final ExecutorService sendExecutor;
+    private final ScheduledExecutorService heartbeatScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "price-stream-heartbeat");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Set<Client> clients = ConcurrentHashMap.newKeySet();
+    private final Set<Client> allSymbolClients = ConcurrentHashMap.newKeySet();
+    private final ConcurrentHashMap<String, Set<Client>> clientsBySymbol = new ConcurrentHashMap<>();
+    private final AtomicInteger clientCount = new AtomicInteger();
+    // Last update published per symbol, so unchanged quotes are not pushed again
+    private final ConcurrentHashMap<String, PriceUpdateDTO> lastPublished = new ConcurrentHashMap<>();
+
+    private final AtomicLong eventsSent = new AtomicLong();
+    private final AtomicLong clientsDropped = new AtomicLong();
+    private final AtomicLong clientsRejected = new AtomicLong();
+
+    public PriceStreamService(
+            PriceBook priceBook,
+            QuoteRefresher quoteRefresher,
+            @Value("${stocks.stream.max-clients:5000}") int maxClients,
+            @Value("${stocks.stream.max-symbols:100}") int maxSymbolsPerClient,
+            @Value("${stocks.stream.heartbeat-ms:15000}") long heartbeatMillis,
+            @Value("${stocks.stream.slow-client-ms:10000}") long slowClientMillis,
+            @Value("${stocks.stream.timeout-ms:0}") long emitterTimeoutMillis,
+            @Value("${stocks.stream.send-threads:4}") int sendThreads
+    ) {
+        this.priceBook = priceBook;
+        this.quoteRefresher = quoteRefresher;
+        this.maxClients = maxClients;
+        this.maxSymbolsPerClient = Math.max(1, maxSymbolsPerClient);
+        this.heartbeatMillis = Math.max(1000, heartbeatMillis);
+        this.slowClientMillis = slowClientMillis;
+        this.emitterTimeoutMillis = emitterTimeoutMillis;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.sendExecutor = Executors.newFixedThreadPool(Math.max(1, sendThreads), runnable -> {
+            Thread thread = new Thread(runnable, "price-stream-send-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PostConstruct
+    public void start() {
+        priceBook.addListener(this);
+        heartbeatScheduler.scheduleWithFixedDelay(this::checkClients, heartbeatMillis, heartbeatMillis / 2, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        heartbeatScheduler.shutdownNow();
+        sendExecutor.shutdownNow();
+        for (Client client : List.copyOf(clients)) {
+            remove(client);
+            client.emitter.complete();
+        }
+    }
+
+    /**
+     * Opens a stream of price updates, limited to the given symbols when any are given.
+     * Starts with the current price of every matching symbol.
+     * @return the emitter, or null when the node is at its client limit
+     * @throws IllegalArgumentException when more symbols are given than a client may filter on
+     */
+    public SseEmitter subscribe(Collection<String> symbols) {
+        if (symbols != null && symbols.size() > maxSymbolsPerClient) {
+            throw new IllegalArgumentException("At most " + maxSymbolsPerClient + " symbols per stream");
+        }
+        if (clientCount.incrementAndGet() > maxClients) {
+            clientCount.decrementAndGet();
+            clientsRejected.incrementAndGet();
+            return null;
+        }
+        Set<String> filter = null;
+        if (symbols != null && !symbols.isEmpty()) {
+            filter = ConcurrentHashMap.newKeySet();
+            for (String symbol : symbols) {
+                if (symbol != null && !symbol.isBlank()) {
+                    filter.add(key(symbol));
+                }
+            }
+            if (filter.isEmpty()) {
+                filter = null;
+            }
+        }
+
+        SseEmitter emitter = createEmitter(emitterTimeoutMillis);
+        Client client = new Client(emitter, filter);
+        emitter.onCompletion(() -> remove(client));
+        emitter.onTimeout(() -> remove(client));
+        emitter.onError(error -> remove(client));
+
+        clients.add(client);
+        if (filter == null) {
+            allSymbolClients.add(client);
+        } else {
+            for (String symbol : filter) {
+                clientsBySymbol.computeIfAbsent(symbol, k -> ConcurrentHashMap.newKeySet()).add(client);
+                // Make sure the symbol gets priced even if nothing else tracks it
+                if (quoteRefresher.track(symbol)) {
+                    client.trackedSymbols.add(symbol);
+                }
+            }
+        }
+
+        List<StockDTO> initial = filter == null ? priceBook.snapshot() : priceBook.getAll(filter);
+        for (StockDTO quote : initial) {
+            String payload = serialize(toUpdate(quote));
+            if (payload != null) {
+                client.pending.put(key(quote.getSymbol()), payload);
+            }
+        }
+        scheduleFlush(client);
+        return emitter;
+    }
+
+    @Override
+    public void onUpdate(StockDTO quote) {
+        String symbol = key(quote.getSymbol());
+        PriceUpdateDTO update = toUpdate(quote);
+        PriceUpdateDTO previous = lastPublished.put(symbol, update);
+        if (previous != null && Objects.equals(previous.getPrice(), update.getPrice())
+                && Objects.equals(previous.getChangePercent(), update.getChangePercent())) {
+            return;  // a refresh that didn't move the price
+        }
+        Set<Client> symbolClients = clientsBySymbol.get(symbol);
+        if (allSymbolClients.isEmpty() && (symbolClients == null || symbolClients.isEmpty())) {
+            return;
+        }
+        // Serialize once for every subscriber
+        String payload = serialize(update);
+        if (payload == null) {
+            return;
+        }
+        for (Client client : allSymbolClients) {
+            offer(client, symbol, payload);
+        }
+        if (symbolClients != null) {
+            for (Client client : symbolClients) {
+                offer(client, symbol, payload);
+            }
+        }
+    }
+
+    public Map<String, Long> getStats() {
+        Map<String, Long> stats = new LinkedHashMap<>();
+        stats.put("clients", (long) clientCount.get());
+        stats.put("maxClients", (long) maxClients);
+        stats.put("eventsSent", eventsSent.get());
+        stats.put("clientsDropped", clientsDropped.get());
+        stats.put("clientsRejected", clientsRejected.get());
+        return stats;
+    }
+
+    // 0 means the connection never times out
+    SseEmitter createEmitter(long timeoutMillis) {
+        return new SseEmitter(timeoutMillis);
+    }
+
+    private void offer(Client client, String symbol, String payload) {
+        // Replaces any update for the symbol the client hasn't received yet
+        client.pending.put(symbol, payload);
+        scheduleFlush(client);
+    }
+
+    private void scheduleFlush(Client client) {
+        if (client.closed || !client.flushScheduled.compareAndSet(false, true)) {
+            return;  // a flush is queued or running and will pick up the new update
+        }
+        try {
+            sendExecutor.execute(() -> flush(client));
+        } catch (RejectedExecutionException e) {
+            // Shutting down
+        }
+    }
+
+    private void flush(Client client) {
+        synchronized (client) {
+            client.sender = Thread.currentThread();
+        }
+        try {
+            client.sendStartedAt = System.currentTimeMillis();
+            for (String symbol : List.copyOf(client.pending.keySet())) {
+                String payload = client.pending.remove(symbol);
+                if (payload != null && !client.closed) {
+                    client.emitter.send(SseEmitter.event().name("quote").data(payload));
+                    eventsSent.incrementAndGet();
+                }
+            }
+            if (client.heartbeatDue && !client.closed) {
+                client.heartbeatDue = false;
+                client.emitter.send(SseEmitter.event().comment("heartbeat"));
+            }
+            client.lastSentAt = System.currentTimeMillis();
+        } catch (Exception e) {
+            // The client went away; the container reports it through onError/onCompletion too
+            remove(client);
+        } finally {
+            synchronized (client) {
+                client.sender = null;
+                // An interrupt aimed at this client's send must not hit the next client's
+                Thread.interrupted();
+            }
+            if (client.dropped) {
+                complete(client);
+            }
+            client.sendStartedAt = 0;
+            client.flushScheduled.set(false);
+            if (!client.closed && (!client.pending.isEmpty() || client.heartbeatDue)) {
+                scheduleFlush(client);
+            }
+        }
+    }
+
+    // Runs on the heartbeat thread: drops stuck clients and queues heartbeats for idle ones
+    private void checkClients() {
+        long now = System.currentTimeMillis();
+        for (Client client : clients) {
+            long sendStartedAt = client.sendStartedAt;
+            if (sendStartedAt != 0 && now - sendStartedAt > slowClientMillis) {
+                drop(client);
+            } else if (now - client.lastSentAt >= heartbeatMillis) {
+                client.heartbeatDue = true;
+                scheduleFlush(client);
+            }
+        }
+    }
+
+    // Completing the emitter here could wait on the stuck write, so a send in progress is interrupted instead
+    // and the sending thread completes the emitter as it unwinds
+    private void drop(Client client) {
+        clientsDropped.incrementAndGet();
+        client.dropped = true;
+        remove(client);
+        synchronized (client) {
+            if (client.sender != null) {
+                client.sender.interrupt();
+                return;
+            }
+        }
+        complete(client);
+    }
+
+    private void complete(Client client) {
+        try {
+            client.emitter.completeWithError(new IOException("Client too slow, dropped"));
+        } catch (Exception e) {
+            // Already broken
+        }
+    }
+
+    private void remove(Client client) {
+        if (!clients.remove(client)) {
+            return;
+        }
+        client.closed = true;
+        clientCount.decrementAndGet();
+        if (client.symbols == null) {
+            allSymbolClients.remove(client);
+        } else {
+            for (String symbol : client.symbols) {
+                Set<Client> symbolClients = clientsBySymbol.get(symbol);
+                if (symbolClients != null) {
+                    symbolClients.remove(client);
+                }
+            }
+        }
+        for (String symbol : client.trackedSymbols) {
+            quoteRefresher.untrack(symbol);
+        }
+        client.pending.clear();
+    }
+
+    private String serialize(PriceUpdateDTO update) {
+        try {
+            return objectMapper.writeValueAsString(update);
+        } catch (Exception e) {
+            System.err.println("Error serializing price update: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private static PriceUpdateDTO toUpdate(StockDTO quote) {
+        return new PriceUpdateDTO(quote.getSymbol(), quote.getCurrentPrice(), quote.getChangePercent(), quote.getLastUpdated());
+    }
+
+    private static String key(String symbol) {
+        return symbol.trim().toUpperCase(Locale.ROOT);
+    }
+
+    private static class Client {
+
+        final SseEmitter emitter;
+        final Set<String> symbols;  // null for all symbols
+        // Symbols this client holds a QuoteRefresher reference on
+        final Set<String> trackedSymbols = ConcurrentHashMap.newKeySet();
+        // Latest undelivered payload per symbol
+        final ConcurrentHashMap<String, String> pending = new ConcurrentHashMap<>();
+        final AtomicBoolean flushScheduled = new AtomicBoolean();
+        volatile long sendStartedAt;  // 0 while no send is in progress
+        volatile long lastSentAt = System.currentTimeMillis();
+        volatile boolean heartbeatDue;
+        volatile boolean closed;
+        volatile boolean dropped;  // removed for being too slow; its emitter still has to be completed
+        Thread sender;  // running this client's flush; guarded by the client
+
+        Client(SseEmitter emitter, Set<String> symbols) {
+            this.emitter = emitter;
+            this.symbols = symbols;
+        }
+    }
+}
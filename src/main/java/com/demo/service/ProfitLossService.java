@@ -0,0 +1,114 @@
+package com.demo.service;
+
+import com.demo.dto.ProfitLossDTO;
+import com.demo.dto.StockDTO;
+import com.demo.dto.SymbolProfitLossDTO;
+import com.demo.model.TransactionType;
+import com.demo.repository.PortfolioRepository;
+import com.demo.repository.TransactionRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Cost basis and realized/unrealized profit of a portfolio. Transactions are
+ * read as scalar rows in date order, a keyset page at a time, and folded by a
+ * {@link CostBasisCalculator}, so memory stays bounded by the page size and
+ * the number of open lots however long the history is. Unrealized profit uses
+ * the live price from the {@link PriceBook}, or the stored price of stocks it
+ * has not priced.
+ */
+@Service
+public class ProfitLossService {
+
+    private final TransactionRepository transactionRepository;
+    private final PortfolioRepository portfolioRepository;
+    private final PriceBook priceBook;
+    private final int pageSize;
+
+    public ProfitLossService(TransactionRepository transactionRepository, PortfolioRepository portfolioRepository,
+                             PriceBook priceBook, @Value("${analytics.page-size:10000}") int pageSize) {
+        this.transactionRepository = transactionRepository;
+        this.portfolioRepository = portfolioRepository;
+        this.priceBook = priceBook;
+        this.pageSize = Math.max(1, pageSize);
+    }
+
+    /**
+     * Profit and loss of a portfolio per stock and in total
+     * @param method How sales are matched against earlier buys
+     */
+    public ProfitLossDTO getProfitLoss(Long portfolioId, CostBasisMethod method) {
+        if (!portfolioRepository.existsById(portfolioId)) {
+            throw new RuntimeException("Portfolio not found");
+        }
+        CostBasisCalculator calculator = new CostBasisCalculator(method);
+        Map<Long, Double> storedPrices = new HashMap<>();
+        long count = 0;
+        PageRequest page = PageRequest.of(0, pageSize);
+        List<Object[]> rows = transactionRepository.findFirstCostBasisRows(portfolioId, page);
+        while (!rows.isEmpty()) {
+            for (Object[] row : rows) {
+                apply(calculator, row);
+                if (row[7] != null) {
+                    storedPrices.putIfAbsent((Long) row[1], ((Number) row[7]).doubleValue());
+                }
+            }
+            count += rows.size();
+            if (rows.size() < pageSize) {
+                break;
+            }
+            Object[] last = rows.get(rows.size() - 1);
+            rows = transactionRepository.findCostBasisRowsAfter(portfolioId, (Date) last[6], (Long) last[0], page);
+        }
+
+        List<SymbolProfitLossDTO> symbols = new ArrayList<>(calculator.size());
+        double totalCost = 0;
+        double totalValue = 0;
+        double totalRealized = 0;
+        double totalUnrealized = 0;
+        for (int i = 0; i < calculator.size(); i++) {
+            double quantity = calculator.quantityAt(i);
+            double costBasis = calculator.costBasisAt(i);
+            Double price = marketPrice(calculator.symbolAt(i), storedPrices.get(calculator.stockIdAt(i)));
+            double value = price != null ? quantity * price : 0.0;
+            // A held stock without any price has no meaningful unrealized profit
+            double unrealized = price != null || quantity == 0 ? value - costBasis : 0.0;
+            symbols.add(new SymbolProfitLossDTO(calculator.stockIdAt(i), calculator.symbolAt(i), quantity, costBasis,
+                    quantity > 0 ? costBasis / quantity : null, price, value, calculator.realizedAt(i), unrealized,
+                    calculator.unmatchedAt(i)));
+            totalCost += costBasis;
+            totalValue += value;
+            totalRealized += calculator.realizedAt(i);
+            totalUnrealized += unrealized;
+        }
+        return new ProfitLossDTO(portfolioId, method.name(), totalCost, totalValue, totalRealized, totalUnrealized,
+                count, symbols);
+    }
+
+    private static void apply(CostBasisCalculator calculator, Object[] row) {
+        long stockId = (Long) row[1];
+        String symbol = (String) row[2];
+        double amount = row[4] != null ? ((Number) row[4]).doubleValue() : 0.0;
+        double price = row[5] != null ? ((Number) row[5]).doubleValue() : 0.0;
+        if (row[3] == TransactionType.BUY) {
+            calculator.buy(stockId, symbol, amount, price);
+        } else if (row[3] == TransactionType.SELL) {
+            calculator.sell(stockId, symbol, amount, price);
+        }
+    }
+
+    private Double marketPrice(String symbol, Double storedPrice) {
+        StockDTO quote = symbol != null ? priceBook.get(symbol) : null;
+        if (quote != null && quote.getCurrentPrice() != null) {
+            return quote.getCurrentPrice();
+        }
+        return storedPrice;
+    }
+}
@@ -0,0 +1,176 @@
+package com.demo.service;
+
+import com.demo.dto.StockDTO;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Concurrent, size-bounded cache of live quotes keyed by stock symbol.
+ * Entries expire after a configurable TTL; when the cache is full the least
+ * recently used entry is evicted. Cached quotes are copied on the way in and
+ * out so callers can freely mutate the DTOs they receive.
+ *
+ * Expired entries are kept for a further stale window so the last known
+ * price can still be served (see {@link #getStale(String)}) while Finnhub is
+ * failing.
+ */
+@Component
+public class QuoteCache {
+
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final long ttlMillis;
+    private final long staleTtlMillis;
+    private final int maxSize;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong expirations = new AtomicLong();
+    private final AtomicLong staleServed = new AtomicLong();
+
+    public QuoteCache(
+            @Value("${quote.cache.ttl-ms:30000}") long ttlMillis,
+            @Value("${quote.cache.max-size:1000}") int maxSize,
+            @Value("${quote.cache.stale-ttl-ms:3600000}") long staleTtlMillis
+    ) {
+        this.ttlMillis = ttlMillis;
+        this.staleTtlMillis = Math.max(ttlMillis, staleTtlMillis);
+        this.maxSize = Math.max(1, maxSize);
+    }
+
+    /**
+     * Returns a copy of the cached quote for the symbol, or null if it is missing or expired
+     */
+    public StockDTO get(String symbol) {
+        String key = key(symbol);
+        Entry entry = entries.get(key);
+        long now = System.currentTimeMillis();
+        if (entry == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        if (now - entry.storedAt > ttlMillis) {
+            // Expired entries stay around as stale fallbacks until the stale window passes.
+            // Only drop the entry we looked at, a fresher one may have been stored meanwhile
+            if (now - entry.storedAt > staleTtlMillis && entries.remove(key, entry)) {
+                expirations.incrementAndGet();
+            }
+            misses.incrementAndGet();
+            return null;
+        }
+        entry.lastAccess = now;
+        hits.incrementAndGet();
+        return entry.quote.copy();
+    }
+
+    /**
+     * Returns a copy of the last known quote even if it has expired, as long as it is within the stale window
+     */
+    public StockDTO getStale(String symbol) {
+        Entry entry = entries.get(key(symbol));
+        if (entry == null || System.currentTimeMillis() - entry.storedAt > staleTtlMillis) {
+            return null;
+        }
+        staleServed.incrementAndGet();
+        return entry.quote.copy();
+    }
+
+    /**
+     * Stores a copy of the quote under its symbol, evicting the least recently used entry if full
+     */
+    public void put(StockDTO quote) {
+        if (quote == null || quote.getSymbol() == null) {
+            return;
+        }
+        String key = key(quote.getSymbol());
+        long now = System.currentTimeMillis();
+        StockDTO stored = quote.copy();
+        stored.setStale(false);
+        Entry previous = entries.put(key, new Entry(stored, now));
+        if (previous == null && entries.size() > maxSize) {
+            evictOne(key);
+        }
+    }
+
+    public void invalidate(String symbol) {
+        entries.remove(key(symbol));
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Hit/miss/eviction counters for sizing the cache under real traffic
+     */
+    public Map<String, Long> getStats() {
+        long hitCount = hits.get();
+        long missCount = misses.get();
+        long lookups = hitCount + missCount;
+
+        Map<String, Long> stats = new LinkedHashMap<>();
+        stats.put("size", (long) entries.size());
+        stats.put("maxSize", (long) maxSize);
+        stats.put("ttlMs", ttlMillis);
+        stats.put("staleTtlMs", staleTtlMillis);
+        stats.put("hits", hitCount);
+        stats.put("misses", missCount);
+        stats.put("evictions", evictions.get());
+        stats.put("expirations", expirations.get());
+        stats.put("staleServed", staleServed.get());
+        stats.put("hitRatePercent", lookups == 0 ? 0L : (hitCount * 100) / lookups);
+        return stats;
+    }
+
+    // Drops entries past the stale window first, otherwise the least recently accessed one
+    private void evictOne(String justAdded) {
+        long now = System.currentTimeMillis();
+        String victim = null;
+        long oldestAccess = Long.MAX_VALUE;
+        for (Map.Entry<String, Entry> e : entries.entrySet()) {
+            if (e.getKey().equals(justAdded)) {
+                continue;
+            }
+            Entry entry = e.getValue();
+            if (now - entry.storedAt > staleTtlMillis) {
+                if (entries.remove(e.getKey(), entry)) {
+                    expirations.incrementAndGet();
+                    return;
+                }
+            }
+            if (entry.lastAccess < oldestAccess) {
+                oldestAccess = entry.lastAccess;
+                victim = e.getKey();
+            }
+        }
+        if (victim != null && entries.remove(victim) != null) {
+            evictions.incrementAndGet();
+        }
+    }
+
+    private static String key(String symbol) {
+        return symbol.trim().toUpperCase(Locale.ROOT);
+    }
+
+    private static final class Entry {
+        final StockDTO quote;
+        final long storedAt;
+        volatile long lastAccess;
+
+        Entry(StockDTO quote, long storedAt) {
+            this.quote = quote;
+            this.storedAt = storedAt;
+            this.lastAccess = storedAt;
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package com.demo.service;
+
+import com.demo.dto.StockDTO;
+import com.demo.model.Stock;
+import com.demo.repository.StockRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Keeps the {@link PriceBook} current by re-pricing every tracked symbol on a
+ * fixed delay. Tracked symbols are the popular stocks, every stock in the
+ * database and anything requested through {@link #track(String)}. Requested
+ * symbols are reference counted, dropped again once every
+ * {@link #untrack(String)} has come in, and capped at {@code maxExtraSymbols}.
+ *
+ * The tracked set is also handed to {@link FinnhubStreamService}. While the
+ * trade stream is connected only symbols without a recent trade are polled
+ * over REST; when it is down every symbol is polled. Polled prices of
+ * database stocks are written back to the stock table for sorted listings.
+ */
+@Component
+public class QuoteRefresher {
+
+    private final StockApiService stockApiService;
+    private final StockRepository stockRepository;
+    private final PriceBook priceBook;
+    private final FinnhubStreamService streamService;
+    private final long refreshIntervalMillis;
+    private final int maxExtraSymbols;
+
+    // Reference count per symbol tracked on top of the popular and database stocks; guarded by this
+    private final Map<String, Integer> extraSymbols = new HashMap<>();
+    // Symbols priced by the last refresh cycle
+    private volatile Set<String> lastTracked = Set.of();
+    private volatile String callerApiKey;
+    private volatile long lastRefreshCompleted;
+
+    public QuoteRefresher(StockApiService stockApiService, StockRepository stockRepository, PriceBook priceBook,
+                          FinnhubStreamService streamService,
+                          @Value("${quote.refresh.interval-ms:60000}") long refreshIntervalMillis,
+                          @Value("${quote.refresh.max-extra-symbols:500}") int maxExtraSymbols) {
+        this.stockApiService = stockApiService;
+        this.stockRepository = stockRepository;
+        this.priceBook = priceBook;
+        this.streamService = streamService;
+        this.refreshIntervalMillis = refreshIntervalMillis;
+        this.maxExtraSymbols = Math.max(0, maxExtraSymbols);
+    }
+
+    /**
+     * Adds a reference to a symbol in the refresh set; it is priced from the next cycle until it is untracked.
+     * Every successful call must be paired with one {@link #untrack(String)}.
+     * @return false when the symbol was not added because the cap on extra symbols is reached
+     */
+    public synchronized boolean track(String symbol) {
+        if (symbol == null || symbol.isBlank()) {
+            return false;
+        }
+        String key = symbol.trim().toUpperCase(Locale.ROOT);
+        Integer count = extraSymbols.get(key);
+        if (count == null && extraSymbols.size() >= maxExtraSymbols) {
+            return false;
+        }
+        extraSymbols.put(key, count == null ? 1 : count + 1);
+        return true;
+    }
+
+    /**
+     * Releases a reference taken by {@link #track(String)}; the symbol leaves the refresh set with its last reference
+     */
+    public synchronized void untrack(String symbol) {
+        if (symbol != null && !symbol.isBlank()) {
+            extraSymbols.computeIfPresent(symbol.trim().toUpperCase(Locale.ROOT), (key, count) -> count > 1 ? count - 1 : null);
+        }
+    }
+
+    /**
+     * Whether the symbol was in the refresh set of the last cycle, i.e. its price (and history) is kept current
+     */
+    public boolean isTracked(String symbol) {
+        return symbol != null && lastTracked.contains(symbol.trim().toUpperCase(Locale.ROOT));
+    }
+
+    /**
+     * Remembers an API key supplied by a caller, used only when no default key is configured
+     */
+    public void useApiKey(String apiKey) {
+        if (apiKey != null && !apiKey.isEmpty()) {
+            this.callerApiKey = apiKey;
+        }
+    }
+
+    public long getLastRefreshCompleted() {
+        return lastRefreshCompleted;
+    }
+
+    @Scheduled(
+            fixedDelayString = "${quote.refresh.interval-ms:60000}",
+            initialDelayString = "${quote.refresh.initial-delay-ms:0}"
+    )
+    public void refresh() {
+        try {
+            Set<String> databaseSymbols = databaseSymbols();
+            Set<String> tracked = trackedSymbols(databaseSymbols);
+            lastTracked = tracked;
+            streamService.syncSubscriptions(tracked);
+
+            List<String> symbols = new ArrayList<>();
+            long staleBefore = System.currentTimeMillis() - refreshIntervalMillis;
+            for (String symbol : tracked) {
+                // Streamed symbols only need REST when no trade has arrived recently (or to seed the change percent)
+                Long lastUpdated = priceBook.getLastUpdated(symbol);
+                if (!streamService.isConnected() || lastUpdated == null || lastUpdated < staleBefore) {
+                    symbols.add(symbol);
+                }
+            }
+            List<StockDTO> quotes = stockApiService.fetchStocksBySymbols(symbols, callerApiKey);
+            for (StockDTO quote : quotes) {
+                priceBook.update(quote);
+            }
+            storeLiveQuotes(quotes, databaseSymbols);
+            lastRefreshCompleted = System.currentTimeMillis();
+        } catch (Exception e) {
+            System.err.println("Error refreshing quotes: " + e.getMessage());
+        }
+    }
+
+    private Set<String> trackedSymbols(Set<String> databaseSymbols) {
+        Set<String> symbols = new LinkedHashSet<>(stockApiService.getPopularSymbols());
+        symbols.addAll(databaseSymbols);
+        synchronized (this) {
+            symbols.addAll(extraSymbols.keySet());
+        }
+        return symbols;
+    }
+
+    private Set<String> databaseSymbols() {
+        Set<String> symbols = new LinkedHashSet<>();
+        try {
+            for (Stock stock : stockRepository.findAll()) {
+                if (stock.getSymbol() != null) {
+                    symbols.add(stock.getSymbol().trim().toUpperCase(Locale.ROOT));
+                }
+            }
+        } catch (Exception e) {
+            System.err.println("Error loading tracked symbols from database: " + e.getMessage());
+        }
+        return symbols;
+    }
+
+    /**
+     * Writes the latest price and change percent back to the stock table so paged listings can sort on them
+     */
+    private void storeLiveQuotes(List<StockDTO> quotes, Set<String> databaseSymbols) {
+        try {
+            for (StockDTO quote : quotes) {
+                if (databaseSymbols.contains(quote.getSymbol().trim().toUpperCase(Locale.ROOT))) {
+                    stockRepository.updateLiveQuote(quote.getSymbol(), quote.getCurrentPrice(), quote.getChangePercent());
+                }
+            }
+        } catch (Exception e) {
+            System.err.println("Error storing live quotes: " + e.getMessage());
+        }
+    }
+}
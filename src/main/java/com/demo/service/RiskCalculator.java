@@ -0,0 +1,235 @@
+package com.demo.service;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+
+/**
+ * Return-series statistics behind the risk endpoint, on plain double arrays.
+ * Returns are simple daily returns; variances and covariances use the sample
+ * (n - 1) denominator.
+ */
+final class RiskCalculator {
+
+    static final int TRADING_DAYS_PER_YEAR = 252;
+
+    // Index ranges at or below this size run on the calling thread instead of being split
+    private static final int SEQUENTIAL_THRESHOLD = 4;
+
+    private RiskCalculator() {
+    }
+
+    /**
+     * Timestamps present in every series, ascending
+     */
+    static long[] commonTimestamps(PriceSeries[] series) {
+        if (series.length == 0) {
+            return new long[0];
+        }
+        long[] common = series[0].timestamps();
+        for (int s = 1; s < series.length && common.length > 0; s++) {
+            long[] other = series[s].timestamps();
+            long[] merged = new long[Math.min(common.length, other.length)];
+            int size = 0;
+            int i = 0;
+            int j = 0;
+            while (i < common.length && j < other.length) {
+                if (common[i] < other[j]) {
+                    i++;
+                } else if (common[i] > other[j]) {
+                    j++;
+                } else {
+                    merged[size++] = common[i];
+                    i++;
+                    j++;
+                }
+            }
+            common = Arrays.copyOf(merged, size);
+        }
+        return common;
+    }
+
+    /**
+     * Daily returns of the series between consecutive common timestamps; one fewer than there are timestamps
+     */
+    static double[] returns(PriceSeries series, long[] common) {
+        if (common.length < 2) {
+            return new double[0];
+        }
+        long[] times = series.timestamps();
+        double[] prices = series.prices();
+        double[] result = new double[common.length - 1];
+        double previous = 0;
+        int position = 0;
+        for (int k = 0; k < common.length; k++) {
+            // Both are ascending and every common timestamp is in the series
+            while (times[position] < common[k]) {
+                position++;
+            }
+            double price = prices[position];
+            if (k > 0) {
+                result[k - 1] = previous > 0 ? price / previous - 1 : 0.0;
+            }
+            previous = price;
+        }
+        return result;
+    }
+
+    static double mean(double[] values) {
+        double sum = 0;
+        for (double value : values) {
+            sum += value;
+        }
+        return values.length > 0 ? sum / values.length : 0.0;
+    }
+
+    static double covariance(double[] a, double[] b) {
+        if (a.length < 2) {
+            return 0.0;
+        }
+        double meanA = mean(a);
+        double meanB = mean(b);
+        double sum = 0;
+        for (int i = 0; i < a.length; i++) {
+            sum += (a[i] - meanA) * (b[i] - meanB);
+        }
+        return sum / (a.length - 1);
+    }
+
+    static double standardDeviation(double[] values) {
+        return Math.sqrt(covariance(values, values));
+    }
+
+    static double annualize(double dailyStandardDeviation) {
+        return dailyStandardDeviation * Math.sqrt(TRADING_DAYS_PER_YEAR);
+    }
+
+    /**
+     * One-day loss, as a positive fraction, that returns fall below only (1 - confidence) of the time
+     */
+    static double historicalVar(double[] returns, double confidence) {
+        if (returns.length == 0) {
+            return 0.0;
+        }
+        double[] sorted = returns.clone();
+        Arrays.sort(sorted);
+        int index = (int) Math.floor((1 - confidence) * sorted.length);
+        return -sorted[Math.min(index, sorted.length - 1)];
+    }
+
+    /**
+     * One-day loss, as a positive fraction, at the confidence under a normal distribution of returns
+     */
+    static double parametricVar(double[] returns, double confidence) {
+        return normalQuantile(confidence) * standardDeviation(returns) - mean(returns);
+    }
+
+    /**
+     * Correlation of every pair of series; the diagonal is 1, and a constant series correlates 0 with all others
+     */
+    static double[][] correlation(double[][] returns, ForkJoinPool pool) {
+        int n = returns.length;
+        // Standardize each series once, so each pair is a dot product
+        double[][] standardized = new double[n][];
+        forEach(pool, n, i -> {
+            double[] series = returns[i];
+            double mean = mean(series);
+            double deviation = standardDeviation(series);
+            double[] z = new double[series.length];
+            if (deviation > 0) {
+                for (int t = 0; t < series.length; t++) {
+                    z[t] = (series[t] - mean) / deviation;
+                }
+            }
+            standardized[i] = z;
+        });
+
+        double[][] matrix = new double[n][n];
+        forEach(pool, n, i -> {
+            double[] a = standardized[i];
+            matrix[i][i] = 1.0;
+            for (int j = i + 1; j < n; j++) {
+                double[] b = standardized[j];
+                double dot = 0;
+                for (int t = 0; t < a.length; t++) {
+                    dot += a[t] * b[t];
+                }
+                double value = a.length > 1 ? dot / (a.length - 1) : 0.0;
+                // Row i only writes its upper half and the mirrored cells of column i, which no other row touches
+                matrix[i][j] = value;
+                matrix[j][i] = value;
+            }
+        });
+        return matrix;
+    }
+
+    /**
+     * Runs the body for every index in [0, n) on the pool, splitting the range in halves
+     */
+    static void forEach(ForkJoinPool pool, int n, IntConsumer body) {
+        if (n <= SEQUENTIAL_THRESHOLD) {
+            for (int i = 0; i < n; i++) {
+                body.accept(i);
+            }
+            return;
+        }
+        pool.invoke(new RangeTask(0, n, body));
+    }
+
+    /**
+     * Inverse of the standard normal CDF (Acklam's rational approximation, relative error below 1.2e-9)
+     */
+    static double normalQuantile(double p) {
+        if (p <= 0 || p >= 1) {
+            throw new IllegalArgumentException("Probability must be between 0 and 1");
+        }
+        double[] a = { -3.969683028665376e+01, 2.209460984245205e+02, -2.759285104469687e+02,
+                1.383577518672690e+02, -3.066479806614716e+01, 2.506628277459239e+00 };
+        double[] b = { -5.447609879822406e+01, 1.615858368580409e+02, -1.556989798598866e+02,
+                6.680131188771972e+01, -1.328068155288572e+01 };
+        double[] c = { -7.784894002430293e-03, -3.223964580411365e-01, -2.400758277161838e+00,
+                -2.549732539343734e+00, 4.374664141464968e+00, 2.938163982698783e+00 };
+        double[] d = { 7.784695709041462e-03, 3.224671290700398e-01, 2.445134137142996e+00,
+                3.754408661907416e+00 };
+        double low = 0.02425;
+        if (p < low) {
+            double q = Math.sqrt(-2 * Math.log(p));
+            return (((((c[0] * q + c[1]) * q + c[2]) * q + c[3]) * q + c[4]) * q + c[5])
+                    / ((((d[0] * q + d[1]) * q + d[2]) * q + d[3]) * q + 1);
+        }
+        if (p > 1 - low) {
+            double q = Math.sqrt(-2 * Math.log(1 - p));
+            return -(((((c[0] * q + c[1]) * q + c[2]) * q + c[3]) * q + c[4]) * q + c[5])
+                    / ((((d[0] * q + d[1]) * q + d[2]) * q + d[3]) * q + 1);
+        }
+        double q = p - 0.5;
+        double r = q * q;
+        return (((((a[0] * r + a[1]) * r + a[2]) * r + a[3]) * r + a[4]) * r + a[5]) * q
+                / (((((b[0] * r + b[1]) * r + b[2]) * r + b[3]) * r + b[4]) * r + 1);
+    }
+
+    private static class RangeTask extends RecursiveAction {
+        private final int from;
+        private final int to;
+        private final IntConsumer body;
+
+        RangeTask(int from, int to, IntConsumer body) {
+            this.from = from;
+            this.to = to;
+            this.body = body;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= SEQUENTIAL_THRESHOLD) {
+                for (int i = from; i < to; i++) {
+                    body.accept(i);
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new RangeTask(from, middle, body), new RangeTask(middle, to, body));
+        }
+    }
+}
@@ -0,0 +1,219 @@
+package com.demo.service;
+
+import com.demo.dto.HoldingValueDTO;
+import com.demo.dto.PortfolioDTO;
+import com.demo.dto.RiskDTO;
+import com.demo.dto.SymbolRiskDTO;
+import com.demo.model.Portfolio;
+import com.demo.model.Stock;
+import com.demo.repository.PortfolioRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Risk figures of a portfolio from the daily price history of its holdings:
+ * annualized volatility, historical and parametric one-day value at risk,
+ * beta against a benchmark and the correlation matrix of its symbols.
+ * Holdings are weighted by market value. Only the days every symbol has a
+ * close for are used, and symbols with too little history are left out and
+ * listed as excluded.
+ *
+ * Per-symbol statistics and correlation rows are computed on a fork-join
+ * pool. Results are cached until holdings change or the UTC day rolls over.
+ */
+@Service
+public class RiskService {
+
+    private final PortfolioValueTracker portfolioValueTracker;
+    private final PortfolioRepository portfolioRepository;
+    private final StockHistoryService stockHistoryService;
+    private final DataVersions dataVersions;
+    private final String benchmark;
+    private final int minObservations;
+    private final int cacheSize;
+    private final ForkJoinPool pool;
+
+    private final ConcurrentHashMap<String, RiskDTO> cache = new ConcurrentHashMap<>();
+    // Concurrent misses for the same key share one computation
+    private final SingleFlight<String, RiskDTO> computations = new SingleFlight<>();
+
+    public RiskService(PortfolioValueTracker portfolioValueTracker, PortfolioRepository portfolioRepository,
+                       StockHistoryService stockHistoryService, DataVersions dataVersions,
+                       @Value("${risk.benchmark-symbol:SPY}") String benchmark,
+                       @Value("${risk.min-observations:20}") int minObservations,
+                       @Value("${risk.cache-size:256}") int cacheSize,
+                       @Value("${risk.parallelism:4}") int parallelism) {
+        this.portfolioValueTracker = portfolioValueTracker;
+        this.portfolioRepository = portfolioRepository;
+        this.stockHistoryService = stockHistoryService;
+        this.dataVersions = dataVersions;
+        this.benchmark = benchmark.trim().toUpperCase(Locale.ROOT);
+        this.minObservations = Math.max(2, minObservations);
+        this.cacheSize = Math.max(1, cacheSize);
+        this.pool = new ForkJoinPool(Math.max(1, parallelism));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    /**
+     * Risk figures of a portfolio
+     * @param range History range to measure over; must be a daily range (1M or longer)
+     * @param confidence Value at risk confidence, e.g. 0.95
+     * @throws IllegalArgumentException for an unknown or intraday range, or a confidence outside (0.5, 1)
+     */
+    public RiskDTO getRisk(Long portfolioId, String range, double confidence, String apiKey) {
+        HistoryRange historyRange = HistoryRange.fromCode(range);
+        if (historyRange.isIntraday()) {
+            throw new IllegalArgumentException("Risk needs daily history, use a range of 1M or longer");
+        }
+        if (!(confidence > 0.5 && confidence < 1)) {
+            throw new IllegalArgumentException("Confidence must be between 0.5 and 1");
+        }
+        String today = LocalDate.now(ZoneOffset.UTC).toString();
+        String key = portfolioId + ":" + historyRange.getCode() + ":" + confidence + ":"
+                + dataVersions.holdingsVersion() + ":" + today;
+        RiskDTO cached = cache.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        return computations.execute(key, () -> {
+            List<String> symbols = new ArrayList<>();
+            RiskDTO risk = compute(portfolioId, historyRange, confidence, today, apiKey, symbols);
+            if (stockHistoryService.isBackfillPending(symbols, historyRange)) {
+                return risk;  // measured on partial history; don't keep it for the day
+            }
+            if (cache.size() >= cacheSize) {
+                // Entries of earlier days and versions are never read again
+                cache.clear();
+            }
+            cache.put(key, risk);
+            return risk;
+        });
+    }
+
+    // Fills loaded with every symbol whose history was read, benchmark included
+    private RiskDTO compute(Long portfolioId, HistoryRange range, double confidence, String today, String apiKey,
+                            List<String> loaded) {
+        Map<String, Double> values = holdingValues(portfolioId);
+        List<String> symbols = new ArrayList<>();
+        for (Map.Entry<String, Double> entry : values.entrySet()) {
+            if (entry.getValue() > 0) {
+                symbols.add(entry.getKey());
+            }
+        }
+        loaded.addAll(symbols);
+        if (!loaded.contains(benchmark)) {
+            loaded.add(benchmark);
+        }
+        Map<String, PriceSeries> history = stockHistoryService.getSeriesBatch(loaded, range, apiKey);
+
+        List<String> included = new ArrayList<>();
+        List<String> excluded = new ArrayList<>();
+        for (String symbol : symbols) {
+            (history.get(symbol).size() > minObservations ? included : excluded).add(symbol);
+        }
+        int n = included.size();
+        PriceSeries[] series = new PriceSeries[n + 1];
+        for (int i = 0; i < n; i++) {
+            series[i] = history.get(included.get(i));
+        }
+        series[n] = history.get(benchmark);
+        long[] common = RiskCalculator.commonTimestamps(series);
+        boolean withBenchmark = common.length > minObservations;
+        if (!withBenchmark) {
+            // The benchmark's history doesn't overlap enough; measure without beta
+            common = RiskCalculator.commonTimestamps(Arrays.copyOf(series, n));
+        }
+
+        double portfolioValue = 0;
+        for (String symbol : included) {
+            portfolioValue += values.get(symbol);
+        }
+        int observations = Math.max(0, common.length - 1);
+        if (n == 0 || observations < minObservations) {
+            List<SymbolRiskDTO> unmeasured = new ArrayList<>(n);
+            for (String symbol : included) {
+                unmeasured.add(new SymbolRiskDTO(symbol, values.get(symbol) / portfolioValue, null, null));
+            }
+            return new RiskDTO(portfolioId, range.getCode(), today, confidence, observations, portfolioValue,
+                    null, null, null, null, benchmark, unmeasured, new double[0][0], excluded);
+        }
+
+        long[] axis = common;
+        double[][] returns = new double[n][];
+        RiskCalculator.forEach(pool, n, i -> returns[i] = RiskCalculator.returns(series[i], axis));
+        double[] benchmarkReturns = withBenchmark ? RiskCalculator.returns(series[n], axis) : null;
+        double benchmarkVariance = withBenchmark ? RiskCalculator.covariance(benchmarkReturns, benchmarkReturns) : 0;
+
+        double[] weights = new double[n];
+        double[] portfolioReturns = new double[observations];
+        for (int i = 0; i < n; i++) {
+            weights[i] = values.get(included.get(i)) / portfolioValue;
+            double[] r = returns[i];
+            for (int t = 0; t < observations; t++) {
+                portfolioReturns[t] += weights[i] * r[t];
+            }
+        }
+
+        double[] volatilities = new double[n];
+        double[] betas = new double[n];
+        RiskCalculator.forEach(pool, n, i -> {
+            volatilities[i] = RiskCalculator.annualize(RiskCalculator.standardDeviation(returns[i]));
+            if (benchmarkVariance > 0) {
+                betas[i] = RiskCalculator.covariance(returns[i], benchmarkReturns) / benchmarkVariance;
+            }
+        });
+        double[][] correlation = RiskCalculator.correlation(returns, pool);
+
+        List<SymbolRiskDTO> symbolRisks = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            symbolRisks.add(new SymbolRiskDTO(included.get(i), weights[i], volatilities[i],
+                    benchmarkVariance > 0 ? betas[i] : null));
+        }
+        Double beta = benchmarkVariance > 0
+                ? RiskCalculator.covariance(portfolioReturns, benchmarkReturns) / benchmarkVariance
+                : null;
+        return new RiskDTO(portfolioId, range.getCode(), today, confidence, observations, portfolioValue,
+                RiskCalculator.annualize(RiskCalculator.standardDeviation(portfolioReturns)),
+                RiskCalculator.historicalVar(portfolioReturns, confidence) * portfolioValue,
+                RiskCalculator.parametricVar(portfolioReturns, confidence) * portfolioValue,
+                beta, benchmark, symbolRisks, correlation, excluded);
+    }
+
+    // Market value per symbol, from live valuation when it is loaded
+    private Map<String, Double> holdingValues(Long portfolioId) {
+        Map<String, Double> values = new TreeMap<>();
+        PortfolioDTO live = portfolioValueTracker.getPortfolio(portfolioId);
+        if (live != null) {
+            for (HoldingValueDTO holding : live.getHoldings()) {
+                values.merge(holding.getSymbol(), holding.getMarketValue(), Double::sum);
+            }
+            return values;
+        }
+        Portfolio portfolio = portfolioRepository.findById(portfolioId)
+                .orElseThrow(() -> new RuntimeException("Portfolio not found"));
+        for (Stock stock : portfolio.getStocks()) {
+            Double price = stock.getLivePrice() != null ? stock.getLivePrice() : stock.getCurrentPrice();
+            int quantity = stock.getQuantity() != null ? stock.getQuantity() : 0;
+            if (stock.getSymbol() != null && price != null) {
+                values.merge(stock.getSymbol().trim().toUpperCase(Locale.ROOT), price * quantity, Double::sum);
+            }
+        }
+        return values;
+    }
+}
@@ -1,18 +1,48 @@
 package com.demo.service;
 
+import com.demo.dto.FinnhubCandles;
+import com.demo.dto.FinnhubQuote;
+import com.demo.dto.QuoteResultDTO;
 import com.demo.dto.StockDTO;
+import com.demo.model.CompanyProfile;
+import jakarta.annotation.PreDestroy;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.client.UnknownHttpStatusCodeException;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Service
 public class StockApiService {
 
     private final RestTemplate restTemplate;
+    private final QuoteCache quoteCache;
+    private final FinnhubRateLimiter rateLimiter;
+    private final CompanyProfileCache profileCache;
+    private final CircuitBreaker circuitBreaker;
+    private final FinnhubHttpMetrics httpMetrics;
     private final String defaultApiKey;
     private final double usdInrRate;
+    private final boolean parallelFetch;
+    private final ExecutorService fetchExecutor;
+    // Concurrent lookups of the same symbol share one upstream call
+    private final SingleFlight<String, StockDTO> quoteFlights = new SingleFlight<>();
+    // Background retries for symbols currently being served stale
+    private final ScheduledExecutorService revalidationScheduler;
+    private final Set<String> revalidating = ConcurrentHashMap.newKeySet();
+    private final long revalidateRetryMillis;
     
     // Top 10 popular stock symbols to fetch (major US companies)
     private static final List<String> POPULAR_STOCKS = Arrays.asList(
@@ -20,14 +50,56 @@ public class StockApiService {
     );
 
     public StockApiService(
+            QuoteCache quoteCache,
+            FinnhubRateLimiter rateLimiter,
+            CompanyProfileCache profileCache,
+            CircuitBreaker circuitBreaker,
+            FinnhubHttpMetrics httpMetrics,
+            RestTemplate finnhubRestTemplate,
             @Value("${finnhub.api.key:}") String defaultApiKey,
-            @Value("${usd.inr.rate:83.5}") double usdInrRate
+            @Value("${usd.inr.rate:83.5}") double usdInrRate,
+            @Value("${finnhub.fetch.parallel:true}") boolean parallelFetch,
+            @Value("${finnhub.fetch.max-concurrency:8}") int maxConcurrency,
+            @Value("${finnhub.revalidate.retry-ms:15000}") long revalidateRetryMillis
     ) {
-        this.restTemplate = new RestTemplate();
+        // Pooled keep-alive client from FinnhubHttpConfig
+        this.restTemplate = finnhubRestTemplate;
+        this.httpMetrics = httpMetrics;
+        this.quoteCache = quoteCache;
+        this.rateLimiter = rateLimiter;
+        this.profileCache = profileCache;
+        this.circuitBreaker = circuitBreaker;
+        this.revalidateRetryMillis = revalidateRetryMillis;
         this.defaultApiKey = defaultApiKey;
         this.usdInrRate = usdInrRate;
+        this.parallelFetch = parallelFetch;
+        // The pool size caps concurrent upstream calls; the rate limiter still bounds the call rate
+        AtomicInteger threadCount = new AtomicInteger();
+        this.fetchExecutor = Executors.newFixedThreadPool(Math.max(1, maxConcurrency), runnable -> {
+            Thread thread = new Thread(runnable, "finnhub-fetch-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.revalidationScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "finnhub-revalidate");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        fetchExecutor.shutdownNow();
+        revalidationScheduler.shutdownNow();
     }
     
+    /**
+     * Symbols shown on the dashboard by default
+     */
+    public List<String> getPopularSymbols() {
+        return POPULAR_STOCKS;
+    }
+
     /**
      * Gets the API key to use, preferring the provided one over the default from properties
      */
@@ -39,108 +111,287 @@ public class StockApiService {
     }
 
     /**
-     * Fetches live stock quote from Finnhub API
+     * Looks up cached quotes for the symbols without calling Finnhub, keyed by upper-case symbol.
+     * Expired quotes still inside the stale window are included and flagged as stale.
+     */
+    public Map<String, StockDTO> getCachedQuotes(Collection<String> symbols) {
+        Map<String, StockDTO> quotes = new HashMap<>(Math.max(16, symbols.size() * 2));
+        for (String symbol : symbols) {
+            StockDTO quote = quoteCache.get(symbol);
+            if (quote == null) {
+                quote = quoteCache.getStale(symbol);
+                if (quote != null) {
+                    quote.setStale(true);
+                }
+            }
+            if (quote != null) {
+                quotes.put(symbol.trim().toUpperCase(Locale.ROOT), quote);
+            }
+        }
+        return quotes;
+    }
+
+    /**
+     * Fetches live stock quote, served from the quote cache when a fresh entry exists
      * @param symbol Stock symbol
      * @param apiKey API key (optional, will use default from properties if not provided)
      */
     public StockDTO fetchStockQuote(String symbol, String apiKey) {
+        StockDTO cached = quoteCache.get(symbol);
+        if (cached != null) {
+            return cached;
+        }
         String keyToUse = getApiKey(apiKey);
         if (keyToUse == null) {
             System.err.println("No API key provided for fetching stock quote");
             return null;
         }
+        return fetchQuoteFromApi(symbol, keyToUse);
+    }
+
+    /**
+     * Fetches live stock quote from Finnhub API and stores it in the quote cache.
+     * If the upstream call fails, the last known quote is served flagged as stale.
+     */
+    private StockDTO fetchQuoteFromApi(String symbol, String keyToUse) {
         try {
-            String url = String.format(
-                "https://finnhub.io/api/v1/quote?symbol=%s&token=%s",
-                symbol, keyToUse
-            );
-            
-            @SuppressWarnings("unchecked")
-            Map<String, Object> response = restTemplate.getForObject(url, Map.class);
-            
-            if (response == null || response.isEmpty()) {
-                return null;
-            }
-            
-            // Finnhub returns: {"c": currentPrice, "d": change, "dp": changePercent, "h": high, "l": low, "o": open, "pc": previousClose, "t": timestamp}
-            Object currentPriceObj = response.get("c");
-            Object changePercentObj = response.get("dp");
-            
-            if (currentPriceObj == null) {
-                return null;
-            }
-            
-            Double price = 0.0;
-            if (currentPriceObj instanceof Number) {
-                price = ((Number) currentPriceObj).doubleValue();
-            } else if (currentPriceObj instanceof String) {
-                price = Double.parseDouble((String) currentPriceObj);
-            }
-            
-            if (price <= 0) {
-                return null;
-            }
+            return loadQuoteShared(symbol, keyToUse);
+        } catch (Exception e) {
+            System.err.println("Error fetching stock quote for " + symbol + ": " + e.getMessage());
+            return staleFallback(symbol, keyToUse);
+        }
+    }
 
-            // Convert USD price to INR using configured rate
-            Double priceInInr = price * usdInrRate;
-            
-            Double changePercent = 0.0;
-            if (changePercentObj != null) {
-                if (changePercentObj instanceof Number) {
-                    changePercent = ((Number) changePercentObj).doubleValue();
-                } else if (changePercentObj instanceof String) {
-                    changePercent = Double.parseDouble((String) changePercentObj);
-                }
-            } else if (price > 0) {
-                // Calculate change percent if not provided
-                Object previousCloseObj = response.get("pc");
-                if (previousCloseObj != null) {
-                    Double previousClose = 0.0;
-                    if (previousCloseObj instanceof Number) {
-                        previousClose = ((Number) previousCloseObj).doubleValue();
-                    } else if (previousCloseObj instanceof String) {
-                        previousClose = Double.parseDouble((String) previousCloseObj);
-                    }
-                    if (previousClose > 0) {
-                        changePercent = ((price - previousClose) / previousClose) * 100;
-                    }
-                }
+    /**
+     * Returns the last known quote flagged as stale and schedules a background retry, or null if nothing is known
+     */
+    private StockDTO staleFallback(String symbol, String keyToUse) {
+        StockDTO stale = quoteCache.getStale(symbol);
+        if (stale != null) {
+            stale.setStale(true);
+            scheduleRevalidation(symbol, keyToUse);
+        }
+        return stale;
+    }
+
+    private void scheduleRevalidation(String symbol, String keyToUse) {
+        String key = symbol.trim().toUpperCase(Locale.ROOT);
+        if (!revalidating.add(key)) {
+            return;  // a retry is already pending for this symbol
+        }
+        try {
+            revalidationScheduler.schedule(() -> revalidate(key, keyToUse), revalidateRetryMillis, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            revalidating.remove(key);
+        }
+    }
+
+    private void revalidate(String symbol, String keyToUse) {
+        revalidating.remove(symbol);
+        try {
+            loadQuoteShared(symbol, keyToUse);
+        } catch (Exception e) {
+            // Keep retrying while we still have a stale quote worth replacing
+            if (quoteCache.getStale(symbol) != null) {
+                scheduleRevalidation(symbol, keyToUse);
             }
-            
-            // Try to get company name from profile
-            String fullCompanyName = fetchCompanyName(symbol, keyToUse);
-            if (fullCompanyName == null || fullCompanyName.isEmpty()) {
-                fullCompanyName = symbol;
+        }
+    }
+
+    /**
+     * Loads a quote through the single-flight group, so concurrent callers for one symbol share a single request
+     */
+    private StockDTO loadQuoteShared(String symbol, String keyToUse) {
+        StockDTO quote = quoteFlights.execute(symbol.trim().toUpperCase(Locale.ROOT), () -> loadQuote(symbol, keyToUse));
+        // Each caller gets its own copy since callers mutate the DTOs they receive
+        return quote != null ? quote.copy() : null;
+    }
+
+    /**
+     * Calls the Finnhub quote endpoint, throwing with the reason when no usable quote is returned
+     */
+    private StockDTO loadQuote(String symbol, String keyToUse) {
+        if (!permitCall()) {
+            throw new RuntimeException("Finnhub unavailable or rate budget exhausted");
+        }
+        String url = String.format(
+            "https://finnhub.io/api/v1/quote?symbol=%s&token=%s",
+            symbol, keyToUse
+        );
+        
+        byte[] body;
+        try {
+            body = restTemplate.getForObject(url, byte[].class);
+            circuitBreaker.recordSuccess();
+        } catch (RuntimeException e) {
+            recordCallError(e);
+            throw e;
+        }
+        
+        FinnhubQuote response = FinnhubQuote.parse(body);
+        if (response == null) {
+            throw new RuntimeException("Empty quote response");
+        }
+        
+        double price = response.getCurrent();
+        if (price <= 0) {
+            throw new RuntimeException("No trading data for symbol");
+        }
+
+        // Convert USD price to INR using configured rate
+        double priceInInr = price * usdInrRate;
+        double changePercent = response.resolveChangePercent();
+        
+        // Try to get company name from profile
+        String fullCompanyName = fetchCompanyName(symbol, keyToUse);
+        if (fullCompanyName == null || fullCompanyName.isEmpty()) {
+            fullCompanyName = symbol;
+        }
+        
+        // Generate a temporary ID based on symbol hash for API-only stocks
+        Long tempId = (long) Math.abs(symbol.hashCode());
+        
+        // Note: we now return price in INR so frontend sees values already converted
+        StockDTO quote = new StockDTO(tempId, symbol, fullCompanyName, priceInInr, 0, 0.0, changePercent);
+        quote.setDayHigh(toInr(response.getHigh()));
+        quote.setDayLow(toInr(response.getLow()));
+        quote.setOpenPrice(toInr(response.getOpen()));
+        quote.setPreviousClose(toInr(response.getPreviousClose()));
+        quote.setLastUpdated(System.currentTimeMillis());
+        // Finnhub's last trade time: unlike the fetch time it stands still outside trading hours
+        if (response.getTimestamp() > 0) {
+            quote.setTradeTime(response.getTimestamp() * 1000);
+        }
+        quoteCache.put(quote);
+        return quote;
+    }
+
+    /**
+     * Asks the circuit breaker, then the rate limiter, whether a call may go upstream now
+     */
+    private boolean permitCall() {
+        if (!circuitBreaker.allowRequest()) {
+            return false;
+        }
+        if (!rateLimiter.acquire()) {
+            // Hand a half-open trial slot back, since this call never reached Finnhub
+            circuitBreaker.recordIgnored();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Feeds a failed call to the circuit breaker. Only server errors and I/O failures (timeouts included)
+     * mean Finnhub is unhealthy; a 4xx such as a 403 for a premium endpoint is still an answer.
+     */
+    private void recordCallError(RuntimeException e) {
+        if (e instanceof HttpServerErrorException || e instanceof ResourceAccessException
+                || e instanceof UnknownHttpStatusCodeException) {
+            circuitBreaker.recordFailure();
+        } else {
+            circuitBreaker.recordSuccess();
+        }
+    }
+
+    // Finnhub reports 0 for session fields it has no value for
+    private Double toInr(double usd) {
+        return usd > 0 ? usd * usdInrRate : null;
+    }
+
+    /**
+     * Gets the company name from the profile cache, fetching the profile from Finnhub only when missing or due for refresh
+     */
+    private String fetchCompanyName(String symbol, String apiKey) {
+        CompanyProfile known = profileCache.get(symbol);
+        if (known != null && profileCache.isFresh(known)) {
+            return known.getName();
+        }
+        CompanyProfile fetched = fetchCompanyProfile(symbol, apiKey);
+        if (fetched != null) {
+            profileCache.save(fetched);
+            return fetched.getName();
+        }
+        // A stale profile is still better than falling back to the symbol
+        return known != null ? known.getName() : null;
+    }
+
+    /**
+     * Fetches candles from the Finnhub candle endpoint with prices converted to INR
+     * @param resolution Finnhub resolution: 1, 5, 15, 30, 60, D, W or M
+     * @param from Start of the range in epoch millis
+     * @param to End of the range in epoch millis
+     * @return the candles, or null when no API key is available, Finnhub is unavailable or there is no data
+     */
+    public FinnhubCandles fetchCandles(String symbol, String resolution, long from, long to, String apiKey) {
+        String keyToUse = getApiKey(apiKey);
+        if (keyToUse == null || !permitCall()) {
+            return null;
+        }
+        String url = String.format(
+            "https://finnhub.io/api/v1/stock/candle?symbol=%s&resolution=%s&from=%d&to=%d&token=%s",
+            symbol, resolution, from / 1000, to / 1000, keyToUse
+        );
+        byte[] body;
+        try {
+            body = restTemplate.getForObject(url, byte[].class);
+            circuitBreaker.recordSuccess();
+        } catch (RuntimeException e) {
+            recordCallError(e);
+            System.err.println("Error fetching candles for " + symbol + ": " + e.getMessage());
+            return null;
+        }
+        try {
+            FinnhubCandles candles = FinnhubCandles.parse(body);
+            if (candles == null || !candles.isOk() || candles.size() == 0) {
+                return null;
             }
-            
-            // Generate a temporary ID based on symbol hash for API-only stocks
-            Long tempId = (long) Math.abs(symbol.hashCode());
-            
-            // Note: we now return price in INR so frontend sees values already converted
-            return new StockDTO(tempId, symbol, fullCompanyName, priceInInr, 0, 0.0, changePercent);
-            
-        } catch (Exception e) {
-            System.err.println("Error fetching stock quote for " + symbol + ": " + e.getMessage());
+            candles.scalePrices(usdInrRate);
+            return candles;
+        } catch (RuntimeException e) {
+            System.err.println("Error parsing candles for " + symbol + ": " + e.getMessage());
             return null;
         }
     }
 
     /**
-     * Fetches company name from Finnhub Profile API
+     * Fetches the company profile from Finnhub Profile API
      */
-    private String fetchCompanyName(String symbol, String apiKey) {
+    private CompanyProfile fetchCompanyProfile(String symbol, String apiKey) {
+        if (!permitCall()) {
+            // Out of budget - we'll use symbol as fallback
+            return null;
+        }
         try {
             String url = String.format(
                 "https://finnhub.io/api/v1/stock/profile2?symbol=%s&token=%s",
                 symbol, apiKey
             );
             
-            @SuppressWarnings("unchecked")
-            Map<String, Object> response = restTemplate.getForObject(url, Map.class);
+            Map<String, Object> response;
+            try {
+                @SuppressWarnings("unchecked")
+                Map<String, Object> body = restTemplate.getForObject(url, Map.class);
+                response = body;
+                circuitBreaker.recordSuccess();
+            } catch (RuntimeException e) {
+                recordCallError(e);
+                throw e;
+            }
             
-            if (response != null && response.containsKey("name")) {
-                return (String) response.get("name");
+            if (response == null) {
+                return null;
             }
+            // An empty response means Finnhub has no profile; it is cached too so we don't keep asking
+            return new CompanyProfile(
+                    symbol,
+                    (String) response.get("name"),
+                    (String) response.get("exchange"),
+                    (String) response.get("finnhubIndustry"),
+                    (String) response.get("currency"),
+                    (String) response.get("logo"),
+                    new Date()
+            );
         } catch (Exception e) {
             // Silently fail - we'll use symbol as fallback
         }
@@ -162,16 +413,21 @@ public class StockApiService {
         
         // Fetch all 10 top stocks
         for (String symbol : POPULAR_STOCKS) {
+            // Cached quotes cost no upstream call, so no pacing delay is needed
+            StockDTO cached = quoteCache.get(symbol);
+            if (cached != null) {
+                stocks.add(cached);
+                continue;
+            }
+            if (Thread.currentThread().isInterrupted()) {
+                break;
+            }
             try {
-                StockDTO stock = fetchStockQuote(symbol, keyToUse);
+                // Pacing is handled by the shared rate limiter inside fetchQuoteFromApi
+                StockDTO stock = fetchQuoteFromApi(symbol, keyToUse);
                 if (stock != null) {
                     stocks.add(stock);
                 }
-                // Reduced delay to stay within rate limits
-                Thread.sleep(600); // 600ms between calls
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                break;
             } catch (Exception e) {
                 System.err.println("Error fetching " + symbol + ": " + e.getMessage());
                 // Continue with next stock instead of breaking
@@ -195,20 +451,120 @@ public class StockApiService {
         
         List<StockDTO> stocks = new ArrayList<>();
         
+        if (parallelFetch) {
+            for (QuoteResultDTO result : fetchQuotesParallel(symbols, keyToUse)) {
+                if (result.isSuccess()) {
+                    stocks.add(result.getQuote());
+                } else {
+                    System.err.println("Error fetching " + result.getSymbol() + ": " + result.getError());
+                }
+            }
+            return stocks;
+        }
+        
         for (String symbol : symbols) {
-            StockDTO stock = fetchStockQuote(symbol, keyToUse);
+            StockDTO cached = quoteCache.get(symbol);
+            if (cached != null) {
+                stocks.add(cached);
+                continue;
+            }
+            if (Thread.currentThread().isInterrupted()) {
+                break;
+            }
+            // Pacing is handled by the shared rate limiter inside fetchQuoteFromApi
+            StockDTO stock = fetchQuoteFromApi(symbol, keyToUse);
             if (stock != null) {
                 stocks.add(stock);
             }
-            // Add delay to avoid rate limiting (Finnhub free tier: 60 calls/min)
+        }
+        
+        return stocks;
+    }
+
+    /**
+     * Fetches quotes for all symbols concurrently, bounded by the fetch pool size and the shared rate limiter
+     * @param symbols List of stock symbols
+     * @param apiKey API key (optional, will use default from properties if not provided)
+     * @return One result per input symbol, in input order, carrying either the quote or the failure reason
+     */
+    public List<QuoteResultDTO> fetchQuotesParallel(List<String> symbols, String apiKey) {
+        List<QuoteResultDTO> results = new ArrayList<>(symbols.size());
+        String keyToUse = getApiKey(apiKey);
+        if (keyToUse == null) {
+            for (String symbol : symbols) {
+                results.add(QuoteResultDTO.failure(symbol, "No API key provided"));
+            }
+            return results;
+        }
+
+        List<Future<StockDTO>> futures = new ArrayList<>(symbols.size());
+        for (String symbol : symbols) {
+            StockDTO cached = quoteCache.get(symbol);
+            if (cached != null) {
+                futures.add(null);
+                results.add(QuoteResultDTO.success(symbol, cached));
+            } else {
+                futures.add(fetchExecutor.submit(() -> loadQuoteShared(symbol, keyToUse)));
+                results.add(null);
+            }
+        }
+
+        for (int i = 0; i < symbols.size(); i++) {
+            Future<StockDTO> future = futures.get(i);
+            if (future == null) {
+                continue;
+            }
+            String symbol = symbols.get(i);
             try {
-                Thread.sleep(1100); // 1.1 seconds between calls
+                results.set(i, QuoteResultDTO.success(symbol, future.get()));
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause() != null ? e.getCause() : e;
+                StockDTO stale = staleFallback(symbol, keyToUse);
+                // A stale quote is still returned, with the upstream error as the reason it is stale
+                results.set(i, new QuoteResultDTO(symbol, stale, cause.getMessage()));
             } catch (InterruptedException e) {
                 Thread.currentThread().interrupt();
+                // Report the rest as failed rather than dropping them
+                for (int j = i; j < symbols.size(); j++) {
+                    if (futures.get(j) != null) {
+                        futures.get(j).cancel(true);
+                        results.set(j, QuoteResultDTO.failure(symbols.get(j), "Interrupted"));
+                    }
+                }
                 break;
             }
         }
-        
-        return stocks;
+        return results;
+    }
+
+    /**
+     * Hit/miss/eviction counters of the shared quote cache
+     */
+    public Map<String, Long> getQuoteCacheStats() {
+        Map<String, Long> stats = quoteCache.getStats();
+        stats.put("upstreamCalls", quoteFlights.getExecutions());
+        stats.put("coalescedCalls", quoteFlights.getSharedCalls());
+        return stats;
+    }
+
+    /**
+     * State and counters of the Finnhub circuit breaker
+     */
+    public Map<String, Object> getCircuitBreakerStats() {
+        return circuitBreaker.getStats();
+    }
+
+    /**
+     * Wait-time and rejection counters of the shared Finnhub rate limiter
+     */
+    public Map<String, Long> getRateLimiterStats() {
+        return rateLimiter.getStats();
+    }
+
+    /**
+     * Finnhub REST call counts and latency per endpoint
+     */
+    public Map<String, Map<String, Object>> getHttpLatencyStats() {
+        return httpMetrics.getStats();
     }
 }
@@ -0,0 +1,332 @@
+package com.demo.service;
+
+import com.demo.dto.FinnhubCandles;
+import com.demo.dto.HistoryBatchDTO;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Serves price history from the {@link PriceHistoryStore}. The first request
+ * for a symbol and tier backfills it from Finnhub candles. Symbols the
+ * {@link QuoteRefresher} prices (popular, held and streamed stocks) then grow
+ * from the live quote pipeline and never go upstream again; history of any
+ * other symbol is re-backfilled once it is {@code backfillRetryMillis} old.
+ *
+ * Backfills run on their own small pool. A request waits at most
+ * {@code backfillWaitMillis} for one and is otherwise served what the store
+ * already has, so a slow or rate-limited Finnhub never holds request threads.
+ */
+@Service
+public class StockHistoryService {
+
+    private static final DateTimeFormatter DAY_FORMAT = DateTimeFormatter.ISO_LOCAL_DATE.withZone(ZoneOffset.UTC);
+    private static final DateTimeFormatter MINUTE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm").withZone(ZoneOffset.UTC);
+    // Slack before a daily series counts as covering its range (weekends and holidays have no candle)
+    private static final long DAILY_COVERAGE_SLACK_MILLIS = 5 * PriceHistoryStore.DAY_MILLIS;
+    // Cap on the intraday slack, long enough to span a weekend without trading
+    private static final long INTRADAY_COVERAGE_SLACK_MILLIS = 3 * PriceHistoryStore.DAY_MILLIS;
+
+    private final PriceHistoryStore historyStore;
+    private final StockApiService stockApiService;
+    private final QuoteRefresher quoteRefresher;
+    private final long backfillRetryMillis;
+    private final long backfillWaitMillis;
+    private final int maxBatchSymbols;
+    // Serves batch requests; a symbol that needs a backfill only holds up its own task
+    private final ExecutorService batchExecutor;
+    private final ExecutorService backfillExecutor;
+
+    // Backfill in progress per symbol/tier; concurrent requests share it
+    private final ConcurrentHashMap<String, CompletableFuture<Boolean>> backfills = new ConcurrentHashMap<>();
+    // When each symbol/tier was last backfilled, so thin histories (e.g. recent listings) aren't refetched on every request
+    private final ConcurrentHashMap<String, Long> lastBackfill = new ConcurrentHashMap<>();
+
+    public StockHistoryService(PriceHistoryStore historyStore, StockApiService stockApiService,
+                               QuoteRefresher quoteRefresher,
+                               @Value("${history.backfill-retry-ms:3600000}") long backfillRetryMillis,
+                               @Value("${history.backfill-wait-ms:2000}") long backfillWaitMillis,
+                               @Value("${history.backfill.threads:2}") int backfillThreads,
+                               @Value("${history.batch.max-symbols:100}") int maxBatchSymbols,
+                               @Value("${history.batch.threads:8}") int batchThreads) {
+        this.historyStore = historyStore;
+        this.stockApiService = stockApiService;
+        this.quoteRefresher = quoteRefresher;
+        this.backfillRetryMillis = backfillRetryMillis;
+        this.backfillWaitMillis = Math.max(0, backfillWaitMillis);
+        this.maxBatchSymbols = Math.max(1, maxBatchSymbols);
+        AtomicInteger threadCount = new AtomicInteger();
+        this.batchExecutor = Executors.newFixedThreadPool(Math.max(1, batchThreads), runnable -> {
+            Thread thread = new Thread(runnable, "history-batch-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        AtomicInteger backfillThreadCount = new AtomicInteger();
+        this.backfillExecutor = Executors.newFixedThreadPool(Math.max(1, backfillThreads), runnable -> {
+            Thread thread = new Thread(runnable, "history-backfill-" + backfillThreadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        batchExecutor.shutdownNow();
+        backfillExecutor.shutdownNow();
+    }
+
+    /**
+     * Price history for the range as date label to price, oldest first.
+     * Daily ranges are labelled yyyy-MM-dd, intraday ranges yyyy-MM-dd HH:mm (UTC).
+     * @param maxPoints When set, the series is downsampled with LTTB to at most this many points
+     * @throws IllegalArgumentException for an unknown range or a maxPoints below 3
+     */
+    public Map<String, Double> getHistory(String symbol, String range, String apiKey, Integer maxPoints) {
+        HistoryRange historyRange = HistoryRange.fromCode(range);
+        if (maxPoints != null && maxPoints < 3) {
+            throw new IllegalArgumentException("maxPoints must be at least 3");
+        }
+        PriceSeries series = getSeries(symbol, historyRange, apiKey);
+        if (maxPoints != null) {
+            series = Lttb.downsample(series, maxPoints);
+        }
+        return toLabelled(series, historyRange.isIntraday());
+    }
+
+    /**
+     * Price history for several symbols on one shared time axis, the union of every symbol's timestamps.
+     * Symbols are served in parallel; each gets one value per timestamp, null where it has no point.
+     * @throws IllegalArgumentException for an unknown range, no symbols or more than the batch limit
+     */
+    public HistoryBatchDTO getHistoryBatch(List<String> symbols, String range, String apiKey) {
+        HistoryRange historyRange = HistoryRange.fromCode(range);
+        Set<String> keys = new LinkedHashSet<>();
+        for (String symbol : symbols) {
+            if (symbol != null && !symbol.trim().isEmpty()) {
+                keys.add(symbol.trim().toUpperCase(Locale.ROOT));
+            }
+        }
+        if (keys.isEmpty() || keys.size() > maxBatchSymbols) {
+            throw new IllegalArgumentException("Between 1 and " + maxBatchSymbols + " symbols are required");
+        }
+
+        List<String> ordered = new ArrayList<>(keys);
+        PriceSeries[] series = getSeriesBatch(ordered, historyRange, apiKey).values().toArray(new PriceSeries[0]);
+        int points = 0;
+        for (PriceSeries s : series) {
+            points += s.size();
+        }
+
+        // Union of the timestamps, sorted and de-duplicated
+        long[] axis = new long[points];
+        int offset = 0;
+        for (PriceSeries s : series) {
+            System.arraycopy(s.timestamps(), 0, axis, offset, s.size());
+            offset += s.size();
+        }
+        Arrays.sort(axis);
+        int distinct = 0;
+        for (int i = 0; i < axis.length; i++) {
+            if (i == 0 || axis[i] != axis[i - 1]) {
+                axis[distinct++] = axis[i];
+            }
+        }
+        axis = Arrays.copyOf(axis, distinct);
+
+        Map<String, Double[]> values = new LinkedHashMap<>();
+        for (int i = 0; i < series.length; i++) {
+            Double[] aligned = new Double[axis.length];
+            long[] times = series[i].timestamps();
+            double[] prices = series[i].prices();
+            // Both are ascending, so one pass lines them up
+            int position = 0;
+            for (int j = 0; j < times.length; j++) {
+                while (axis[position] < times[j]) {
+                    position++;
+                }
+                aligned[position] = prices[j];
+            }
+            values.put(ordered.get(i), aligned);
+        }
+        return new HistoryBatchDTO(historyRange.getCode(), axis, values);
+    }
+
+    /**
+     * Price history of several symbols, loaded in parallel, keyed by upper-case symbol in the given order.
+     * A symbol whose history fails to load gets an empty series.
+     */
+    public Map<String, PriceSeries> getSeriesBatch(List<String> symbols, HistoryRange range, String apiKey) {
+        Set<String> keys = new LinkedHashSet<>();
+        for (String symbol : symbols) {
+            keys.add(symbol.trim().toUpperCase(Locale.ROOT));
+        }
+        List<String> ordered = new ArrayList<>(keys);
+        List<Future<PriceSeries>> futures = new ArrayList<>(ordered.size());
+        for (String symbol : ordered) {
+            futures.add(batchExecutor.submit(() -> getSeries(symbol, range, apiKey)));
+        }
+        Map<String, PriceSeries> series = new LinkedHashMap<>();
+        for (int i = 0; i < ordered.size(); i++) {
+            try {
+                series.put(ordered.get(i), futures.get(i).get());
+            } catch (ExecutionException e) {
+                System.err.println("Error loading history for " + ordered.get(i) + ": " + e.getCause().getMessage());
+                series.put(ordered.get(i), PriceSeries.EMPTY);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                for (Future<PriceSeries> future : futures) {
+                    future.cancel(true);
+                }
+                throw new RuntimeException("Interrupted while loading history");
+            }
+        }
+        return series;
+    }
+
+    /**
+     * Whether a backfill is still running for any of the symbols in the range's tier,
+     * i.e. history just served for them may be incomplete
+     */
+    public boolean isBackfillPending(Collection<String> symbols, HistoryRange range) {
+        for (String symbol : symbols) {
+            if (backfills.containsKey(tier(symbol.trim().toUpperCase(Locale.ROOT), range))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Price history for the range as parallel arrays. When the store doesn't cover the range yet, a backfill
+     * from Finnhub is started and waited for up to the configured time.
+     */
+    public PriceSeries getSeries(String symbol, HistoryRange range, String apiKey) {
+        String key = symbol.trim().toUpperCase(Locale.ROOT);
+        long now = System.currentTimeMillis();
+        long from = now - range.getMillis();
+        if (!range.isIntraday()) {
+            from = PriceHistoryStore.dayStart(from);  // daily points sit at the start of their UTC day
+        }
+
+        if (!covers(key, range, from)) {
+            await(key, backfill(key, range, now, apiKey));
+        } else if (!quoteRefresher.isTracked(key)) {
+            // Not live-priced, so its history only moves by backfilling; serve what we have meanwhile
+            backfill(key, range, now, apiKey);
+        }
+        return historyStore.query(key, from, Long.MAX_VALUE, range.isIntraday());
+    }
+
+    private boolean covers(String symbol, HistoryRange range, long from) {
+        Long first = historyStore.firstTimestamp(symbol, range.isIntraday());
+        if (first == null) {
+            return false;
+        }
+        // Intraday slack scales with the range: live ticks alone (a tracked symbol's only points until
+        // its first backfill) must not pass for a full 1D or 1W series
+        long slack = range.isIntraday()
+                ? Math.min(range.getMillis() / 4, INTRADAY_COVERAGE_SLACK_MILLIS)
+                : DAILY_COVERAGE_SLACK_MILLIS;
+        return first <= from + slack;
+    }
+
+    /**
+     * Starts a backfill of the symbol's tier unless one is running or the last one is too recent
+     * @return the running backfill, or null when none is due
+     */
+    private CompletableFuture<Boolean> backfill(String symbol, HistoryRange range, long now, String apiKey) {
+        String tier = tier(symbol, range);
+        Long last = lastBackfill.get(tier);
+        if (last != null && now - last < backfillRetryMillis) {
+            return null;
+        }
+        CompletableFuture<Boolean> started = new CompletableFuture<>();
+        CompletableFuture<Boolean> running = backfills.putIfAbsent(tier, started);
+        if (running != null) {
+            return running;
+        }
+        try {
+            backfillExecutor.execute(() -> {
+                try {
+                    started.complete(load(symbol, range, apiKey));
+                } catch (Exception e) {
+                    System.err.println("Error backfilling history for " + symbol + ": " + e.getMessage());
+                    started.complete(false);
+                } finally {
+                    lastBackfill.put(tier, System.currentTimeMillis());
+                    backfills.remove(tier, started);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Shutting down
+            backfills.remove(tier, started);
+            started.complete(false);
+        }
+        return started;
+    }
+
+    // Fills the whole tier in one call: the longest daily range, or the intraday retention window
+    private boolean load(String symbol, HistoryRange range, String apiKey) {
+        long now = System.currentTimeMillis();
+        long from = range.isIntraday()
+                ? now - historyStore.getIntradayRetentionMillis()
+                : now - HistoryRange.FIVE_YEARS.getMillis();
+        FinnhubCandles candles = stockApiService.fetchCandles(symbol, range.getCandleResolution(), from, now, apiKey);
+        if (candles == null) {
+            return false;
+        }
+        historyStore.recordAll(symbol, candles.getTimestamps(), candles.getClose(), 0, candles.size(), range.isIntraday());
+        return true;
+    }
+
+    private void await(String symbol, CompletableFuture<Boolean> backfill) {
+        if (backfill == null) {
+            return;
+        }
+        try {
+            backfill.get(backfillWaitMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // Keeps running in the background and fills later requests
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            System.err.println("Error backfilling history for " + symbol + ": " + e.getMessage());
+        }
+    }
+
+    private static String tier(String symbol, HistoryRange range) {
+        return symbol + (range.isIntraday() ? ":intraday" : ":daily");
+    }
+
+    private static Map<String, Double> toLabelled(PriceSeries series, boolean intraday) {
+        DateTimeFormatter format = intraday ? MINUTE_FORMAT : DAY_FORMAT;
+        Map<String, Double> history = new LinkedHashMap<>(Math.max(16, series.size() * 2));
+        for (int i = 0; i < series.size(); i++) {
+            history.put(format.format(Instant.ofEpochMilli(series.timestampAt(i))), series.priceAt(i));
+        }
+        return history;
+    }
+}
@@ -1,9 +1,11 @@
 package com.demo.service;
 
 import com.demo.dto.StockDTO;
+import com.demo.dto.StockPageDTO;
 import com.demo.model.Stock;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 public interface StockService {
@@ -17,6 +19,9 @@ public interface StockService {
     // Get all stocks with live prices from API
     List<StockDTO> getAllStocksWithLivePrices(String apiKey);
 
+    // Get one page of database stocks with live prices, by page number or keyset cursor, optionally limited to some fields
+    StockPageDTO getStocksPage(Integer page, Integer size, String cursor, String sort, List<String> fields);
+
     // Get a stock by its ID
     Optional<Stock> getStockById(Long id);
 
@@ -29,6 +34,9 @@ public interface StockService {
     // Delete a stock by its symbol
     void deleteStockBySymbol(String symbol);
 
-    // Calculate the total value of all stocks in the portfolio
+    // Market value of all stocks at live prices, kept as a running total
     Double getTotalPortfolioValue();
+
+    // Market value of each portfolio by id, kept as running totals
+    Map<Long, Double> getPortfolioValues();
 }
@@ -1,31 +1,65 @@
 package com.demo.service;
 
 import com.demo.dto.StockDTO;
+import com.demo.dto.StockPageDTO;
 import com.demo.model.Stock;
 import com.demo.repository.StockRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
 import java.util.ArrayList;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
 public class StockServiceImpl implements StockService {
 
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 500;
+    private static final List<String> STOCK_FIELDS = List.of("id", "symbol", "companyName", "currentPrice", "quantity",
+            "totalValue", "changePercent", "dayHigh", "dayLow", "openPrice", "previousClose", "lastUpdated", "stale");
+    // Sortable request fields and the entity properties behind them
+    private static final Map<String, String> SORT_PROPERTIES = Map.of(
+            "symbol", "symbol",
+            "changePercent", "changePercent",
+            "totalValue", "marketValue");
+
     private final StockRepository stockRepository;
     private final StockApiService stockApiService;
+    private final PriceBook priceBook;
+    private final QuoteRefresher quoteRefresher;
+    private final DataVersions dataVersions;
+    private final PortfolioValueTracker portfolioValueTracker;
 
     @Autowired
-    public StockServiceImpl(StockRepository stockRepository, StockApiService stockApiService) {
+    public StockServiceImpl(StockRepository stockRepository, StockApiService stockApiService,
+                            PriceBook priceBook, QuoteRefresher quoteRefresher, DataVersions dataVersions,
+                            PortfolioValueTracker portfolioValueTracker) {
         this.stockRepository = stockRepository;
         this.stockApiService = stockApiService;
+        this.priceBook = priceBook;
+        this.quoteRefresher = quoteRefresher;
+        this.dataVersions = dataVersions;
+        this.portfolioValueTracker = portfolioValueTracker;
     }
 
     @Override
     public Stock saveStock(Stock stock) {
-        return stockRepository.save(stock);
+        Stock saved = stockRepository.save(stock);
+        portfolioValueTracker.stockSaved(saved);
+        dataVersions.stocksChanged();
+        return saved;
     }
 
     @Override
@@ -36,14 +70,13 @@ public class StockServiceImpl implements StockService {
     @Override
     public List<StockDTO> getAllStocksWithLivePrices(String apiKey) {
         try {
-            // Use provided API key or let StockApiService use default from properties
-            // Pass null if empty string to allow fallback to properties
-            String keyToUse = (apiKey != null && !apiKey.isEmpty()) ? apiKey : null;
+            // A caller-supplied key lets the background refresher price stocks when no default key is configured
+            quoteRefresher.useApiKey(apiKey);
             
-            // Fetch live prices for all popular stocks (will use properties API key if keyToUse is null)
-            List<StockDTO> liveStocks = stockApiService.fetchAllPopularStocks(keyToUse);
+            // Live prices come from the price book kept current by QuoteRefresher, never from Finnhub inline
+            List<StockDTO> liveStocks = priceBook.getAll(stockApiService.getPopularSymbols());
             
-            // If no live stocks were fetched (no API key available), return database stocks
+            // If no live stocks are priced yet (cold start or no API key available), return database stocks
             if (liveStocks.isEmpty()) {
                 try {
                     return stockRepository.findAll().stream()
@@ -59,46 +92,56 @@ public class StockServiceImpl implements StockService {
                 }
             }
             
+            // Index live stocks by symbol so each database stock is matched with one lookup
+            Map<String, StockDTO> index = new LinkedHashMap<>(Math.max(16, liveStocks.size() * 2));
+            for (StockDTO liveStock : liveStocks) {
+                index.put(symbolKey(liveStock.getSymbol()), liveStock);
+            }
+            
             // Also get any stocks from database and update their prices
             try {
                 List<Stock> dbStocks = stockRepository.findAll();
+                
+                // Price every database stock not already in the popular set with one batched lookup:
+                // the price book first, then the quote cache. Neither calls Finnhub inline.
+                Set<String> missing = new HashSet<>();
+                for (Stock dbStock : dbStocks) {
+                    String key = symbolKey(dbStock.getSymbol());
+                    if (!index.containsKey(key)) {
+                        missing.add(key);
+                    }
+                }
+                Map<String, StockDTO> missingQuotes = priceBook.getAllBySymbol(missing);
+                if (missingQuotes.size() < missing.size()) {
+                    missing.removeAll(missingQuotes.keySet());
+                    missingQuotes.putAll(stockApiService.getCachedQuotes(missing));
+                }
+                
                 for (Stock dbStock : dbStocks) {
-                    // Check if we already have this stock in live stocks
-                    boolean exists = liveStocks.stream()
-                            .anyMatch(s -> s.getSymbol().equalsIgnoreCase(dbStock.getSymbol()));
-                    
-                    if (!exists) {
-                        // Fetch live price for this stock (will use properties API key if keyToUse is null)
-                        StockDTO liveStock = stockApiService.fetchStockQuote(dbStock.getSymbol(), keyToUse);
-                        if (liveStock != null) {
-                            liveStock.setId(dbStock.getId());
-                            liveStock.setQuantity(dbStock.getQuantity());
-                            liveStock.setTotalValue(liveStock.getCurrentPrice() * liveStock.getQuantity());
-                            liveStocks.add(liveStock);
-                        } else {
-                            // If API call fails, use database value with 0 change
+                    String key = symbolKey(dbStock.getSymbol());
+                    StockDTO liveStock = index.get(key);
+                    if (liveStock == null) {
+                        liveStock = missingQuotes.get(key);
+                        if (liveStock == null) {
+                            // Not priced yet, use database value with 0 change until the refresher prices it
                             StockDTO dto = StockDTO.fromEntity(dbStock);
                             dto.setChangePercent(0.0);
-                            liveStocks.add(dto);
+                            index.put(key, dto);
+                            continue;
                         }
-                    } else {
-                        // Update existing live stock with database quantity
-                        liveStocks.stream()
-                                .filter(s -> s.getSymbol().equalsIgnoreCase(dbStock.getSymbol()))
-                                .findFirst()
-                                .ifPresent(s -> {
-                                    s.setId(dbStock.getId());
-                                    s.setQuantity(dbStock.getQuantity());
-                                    s.setTotalValue(s.getCurrentPrice() * s.getQuantity());
-                                });
+                        index.put(key, liveStock);
                     }
+                    // Use the database id and quantity with the live price
+                    liveStock.setId(dbStock.getId());
+                    liveStock.setQuantity(dbStock.getQuantity());
+                    liveStock.setTotalValue(liveStock.getCurrentPrice() * liveStock.getQuantity());
                 }
             } catch (Exception dbEx) {
                 System.err.println("Error processing database stocks: " + dbEx.getMessage());
                 // Continue with live stocks only
             }
             
-            return liveStocks;
+            return new ArrayList<>(index.values());
         } catch (Exception e) {
             System.err.println("Error in getAllStocksWithLivePrices: " + e.getMessage());
             // Return empty list to prevent 500 error
@@ -106,6 +149,148 @@ public class StockServiceImpl implements StockService {
         }
     }
 
+    @Override
+    public StockPageDTO getStocksPage(Integer page, Integer size, String cursor, String sort, List<String> fields) {
+        int pageSize = size == null ? DEFAULT_PAGE_SIZE : size;
+        if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        if (page != null && page < 0) {
+            throw new IllegalArgumentException("page must not be negative");
+        }
+        List<String> projection = resolveFields(fields);
+
+        // sort=<field>[,asc|desc], e.g. sort=totalValue,desc
+        String sortField = "symbol";
+        Sort.Direction direction = Sort.Direction.ASC;
+        if (sort != null && !sort.isBlank()) {
+            String[] parts = sort.split(",");
+            sortField = parts[0].trim();
+            if (parts.length > 1) {
+                direction = Sort.Direction.fromString(parts[1].trim());
+            }
+        }
+        String sortProperty = SORT_PROPERTIES.get(sortField);
+        if (sortProperty == null) {
+            throw new IllegalArgumentException("sort must be one of " + SORT_PROPERTIES.keySet());
+        }
+
+        if (page == null) {
+            // Keyset paging walks the table in symbol order without counting or skipping rows
+            if (!"symbol".equals(sortProperty) || direction != Sort.Direction.ASC) {
+                throw new IllegalArgumentException("cursor paging only supports sort=symbol,asc; use page= for other orders");
+            }
+            List<Stock> stocks;
+            if (cursor == null || cursor.isEmpty()) {
+                stocks = stockRepository.findFirstBySymbolOrder(PageRequest.of(0, pageSize + 1));
+            } else {
+                String[] position = decodeCursor(cursor);
+                stocks = stockRepository.findAfterBySymbolOrder(position[0], Long.valueOf(position[1]), PageRequest.of(0, pageSize + 1));
+            }
+            // One extra row tells us whether there is a next page
+            boolean hasNext = stocks.size() > pageSize;
+            if (hasNext) {
+                stocks = stocks.subList(0, pageSize);
+            }
+            String nextCursor = hasNext ? encodeCursor(stocks.get(stocks.size() - 1)) : null;
+            return new StockPageDTO(toPageContent(stocks, projection), null, pageSize, null, null, nextCursor);
+        }
+
+        // Id breaks ties so rows don't shift between pages
+        Sort order = Sort.by(direction, sortProperty).and(Sort.by(Sort.Direction.ASC, "id"));
+        Page<Stock> result = stockRepository.findAll(PageRequest.of(page, pageSize, order));
+        return new StockPageDTO(toPageContent(result.getContent(), projection), page, pageSize,
+                result.getTotalElements(), result.getTotalPages(), null);
+    }
+
+    /**
+     * Builds page rows from database stocks, overlaying live prices from the price book in one batched lookup
+     */
+    private List<Map<String, Object>> toPageContent(List<Stock> stocks, List<String> fields) {
+        List<String> symbols = new ArrayList<>(stocks.size());
+        for (Stock stock : stocks) {
+            symbols.add(symbolKey(stock.getSymbol()));
+        }
+        Map<String, StockDTO> live = priceBook.getAllBySymbol(symbols);
+
+        List<Map<String, Object>> content = new ArrayList<>(stocks.size());
+        for (Stock stock : stocks) {
+            StockDTO dto = live.get(symbolKey(stock.getSymbol()));
+            if (dto == null) {
+                // Not in the book (e.g. after a restart); use the last quote written back to the table
+                dto = StockDTO.fromEntity(stock);
+                if (stock.getLivePrice() != null) {
+                    dto.setCurrentPrice(stock.getLivePrice());
+                }
+                dto.setChangePercent(stock.getChangePercent() != null ? stock.getChangePercent() : 0.0);
+            }
+            dto.setId(stock.getId());
+            dto.setQuantity(stock.getQuantity());
+            dto.setTotalValue(dto.getCurrentPrice() * stock.getQuantity());
+            content.add(project(dto, fields));
+        }
+        return content;
+    }
+
+    private static List<String> resolveFields(List<String> fields) {
+        if (fields == null || fields.isEmpty()) {
+            return STOCK_FIELDS;
+        }
+        List<String> resolved = new ArrayList<>();
+        for (String field : fields) {
+            String name = field.trim();
+            if (!STOCK_FIELDS.contains(name)) {
+                throw new IllegalArgumentException("Unknown field '" + name + "', expected any of " + STOCK_FIELDS);
+            }
+            resolved.add(name);
+        }
+        return resolved;
+    }
+
+    private static Map<String, Object> project(StockDTO dto, List<String> fields) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        for (String field : fields) {
+            switch (field) {
+                case "id" -> row.put(field, dto.getId());
+                case "symbol" -> row.put(field, dto.getSymbol());
+                case "companyName" -> row.put(field, dto.getCompanyName());
+                case "currentPrice" -> row.put(field, dto.getCurrentPrice());
+                case "quantity" -> row.put(field, dto.getQuantity());
+                case "totalValue" -> row.put(field, dto.getTotalValue());
+                case "changePercent" -> row.put(field, dto.getChangePercent());
+                case "dayHigh" -> row.put(field, dto.getDayHigh());
+                case "dayLow" -> row.put(field, dto.getDayLow());
+                case "openPrice" -> row.put(field, dto.getOpenPrice());
+                case "previousClose" -> row.put(field, dto.getPreviousClose());
+                case "lastUpdated" -> row.put(field, dto.getLastUpdated());
+                case "stale" -> row.put(field, dto.isStale());
+                default -> { }
+            }
+        }
+        return row;
+    }
+
+    // Opaque cursor: the (symbol, id) of the last row on the page
+    private static String encodeCursor(Stock last) {
+        String position = last.getSymbol() + "\n" + last.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String[] decodeCursor(String cursor) {
+        try {
+            String position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = position.lastIndexOf('\n');
+            Long.parseLong(position.substring(separator + 1));
+            return new String[] { position.substring(0, separator), position.substring(separator + 1) };
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    private static String symbolKey(String symbol) {
+        return symbol == null ? "" : symbol.trim().toUpperCase(Locale.ROOT);
+    }
+
     @Override
     public Optional<Stock> getStockById(Long id) {
         return stockRepository.findById(id);
@@ -119,16 +304,26 @@ public class StockServiceImpl implements StockService {
     @Override
     public void deleteStockById(Long id) {
         stockRepository.deleteById(id);
+        portfolioValueTracker.stockDeleted(id);
+        dataVersions.stocksChanged();
     }
 
     @Override
     public void deleteStockBySymbol(String symbol) {
-        stockRepository.findBySymbol(symbol).ifPresent(stock -> stockRepository.delete(stock));
+        stockRepository.findBySymbol(symbol).ifPresent(stock -> {
+            stockRepository.delete(stock);
+            portfolioValueTracker.stockDeleted(stock.getId());
+        });
+        dataVersions.stocksChanged();
     }
 
     @Override
     public Double getTotalPortfolioValue() {
-        List<Stock> stocks = stockRepository.findAll();
-        return stocks.stream().mapToDouble(Stock::getTotalValue).sum();
+        return portfolioValueTracker.getTotalValue();
+    }
+
+    @Override
+    public Map<Long, Double> getPortfolioValues() {
+        return portfolioValueTracker.getPortfolioValues();
     }
 }
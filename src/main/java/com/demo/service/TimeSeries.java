@@ -0,0 +1,104 @@
+package com.demo.service;
+
+import java.util.Arrays;
+
+/**
+ * Time-ordered points held in two parallel primitive arrays (epoch millis and
+ * value), at most one point per timestamp. Appends are amortized O(1) and
+ * range lookups use binary search. Not thread-safe; {@link PriceHistoryStore}
+ * guards each instance.
+ */
+class TimeSeries {
+
+    private long[] times;
+    private double[] values;
+    private int size;
+
+    TimeSeries(int initialCapacity) {
+        this.times = new long[Math.max(4, initialCapacity)];
+        this.values = new double[times.length];
+    }
+
+    /**
+     * Sets the value at the given time: appended when newest, overwritten when the time exists, otherwise inserted in order
+     */
+    void put(long time, double value) {
+        if (size == 0 || time > times[size - 1]) {
+            ensureCapacity(size + 1);
+            times[size] = time;
+            values[size] = value;
+            size++;
+            return;
+        }
+        int index = Arrays.binarySearch(times, 0, size, time);
+        if (index >= 0) {
+            values[index] = value;
+            return;
+        }
+        // Older than the newest point, e.g. a backfilled candle
+        int insertAt = -index - 1;
+        ensureCapacity(size + 1);
+        System.arraycopy(times, insertAt, times, insertAt + 1, size - insertAt);
+        System.arraycopy(values, insertAt, values, insertAt + 1, size - insertAt);
+        times[insertAt] = time;
+        values[insertAt] = value;
+        size++;
+    }
+
+    /**
+     * Copies the points with from <= time <= to
+     */
+    PriceSeries range(long from, long to) {
+        int start = lowerBound(from);
+        int end = to == Long.MAX_VALUE ? size : lowerBound(to + 1);
+        if (start >= end) {
+            return PriceSeries.EMPTY;
+        }
+        return new PriceSeries(Arrays.copyOfRange(times, start, end), Arrays.copyOfRange(values, start, end));
+    }
+
+    /**
+     * Drops every point older than the given time
+     */
+    void removeBefore(long time) {
+        int keepFrom = lowerBound(time);
+        if (keepFrom == 0) {
+            return;
+        }
+        System.arraycopy(times, keepFrom, times, 0, size - keepFrom);
+        System.arraycopy(values, keepFrom, values, 0, size - keepFrom);
+        size -= keepFrom;
+    }
+
+    int size() {
+        return size;
+    }
+
+    // Time of the oldest point; only valid when size() > 0
+    long firstTime() {
+        return times[0];
+    }
+
+    // First index whose time is >= the given time
+    private int lowerBound(long time) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (times[mid] < time) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > times.length) {
+            int newLength = Math.max(capacity, times.length + (times.length >> 1));
+            times = Arrays.copyOf(times, newLength);
+            values = Arrays.copyOf(values, newLength);
+        }
+    }
+}
@@ -24,14 +24,23 @@ public class TransactionServiceImpl implements TransactionService {
     private final TransactionRepository transactionRepository;
     private final PortfolioRepository portfolioRepository;
     private final StockRepository stockRepository;
+    private final DataVersions dataVersions;
+    private final PortfolioValueTracker portfolioValueTracker;
+    private final PositionLedger positionLedger;
 
     @Autowired
     public TransactionServiceImpl(TransactionRepository transactionRepository,
                                   PortfolioRepository portfolioRepository,
-                                  StockRepository stockRepository) {
+                                  StockRepository stockRepository,
+                                  DataVersions dataVersions,
+                                  PortfolioValueTracker portfolioValueTracker,
+                                  PositionLedger positionLedger) {
         this.transactionRepository = transactionRepository;
         this.portfolioRepository = portfolioRepository;
         this.stockRepository = stockRepository;
+        this.dataVersions = dataVersions;
+        this.portfolioValueTracker = portfolioValueTracker;
+        this.positionLedger = positionLedger;
     }
 
     /**
@@ -43,6 +52,8 @@ public class TransactionServiceImpl implements TransactionService {
     @Override
     @Transactional
     public TransactionDTO saveTransaction(TransactionDTO transactionDTO) {
+        PositionLedger.Write ledger = positionLedger.beginWrite();
+
         // Fetch portfolio using the provided ID
         Optional<Portfolio> portfolioOpt = portfolioRepository.findById(transactionDTO.getPortfolioId());
 
@@ -71,6 +82,16 @@ public class TransactionServiceImpl implements TransactionService {
             stock = stockOpt.get();
         }
 
+        // A provided ID of an existing transaction replaces it; take the stored version out of its position first
+        Long replacedPortfolioId = null;
+        if (transactionDTO.getId() != null) {
+            Optional<Transaction> existing = transactionRepository.findByIdForUpdate(transactionDTO.getId());
+            if (existing.isPresent()) {
+                replacedPortfolioId = existing.get().getPortfolio().getId();
+                ledger.transactionRemoved(existing.get());
+            }
+        }
+
         // Convert DTO to entity
         Transaction transaction = new Transaction();
         transaction.setId(transactionDTO.getId());
@@ -89,6 +110,11 @@ public class TransactionServiceImpl implements TransactionService {
 
         // Save the transaction in the repository
         Transaction savedTransaction = transactionRepository.save(transaction);
+        ledger.transactionAdded(savedTransaction);
+        if (replacedPortfolioId != null && !replacedPortfolioId.equals(savedTransaction.getPortfolio().getId())) {
+            dataVersions.transactionsChanged(replacedPortfolioId);
+        }
+        dataVersions.transactionsChanged(savedTransaction.getPortfolio().getId());
 
         // Return the saved transaction as a DTO
         return new TransactionDTO(
@@ -114,7 +140,10 @@ public class TransactionServiceImpl implements TransactionService {
         stock.setQuantity(0); // Use Integer instead of double
         
         try {
-            return stockRepository.save(stock);
+            Stock saved = stockRepository.save(stock);
+            portfolioValueTracker.stockSaved(saved);
+            dataVersions.stocksChanged();
+            return saved;
         } catch (Exception e) {
             System.err.println("Error creating new stock: " + e.getMessage());
             return null;
@@ -201,9 +230,13 @@ public class TransactionServiceImpl implements TransactionService {
     @Override
     @Transactional
     public void deleteTransaction(Long transactionId) {
-        if (!transactionRepository.existsById(transactionId)) {
+        PositionLedger.Write ledger = positionLedger.beginWrite();
+        Optional<Transaction> transaction = transactionRepository.findByIdForUpdate(transactionId);
+        if (transaction.isEmpty()) {
             throw new RuntimeException("Transaction not found");
         }
+        ledger.transactionRemoved(transaction.get());
         transactionRepository.deleteById(transactionId);
+        dataVersions.transactionsChanged(transaction.get().getPortfolio().getId());
     }
 }
@@ -37,8 +37,9 @@ async function updateChartRange(range) {
     if (historyChartInstance) historyChartInstance.destroy();
 
     try {
-        // Calls the new endpoint added in StockController.java
-        const res = await fetch(`${API_BASE}/stocks/history/${currentDetailSymbol}/${range}`);
+        // About one point per two pixels is all the canvas can show; the server downsamples to that
+        const maxPoints = Math.max(100, Math.min(500, Math.round((canvas.clientWidth || 600) / 2)));
+        const res = await fetch(`${API_BASE}/stocks/history/${currentDetailSymbol}/${range}?maxPoints=${maxPoints}`);
         const historyMap = await res.json();
 
         const labels = Object.keys(historyMap);
@@ -258,21 +259,21 @@ async function renderPerformanceChart(holdings) {
     let allDates = new Set();
 
     try {
-        // Fetch histories in parallel (limited)
-        const historyPromises = topStocks.map(s =>
-            fetch(`${API_BASE}/stocks/history/${s.symbol}/1M`).then(res => res.ok ? res.json() : {})
-        );
-
-        const histories = await Promise.all(historyPromises);
-
-        histories.forEach((historyMap, index) => {
-            const stock = topStocks[index];
-            Object.keys(historyMap).forEach(date => {
+        // One request for every series, on a shared timestamp axis
+        const symbols = topStocks.map(s => encodeURIComponent(s.symbol)).join(',');
+        const res = await fetch(`${API_BASE}/stocks/history/batch?symbols=${symbols}&range=1M`);
+        const batch = res.ok ? await res.json() : { timestamps: [], values: {} };
+
+        topStocks.forEach(stock => {
+            const series = batch.values[stock.symbol.toUpperCase()] || [];
+            batch.timestamps.forEach((ts, i) => {
+                if (series[i] == null) return;
+                const date = new Date(ts).toISOString().slice(0, 10);
                 allDates.add(date);
                 if (!aggregatedHistory[date]) aggregatedHistory[date] = 0;
                 // Add value of this stock on this date: Price * Current Quantity
                 // (Assuming constant quantity for simplicity of simulation)
-                aggregatedHistory[date] += (historyMap[date] * stock.quantity);
+                aggregatedHistory[date] += (series[i] * stock.quantity);
             });
         });
 
@@ -514,6 +515,7 @@ async function loadMarketStocks(render = true) {
             // Render rows
             for (const s of marketStocks) {
                 const tr = document.createElement('tr');
+                tr.dataset.symbol = s.symbol;
                 tr.style.cursor = 'pointer';
                 tr.onclick = (e) => {
                     // Prevent click if clicking the Buy button
@@ -539,6 +541,7 @@ async function loadMarketStocks(render = true) {
                 tbody.appendChild(tr);
             }
         }
+        startPriceStream();
     } catch (e) {
         console.error(e);
         if (render) {
@@ -553,6 +556,31 @@ async function loadMarketStocks(render = true) {
     }
 }
 
+// Live price updates pushed by the server instead of re-fetching /stocks
+let priceStream = null;
+
+function startPriceStream() {
+    if (priceStream || typeof EventSource === 'undefined') return;
+    priceStream = new EventSource(`${API_BASE}/stocks/stream`);
+    priceStream.addEventListener('quote', (event) => {
+        const update = JSON.parse(event.data);
+        const stock = marketStocks.find(s => s.symbol === update.symbol);
+        if (!stock) return;
+        stock.currentPrice = update.price;
+        stock.changePercent = update.changePercent;
+
+        const tr = document.querySelector(`#stock-table-body tr[data-symbol="${update.symbol}"]`);
+        if (!tr) return;
+        const change = update.changePercent || 0;
+        const colorClass = change >= 0 ? 'var(--success-color)' : 'var(--danger-color)';
+        const icon = change >= 0 ? '<i class="fas fa-caret-up"></i>' : '<i class="fas fa-caret-down"></i>';
+        tr.cells[2].textContent = formatCurrency(update.price);
+        tr.cells[3].style.color = colorClass;
+        tr.cells[3].innerHTML = `${icon} ${change.toFixed(2)}%`;
+    });
+    // EventSource reconnects by itself after errors; nothing to do here
+}
+
 async function handleCreateMarketStock(e) {
     e.preventDefault();
     const stock = {
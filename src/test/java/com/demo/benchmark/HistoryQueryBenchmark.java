@@ -0,0 +1,104 @@
+package com.demo.benchmark;
+
+import com.demo.service.PriceBook;
+import com.demo.service.PriceHistoryStore;
+import com.demo.service.PriceSeries;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 1Y history queries across 1,000 symbols holding 5 years of daily closes:
+ * the columnar {@link PriceHistoryStore} against a TreeMap of boxed points per symbol.
+ *
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.demo.benchmark.HistoryQueryBenchmark
+ * (add -prof gc to the options to see allocation per operation)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HistoryQueryBenchmark {
+
+    private static final int SYMBOLS = 1000;
+    private static final int DAYS = 5 * 365;
+    private static final long DAY_MILLIS = 24L * 60 * 60 * 1000;
+    private static final long NOW = 1_760_000_000_000L - 1_760_000_000_000L % DAY_MILLIS;
+
+    private final String[] symbols = new String[SYMBOLS];
+    private PriceHistoryStore store;
+    private Map<String, NavigableMap<Long, Double>> treeMaps;
+
+    @Setup
+    public void setup() {
+        store = new PriceHistoryStore(new PriceBook(), 60_000, 7);
+        treeMaps = new HashMap<>();
+        long[] times = new long[DAYS];
+        double[] prices = new double[DAYS];
+        for (int s = 0; s < SYMBOLS; s++) {
+            symbols[s] = "SYM" + s;
+            NavigableMap<Long, Double> tree = new TreeMap<>();
+            for (int d = 0; d < DAYS; d++) {
+                times[d] = NOW - (long) (DAYS - 1 - d) * DAY_MILLIS;
+                prices[d] = 100 + s % 50 + Math.sin(d * 0.05) * 10;
+                tree.put(times[d], prices[d]);
+            }
+            store.recordAll(symbols[s], times, prices, 0, DAYS, false);
+            treeMaps.put(symbols[s], tree);
+        }
+    }
+
+    @Benchmark
+    public void columnarStore(Blackhole blackhole) {
+        long from = NOW - 365 * DAY_MILLIS;
+        for (String symbol : symbols) {
+            PriceSeries series = store.query(symbol, from, Long.MAX_VALUE, false);
+            blackhole.consume(series.prices());
+        }
+    }
+
+    @Benchmark
+    public void treeMap(Blackhole blackhole) {
+        // Equivalent work: copy the range out so the result is detached from the live map
+        long from = NOW - 365 * DAY_MILLIS;
+        for (String symbol : symbols) {
+            NavigableMap<Long, Double> range = treeMaps.get(symbol).tailMap(from, true);
+            long[] times = new long[range.size()];
+            double[] prices = new double[range.size()];
+            int i = 0;
+            for (Map.Entry<Long, Double> entry : range.entrySet()) {
+                times[i] = entry.getKey();
+                prices[i] = entry.getValue();
+                i++;
+            }
+            blackhole.consume(times);
+            blackhole.consume(prices);
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = new OptionsBuilder()
+                .include(HistoryQueryBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
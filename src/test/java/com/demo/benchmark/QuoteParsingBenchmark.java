@@ -0,0 +1,83 @@
+package com.demo.benchmark;
+
+import com.demo.dto.FinnhubQuote;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the old Map-based quote parsing against the streaming {@link FinnhubQuote} parser.
+ *
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.demo.benchmark.QuoteParsingBenchmark
+ * (add -prof gc to the options to see allocation per operation)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QuoteParsingBenchmark {
+
+    private static final byte[] QUOTE = ("{\"c\":261.74,\"d\":0.25,\"dp\":0.0956,\"h\":263.31,\"l\":260.68,"
+            + "\"o\":261.07,\"pc\":261.49,\"t\":1727190000}").getBytes(StandardCharsets.UTF_8);
+
+    private final ObjectMapper objectMapper = new JsonMapper();
+
+    @Benchmark
+    public void mapParsing(Blackhole blackhole) {
+        // What StockApiService did before: bind to a Map, then branch on Number/String per field
+        @SuppressWarnings("unchecked")
+        Map<String, Object> response = objectMapper.readValue(QUOTE, Map.class);
+        double price = toDouble(response.get("c"));
+        double changePercent;
+        Object changePercentObj = response.get("dp");
+        if (changePercentObj != null) {
+            changePercent = toDouble(changePercentObj);
+        } else {
+            double previousClose = toDouble(response.get("pc"));
+            changePercent = previousClose > 0 ? ((price - previousClose) / previousClose) * 100 : 0.0;
+        }
+        blackhole.consume(price);
+        blackhole.consume(changePercent);
+    }
+
+    @Benchmark
+    public void streamingParsing(Blackhole blackhole) {
+        FinnhubQuote quote = FinnhubQuote.parse(QUOTE);
+        blackhole.consume(quote.getCurrent());
+        blackhole.consume(quote.resolveChangePercent());
+    }
+
+    private static double toDouble(Object value) {
+        if (value instanceof Number) {
+            return ((Number) value).doubleValue();
+        } else if (value instanceof String) {
+            return Double.parseDouble((String) value);
+        }
+        return 0.0;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = new OptionsBuilder()
+                .include(QuoteParsingBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
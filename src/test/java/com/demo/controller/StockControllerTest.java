@@ -0,0 +1,32 @@
+package com.demo.controller;
+
+import com.demo.service.DataVersions;
+import com.demo.service.StockService;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class StockControllerTest {
+
+    @Test
+    void invalidPagingParametersAreABadRequest() {
+        StockService stockService = mock(StockService.class);
+        when(stockService.getStocksPage(null, null, "garbage", null, null))
+                .thenThrow(new IllegalArgumentException("Invalid cursor"));
+        DataVersions dataVersions = mock(DataVersions.class);
+        when(dataVersions.stocksETag()).thenReturn("\"s1\"");
+        StockController controller = new StockController(stockService, null, dataVersions, null, null, null, null);
+
+        ResponseEntity<?> response = controller.getAllStocks(null, null, null, "garbage", null, null, mock(WebRequest.class));
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertEquals(Map.of("error", "Invalid cursor"), response.getBody());
+    }
+}
@@ -0,0 +1,75 @@
+package com.demo.dto;
+
+import org.junit.jupiter.api.Test;
+import tools.jackson.core.JacksonException;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FinnhubQuoteTest {
+
+    @Test
+    void readsEveryField() {
+        FinnhubQuote quote = parse("{\"c\":261.74,\"d\":-2.51,\"dp\":-0.9498,\"h\":263.31,\"l\":260.68,"
+                + "\"o\":261.07,\"pc\":264.25,\"t\":1727294400}");
+
+        assertEquals(261.74, quote.getCurrent());
+        assertEquals(-2.51, quote.getChange());
+        assertEquals(-0.9498, quote.getChangePercent());
+        assertEquals(263.31, quote.getHigh());
+        assertEquals(260.68, quote.getLow());
+        assertEquals(261.07, quote.getOpen());
+        assertEquals(264.25, quote.getPreviousClose());
+        assertEquals(1727294400L, quote.getTimestamp());
+        assertTrue(quote.hasChange());
+        assertEquals(-0.9498, quote.resolveChangePercent());
+    }
+
+    @Test
+    void skipsUnknownAndNestedFieldsAndAcceptsNumericStrings() {
+        FinnhubQuote quote = parse("{\"x\":\"y\",\"meta\":{\"c\":1,\"list\":[1,{\"pc\":2}]},\"c\":\"150.5\","
+                + "\"tags\":[\"a\",[\"b\"]],\"pc\":100,\"flag\":true}");
+
+        assertEquals(150.5, quote.getCurrent());
+        assertEquals(100.0, quote.getPreviousClose());
+        assertFalse(quote.hasChangePercent());
+        // Derived from the previous close when dp is missing
+        assertEquals(50.5, quote.resolveChangePercent(), 1e-9);
+    }
+
+    @Test
+    void readsTheNoDataResponse() {
+        // What Finnhub answers for a symbol it has no trades for
+        FinnhubQuote quote = parse("{\"c\":0,\"d\":null,\"dp\":null,\"h\":0,\"l\":0,\"o\":0,\"pc\":0,\"t\":0}");
+
+        assertEquals(0.0, quote.getCurrent());
+        assertFalse(quote.hasChange());
+        assertFalse(quote.hasChangePercent());
+        assertEquals(0.0, quote.resolveChangePercent());
+        assertEquals(0L, quote.getTimestamp());
+    }
+
+    @Test
+    void emptyOrNonObjectBodiesParseToNull() {
+        assertNull(FinnhubQuote.parse((byte[]) null));
+        assertNull(FinnhubQuote.parse(new byte[0]));
+        assertNull(parse("[1,2,3]"));
+        assertNull(parse("\"quote\""));
+    }
+
+    @Test
+    void malformedJsonThrows() {
+        assertThrows(JacksonException.class, () -> parse("{\"c\":261.74,"));
+        assertThrows(JacksonException.class, () -> parse("{\"c\":261.74 \"d\":1}"));
+        assertThrows(JacksonException.class, () -> parse("<html>Too Many Requests</html>"));
+    }
+
+    private static FinnhubQuote parse(String body) {
+        return FinnhubQuote.parse(body.getBytes(StandardCharsets.UTF_8));
+    }
+}
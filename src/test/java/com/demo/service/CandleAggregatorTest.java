@@ -0,0 +1,118 @@
+package com.demo.service;
+
+import com.demo.dto.CandleDTO;
+import com.demo.dto.StockDTO;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CandleAggregatorTest {
+
+    private static final long MINUTE = 60_000L;
+    private static final long T0 = 1_760_000_000_000L - 1_760_000_000_000L % (60 * MINUTE);
+
+    // Daily bars are never read or flushed here, so no repository is needed
+    private final CandleAggregator aggregator = new CandleAggregator(new PriceBook(), null, 1440, 2016, 2160, 400, 500);
+
+    @Test
+    void ticksWithinAMinuteFormOneBar() {
+        aggregator.apply("aapl", T0 + 1_000, 100.0, 10);
+        aggregator.apply("AAPL", T0 + 2_000, 103.0, 5);
+        aggregator.apply("AAPL", T0 + 3_000, 99.0, 1);
+        aggregator.apply("AAPL", T0 + 4_000, 101.0, 2);
+
+        List<CandleDTO> bars = aggregator.getCandles("AAPL", CandleResolution.ONE_MINUTE, T0, T0 + MINUTE);
+
+        assertEquals(1, bars.size());
+        assertBar(bars.get(0), T0, 100.0, 103.0, 99.0, 101.0, 18.0);
+    }
+
+    @Test
+    void closedMinutesRollIntoFiveMinuteBarTogetherWithTheOpenMinute() {
+        aggregator.apply("AAPL", T0, 100.0, 1);
+        aggregator.apply("AAPL", T0 + MINUTE, 110.0, 1);
+        aggregator.apply("AAPL", T0 + 2 * MINUTE, 90.0, 1);
+        aggregator.apply("AAPL", T0 + 3 * MINUTE, 95.0, 1);  // still open, not rolled up yet
+        aggregator.apply("AAPL", T0 + 5 * MINUTE, 96.0, 1);  // opens the next 5-minute bar
+
+        List<CandleDTO> minutes = aggregator.getCandles("AAPL", CandleResolution.ONE_MINUTE, T0, T0 + 10 * MINUTE);
+        List<CandleDTO> fives = aggregator.getCandles("AAPL", CandleResolution.FIVE_MINUTES, T0, T0 + 10 * MINUTE);
+
+        assertEquals(5, minutes.size());
+        assertEquals(2, fives.size());
+        assertBar(fives.get(0), T0, 100.0, 110.0, 90.0, 95.0, 4.0);
+        assertBar(fives.get(1), T0 + 5 * MINUTE, 96.0, 96.0, 96.0, 96.0, 1.0);
+    }
+
+    @Test
+    void hourlyBarIncludesEveryUnrolledLevel() {
+        aggregator.apply("AAPL", T0, 100.0, 1);
+        aggregator.apply("AAPL", T0 + 5 * MINUTE, 120.0, 1);  // closes the first 5-minute bar's only minute
+        aggregator.apply("AAPL", T0 + 6 * MINUTE, 80.0, 1);
+
+        List<CandleDTO> hours = aggregator.getCandles("AAPL", CandleResolution.ONE_HOUR, 0, Long.MAX_VALUE);
+
+        assertEquals(1, hours.size());
+        assertBar(hours.get(0), CandleResolution.ONE_HOUR.barStart(T0), 100.0, 120.0, 80.0, 80.0, 3.0);
+    }
+
+    @Test
+    void priceForARolledUpMinuteIsDropped() {
+        aggregator.apply("AAPL", T0 + MINUTE, 100.0, 1);
+        aggregator.apply("AAPL", T0 + 2 * MINUTE, 101.0, 1);
+        aggregator.apply("AAPL", T0 + MINUTE + 30_000, 500.0, 1);
+
+        List<CandleDTO> minutes = aggregator.getCandles("AAPL", CandleResolution.ONE_MINUTE, T0, T0 + 10 * MINUTE);
+
+        assertEquals(2, minutes.size());
+        assertEquals(100.0, minutes.get(0).getHigh());
+        assertEquals(1L, aggregator.getStats().get("lateTicks"));
+    }
+
+    @Test
+    void fullRingKeepsTheNewestBars() {
+        CandleAggregator small = new CandleAggregator(new PriceBook(), null, 3, 2016, 2160, 400, 500);
+        for (int i = 0; i < 5; i++) {
+            small.apply("AAPL", T0 + i * MINUTE, 100.0 + i, 1);
+        }
+
+        List<CandleDTO> minutes = small.getCandles("AAPL", CandleResolution.ONE_MINUTE, 0, Long.MAX_VALUE);
+
+        assertEquals(3, minutes.size());
+        assertEquals(T0 + 2 * MINUTE, minutes.get(0).getStartTime());
+        assertEquals(104.0, minutes.get(2).getClose());
+    }
+
+    @Test
+    void polledQuotesAreBarredAtTheirTradeTime() {
+        StockDTO quote = new StockDTO(1L, "AAPL", "Apple", 100.0, 0, 0.0, 0.0);
+        quote.setTradeTime(T0 + 1_000);
+        quote.setLastUpdated(T0 + 1_000);
+        aggregator.onUpdate(quote);
+        aggregator.apply("AAPL", T0 + MINUTE, 101.0, 1);  // closes the first minute
+
+        // The market is closed: later polls return the same last trade with a newer fetch time
+        for (int i = 2; i < 10; i++) {
+            StockDTO polled = quote.copy();
+            polled.setCurrentPrice(101.0);
+            polled.setTradeTime(T0 + MINUTE);
+            polled.setLastUpdated(T0 + i * MINUTE);
+            aggregator.onUpdate(polled);
+        }
+
+        List<CandleDTO> minutes = aggregator.getCandles("AAPL", CandleResolution.ONE_MINUTE, 0, Long.MAX_VALUE);
+        assertEquals(2, minutes.size());
+        assertBar(minutes.get(1), T0 + MINUTE, 101.0, 101.0, 101.0, 101.0, 1.0);
+    }
+
+    private static void assertBar(CandleDTO bar, long start, double open, double high, double low, double close, double volume) {
+        assertEquals(start, bar.getStartTime());
+        assertEquals(open, bar.getOpen());
+        assertEquals(high, bar.getHigh());
+        assertEquals(low, bar.getLow());
+        assertEquals(close, bar.getClose());
+        assertEquals(volume, bar.getVolume());
+    }
+}
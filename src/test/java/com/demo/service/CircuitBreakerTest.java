@@ -0,0 +1,130 @@
+package com.demo.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CircuitBreakerTest {
+
+    private final List<StockApiService> services = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        services.forEach(StockApiService::shutdown);
+    }
+
+    @Test
+    void opensAfterConsecutiveFailuresAndShortCircuits() {
+        CircuitBreaker breaker = new CircuitBreaker(3, 60_000);
+
+        breaker.recordFailure();
+        breaker.recordFailure();
+        breaker.recordSuccess();  // resets the run
+        breaker.recordFailure();
+        breaker.recordFailure();
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertTrue(breaker.allowRequest());
+
+        breaker.recordFailure();
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.allowRequest());
+        assertEquals(1L, breaker.getStats().get("timesOpened"));
+        assertEquals(1L, breaker.getStats().get("shortCircuited"));
+    }
+
+    @Test
+    void lapsedOpenCircuitLetsOneTrialThroughAndClosesOnSuccess() {
+        CircuitBreaker breaker = new CircuitBreaker(1, 0);
+        breaker.recordFailure();
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+
+        assertTrue(breaker.allowRequest());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        assertFalse(breaker.allowRequest(), "only one trial at a time");
+
+        breaker.recordSuccess();
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertTrue(breaker.allowRequest());
+        assertTrue(breaker.allowRequest());
+    }
+
+    @Test
+    void failedTrialReopens() {
+        CircuitBreaker breaker = new CircuitBreaker(1, 0);
+        breaker.recordFailure();
+        assertTrue(breaker.allowRequest());
+
+        breaker.recordFailure();
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertEquals(2L, breaker.getStats().get("timesOpened"));
+    }
+
+    @Test
+    void trialRefusedByTheRateLimiterIsHandedBack() {
+        CircuitBreaker breaker = new CircuitBreaker(1, 0);
+        breaker.recordFailure();
+        // One token and no waiting: the first acquire drains it, the next is refused
+        FinnhubRateLimiter limiter = new FinnhubRateLimiter(1, 1, 0);
+        assertTrue(limiter.acquire());
+        AtomicInteger calls = new AtomicInteger();
+        StockApiService service = service(breaker, limiter, failingWith(new HttpServerErrorException(HttpStatus.SERVICE_UNAVAILABLE), calls));
+
+        assertNull(service.fetchCandles("AAPL", "D", 0, 1000, "key"));
+
+        assertEquals(0, calls.get());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        assertTrue(breaker.allowRequest(), "the trial slot is free again");
+    }
+
+    @Test
+    void onlyServerErrorsCountAsFailures() {
+        CircuitBreaker breaker = new CircuitBreaker(2, 60_000);
+        FinnhubRateLimiter limiter = new FinnhubRateLimiter(600, 100, 0);
+        AtomicInteger calls = new AtomicInteger();
+        StockApiService forbidden = service(breaker, limiter, failingWith(new HttpClientErrorException(HttpStatus.FORBIDDEN), calls));
+        StockApiService unavailable = service(breaker, limiter, failingWith(new HttpServerErrorException(HttpStatus.SERVICE_UNAVAILABLE), calls));
+
+        for (int i = 0; i < 5; i++) {
+            assertNull(forbidden.fetchCandles("AAPL", "D", 0, 1000, "key"));
+        }
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+
+        unavailable.fetchCandles("AAPL", "D", 0, 1000, "key");
+        unavailable.fetchCandles("AAPL", "D", 0, 1000, "key");
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertEquals(7, calls.get());
+
+        unavailable.fetchCandles("AAPL", "D", 0, 1000, "key");
+        assertEquals(7, calls.get(), "short-circuited while open");
+    }
+
+    private StockApiService service(CircuitBreaker breaker, FinnhubRateLimiter limiter, RestTemplate restTemplate) {
+        StockApiService service = new StockApiService(new QuoteCache(30_000, 100, 60_000), limiter, null, breaker,
+                null, restTemplate, "", 1.0, false, 1, 15_000);
+        services.add(service);
+        return service;
+    }
+
+    private static RestTemplate failingWith(RuntimeException error, AtomicInteger calls) {
+        return new RestTemplate() {
+            @Override
+            public <T> T getForObject(String url, Class<T> responseType, Object... uriVariables) {
+                calls.incrementAndGet();
+                throw error;
+            }
+        };
+    }
+}
@@ -0,0 +1,91 @@
+package com.demo.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CostBasisCalculatorTest {
+
+    @Test
+    void fifoSellsTheOldestLotsFirst() {
+        CostBasisCalculator calculator = new CostBasisCalculator(CostBasisMethod.FIFO);
+        calculator.buy(1, "AAPL", 10, 100);
+        calculator.buy(1, "AAPL", 10, 120);
+        calculator.sell(1, "AAPL", 15, 130);
+
+        assertEquals(1, calculator.size());
+        assertEquals(5.0, calculator.quantityAt(0));
+        assertEquals(600.0, calculator.costBasisAt(0));
+        // 10 x (130 - 100) + 5 x (130 - 120)
+        assertEquals(350.0, calculator.realizedAt(0));
+    }
+
+    @Test
+    void averageCostSellsAtTheAveragePrice() {
+        CostBasisCalculator calculator = new CostBasisCalculator(CostBasisMethod.AVERAGE);
+        calculator.buy(1, "AAPL", 10, 100);
+        calculator.buy(1, "AAPL", 10, 120);
+        calculator.sell(1, "AAPL", 15, 130);
+
+        assertEquals(5.0, calculator.quantityAt(0));
+        assertEquals(550.0, calculator.costBasisAt(0));
+        assertEquals(300.0, calculator.realizedAt(0));
+    }
+
+    @Test
+    void overSoldUnitsAreUnmatched() {
+        for (CostBasisMethod method : CostBasisMethod.values()) {
+            CostBasisCalculator calculator = new CostBasisCalculator(method);
+            calculator.buy(1, "AAPL", 4, 50);
+            calculator.sell(1, "AAPL", 6, 60);
+
+            assertEquals(0.0, calculator.quantityAt(0));
+            assertEquals(0.0, calculator.costBasisAt(0));
+            assertEquals(40.0, calculator.realizedAt(0));
+            assertEquals(2.0, calculator.unmatchedAt(0));
+        }
+    }
+
+    @Test
+    void keepsLotOrderAcrossGrowthAndCompaction() {
+        CostBasisCalculator calculator = new CostBasisCalculator(CostBasisMethod.FIFO);
+        // Lots priced 1..1000, with a sale of the oldest lot after every second buy
+        int sold = 0;
+        for (int lot = 1; lot <= 1000; lot++) {
+            calculator.buy(7, "MSFT", 1, lot);
+            if (lot % 2 == 0) {
+                calculator.sell(7, "MSFT", 1, 2000);
+                sold++;
+            }
+        }
+        // The lots priced 1..500 were sold, 501..1000 remain
+        assertEquals(500.0, calculator.quantityAt(0));
+        assertEquals(sumOf(501, 1000), calculator.costBasisAt(0));
+        assertEquals(sold * 2000.0 - sumOf(1, 500), calculator.realizedAt(0));
+    }
+
+    @Test
+    void foldsHundredsOfThousandsOfTransactions() {
+        CostBasisCalculator calculator = new CostBasisCalculator(CostBasisMethod.FIFO);
+        int symbols = 1000;
+        for (int i = 0; i < 500_000; i++) {
+            long stockId = i % symbols;
+            if ((i / symbols) % 2 == 0) {
+                calculator.buy(stockId, "S" + stockId, 2, 10);
+            } else {
+                calculator.sell(stockId, "S" + stockId, 1, 15);
+            }
+        }
+        // Each stock saw 250 buys of 2 and 250 sales of 1
+        assertEquals(symbols, calculator.size());
+        for (int i = 0; i < symbols; i++) {
+            assertEquals(250.0, calculator.quantityAt(i));
+            assertEquals(2500.0, calculator.costBasisAt(i));
+            assertEquals(1250.0, calculator.realizedAt(i));
+        }
+    }
+
+    private static double sumOf(int from, int to) {
+        return (double) (from + to) * (to - from + 1) / 2;
+    }
+}
@@ -0,0 +1,70 @@
+package com.demo.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FinnhubRateLimiterTest {
+
+    @Test
+    void burstIsAvailableImmediatelyAndTheRestIsRejectedWithoutWaiting() {
+        FinnhubRateLimiter limiter = new FinnhubRateLimiter(60, 3, 0);
+
+        assertTrue(limiter.acquire());
+        assertTrue(limiter.acquire());
+        assertTrue(limiter.acquire());
+        assertFalse(limiter.acquire());
+
+        assertEquals(3L, limiter.getStats().get("acquired"));
+        assertEquals(1L, limiter.getStats().get("rejected"));
+        assertEquals(0L, limiter.getStats().get("delayed"));
+    }
+
+    @Test
+    void queuedCallerWaitsForTheRefill() {
+        // One token every 10 ms
+        FinnhubRateLimiter limiter = new FinnhubRateLimiter(6000, 1, 1000);
+        assertTrue(limiter.acquire());
+
+        long started = System.nanoTime();
+        assertTrue(limiter.acquire());
+        long waitedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+
+        assertTrue(waitedMillis >= 5 && waitedMillis < 500, "waited " + waitedMillis + " ms");
+        assertEquals(2L, limiter.getStats().get("acquired"));
+        assertEquals(1L, limiter.getStats().get("delayed"));
+    }
+
+    @Test
+    void callerIsRejectedWhenTheWaitExceedsItsTimeout() {
+        // One token per second
+        FinnhubRateLimiter limiter = new FinnhubRateLimiter(60, 1, 30_000);
+        assertTrue(limiter.acquire());
+
+        long started = System.nanoTime();
+        assertFalse(limiter.tryAcquire(100, TimeUnit.MILLISECONDS));
+
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started) < 100, "rejected without sleeping");
+        assertEquals(1L, limiter.getStats().get("rejected"));
+    }
+
+    @Test
+    void interruptedCallerHandsItsTokenBack() {
+        // One token every 200 ms
+        FinnhubRateLimiter limiter = new FinnhubRateLimiter(300, 1, 30_000);
+        assertTrue(limiter.acquire());
+
+        Thread.currentThread().interrupt();
+        assertFalse(limiter.acquire());
+        assertTrue(Thread.interrupted(), "the interrupt is preserved");
+
+        // Had the interrupted caller kept its reservation the next token would be about 400 ms away
+        assertTrue(limiter.tryAcquire(300, TimeUnit.MILLISECONDS));
+        assertEquals(2L, limiter.getStats().get("acquired"));
+        assertEquals(0L, limiter.getStats().get("rejected"));
+    }
+}
@@ -0,0 +1,104 @@
+package com.demo.service;
+
+import com.demo.dto.StockDTO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FinnhubStreamServiceTest {
+
+    private static final double USD_INR = 90.0;
+
+    private StubWebSocketServer server;
+    private PriceBook priceBook;
+    private FinnhubStreamService streamService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = new StubWebSocketServer();
+        priceBook = new PriceBook();
+        streamService = new FinnhubStreamService(priceBook, server.url(), "test-key", true, USD_INR, 50, 200);
+        streamService.syncSubscriptions(List.of("AAPL", "msft"));
+        streamService.start();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        streamService.stop();
+        server.close();
+    }
+
+    @Test
+    void subscribesToTrackedSymbolsAndAppliesTrades() throws Exception {
+        assertEquals(Set.of("AAPL", "MSFT"), nextSubscriptions(2));
+        waitUntil(streamService::isConnected);
+
+        server.sendText("{\"type\":\"trade\",\"data\":[{\"s\":\"AAPL\",\"p\":190.5,\"t\":1700000000000,\"v\":12}]}");
+        waitUntil(() -> priceBook.contains("AAPL"));
+
+        StockDTO quote = priceBook.get("AAPL");
+        assertEquals(190.5 * USD_INR, quote.getCurrentPrice(), 1e-9);
+        assertEquals(1700000000000L, quote.getLastUpdated());
+    }
+
+    @Test
+    void reconnectsAndResubscribesAfterConnectionDrop() throws Exception {
+        assertEquals(Set.of("AAPL", "MSFT"), nextSubscriptions(2));
+        waitUntil(streamService::isConnected);
+
+        server.dropClient();
+        waitUntil(() -> !streamService.isConnected() || server.connections() > 1);
+
+        // A fresh connection receives the full subscription set again
+        assertEquals(Set.of("AAPL", "MSFT"), nextSubscriptions(2));
+        assertEquals(2, server.connections());
+        waitUntil(streamService::isConnected);
+        assertTrue(streamService.getReconnects() >= 1);
+    }
+
+    @Test
+    void subscriptionChangesAreSentToOpenSocket() throws Exception {
+        assertEquals(Set.of("AAPL", "MSFT"), nextSubscriptions(2));
+        waitUntil(streamService::isConnected);
+
+        streamService.syncSubscriptions(List.of("AAPL", "NVDA"));
+        String first = server.received().poll(5, TimeUnit.SECONDS);
+        String second = server.received().poll(5, TimeUnit.SECONDS);
+        assertNotNull(second);
+        assertTrue((first + second).contains("{\"type\":\"subscribe\",\"symbol\":\"NVDA\"}"));
+        assertTrue((first + second).contains("{\"type\":\"unsubscribe\",\"symbol\":\"MSFT\"}"));
+        assertFalse((first + second).contains("AAPL"));
+    }
+
+    private Set<String> nextSubscriptions(int count) throws InterruptedException {
+        Set<String> symbols = new HashSet<>();
+        for (int i = 0; i < count; i++) {
+            String message = server.received().poll(5, TimeUnit.SECONDS);
+            assertNotNull(message, "Expected a subscribe message");
+            assertTrue(message.startsWith("{\"type\":\"subscribe\""), message);
+            symbols.add(message.replaceAll(".*\"symbol\":\"([^\"]+)\".*", "$1"));
+        }
+        return symbols;
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                throw new AssertionError("Timed out waiting for condition");
+            }
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.demo.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HistoryFileReaderTest {
+
+    // Size of the generated fixture; run with -Dhistory.fixture.mb=3072 to read a file larger than one 2 GB mapping
+    private static final long FIXTURE_MB = Long.getLong("history.fixture.mb", 16);
+    private static final int SYMBOLS = 500;
+
+    @Test
+    void parsesRowsAcrossWindowBoundaries() throws Exception {
+        Path file = write("symbol,date,open,high,low,close,volume\n"
+                + "aapl,2024-05-01,169.58,172.71,169.11,169.30,50383100\n"
+                + "AAPL,2024-05-02,172.51,173.42,170.89,173.03,94214900\r\n"
+                + "\n"
+                + "MSFT,1714694400,-1,1,1,1,1\n"
+                + "MSFT,1714694400000,406.66,413.40,404.95,406.66\n"
+                + "BINANCE:BTCUSDT,2024-05-03,5.9e4,6.3E+4,58500.5,62850.00,0.125");
+        try {
+            List<String> symbols = new ArrayList<>();
+            List<double[]> values = new ArrayList<>();
+            // A window smaller than most lines' offsets forces lines to straddle mappings
+            HistoryFileReader reader = new HistoryFileReader(64);
+            reader.read(file, (symbol, startTime, open, high, low, close, volume) -> {
+                symbols.add(symbol);
+                values.add(new double[] { startTime, open, high, low, close, volume });
+            });
+
+            assertEquals(List.of("AAPL", "AAPL", "MSFT", "BINANCE:BTCUSDT"), symbols);
+            assertEquals(4L, reader.getRows());
+            assertEquals(2L, reader.getSkipped());  // header and the negative open
+            assertEquals(dayMillis(2024, 5, 1), (long) values.get(0)[0]);
+            assertEquals(169.30, values.get(0)[4]);
+            assertEquals(50383100.0, values.get(0)[5]);
+            assertEquals(173.03, values.get(1)[4]);
+            assertEquals(dayMillis(2024, 5, 3), (long) values.get(2)[0]);
+            assertEquals(0.0, values.get(2)[5]);  // no volume column
+            assertEquals(59000.0, values.get(3)[1]);
+            assertEquals(63000.0, values.get(3)[2]);
+            assertEquals(0.125, values.get(3)[5]);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    void lineLongerThanWindowFails() throws Exception {
+        Path file = write("AAPL,2024-05-01,169.58,172.71,169.11,169.30,50383100\n");
+        try {
+            assertThrows(IOException.class, () -> new HistoryFileReader(16).read(file, (s, t, o, h, l, c, v) -> { }));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    void epochDayMatchesJavaTime() {
+        for (LocalDate date = LocalDate.of(1899, 12, 25); date.isBefore(LocalDate.of(2101, 1, 10)); date = date.plusDays(17)) {
+            assertEquals(date.toEpochDay(), HistoryFileReader.epochDay(date.getYear(), date.getMonthValue(), date.getDayOfMonth()));
+        }
+    }
+
+    @Test
+    void readsGeneratedFixture() throws Exception {
+        Path file = Files.createTempFile("history-fixture", ".csv");
+        try {
+            long[] written = generateFixture(file, FIXTURE_MB * 1024 * 1024);
+            long expectedRows = written[0];
+            double expectedCloseSum = Double.longBitsToDouble(written[1]);
+
+            Map<String, Boolean> distinctSymbols = new IdentityHashMap<>();
+            double[] closeSum = new double[1];
+            HistoryFileReader reader = new HistoryFileReader();
+            long bytes = reader.read(file, (symbol, startTime, open, high, low, close, volume) -> {
+                distinctSymbols.put(symbol, Boolean.TRUE);
+                closeSum[0] += close;
+            });
+
+            assertEquals(expectedRows, reader.getRows());
+            assertEquals(0L, reader.getSkipped());
+            assertEquals(expectedCloseSum, closeSum[0], Math.abs(expectedCloseSum) * 1e-12);
+            // One String per symbol, however many rows it has
+            assertEquals(SYMBOLS, distinctSymbols.size());
+            assertTrue(bytes >= FIXTURE_MB * 1024 * 1024);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    void symbolsAreSharedAcrossRows() throws Exception {
+        Path file = write("AAPL,2024-05-01,1,1,1,1\nAAPL,2024-05-02,1,1,1,1\n");
+        try {
+            List<String> symbols = new ArrayList<>();
+            new HistoryFileReader().read(file, (symbol, t, o, h, l, c, v) -> symbols.add(symbol));
+            assertSame(symbols.get(0), symbols.get(1));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    // Writes rows until the file reaches the target size; returns the row count and the bits of the close sum
+    private static long[] generateFixture(Path file, long targetBytes) throws IOException {
+        long rows = 0;
+        long bytes = 0;
+        double closeSum = 0;
+        LocalDate start = LocalDate.of(2000, 1, 3);
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.US_ASCII)) {
+            StringBuilder line = new StringBuilder(96);
+            while (bytes < targetBytes) {
+                for (int s = 0; s < SYMBOLS && bytes < targetBytes; s++) {
+                    int cents = 1000 + (int) ((rows * 7919 + s * 104729) % 900_000);
+                    line.setLength(0);
+                    line.append("SYM").append(s).append(',').append(start.plusDays(rows / SYMBOLS % 36_500))
+                            .append(',').append(cents / 100).append('.').append(pad(cents % 100))
+                            .append(',').append(cents / 100 + 1).append('.').append(pad(cents % 100))
+                            .append(',').append(cents / 100).append(".00")
+                            .append(',').append(cents / 100).append('.').append(pad(cents % 100))
+                            .append(',').append(rows % 1_000_000).append('\n');
+                    writer.append(line);
+                    bytes += line.length();
+                    closeSum += cents / 100.0;
+                    rows++;
+                }
+            }
+        }
+        return new long[] { rows, Double.doubleToLongBits(closeSum) };
+    }
+
+    private static String pad(int value) {
+        return value < 10 ? "0" + value : Integer.toString(value);
+    }
+
+    private static Path write(String content) throws IOException {
+        Path file = Files.createTempFile("history", ".csv");
+        Files.write(file, content.getBytes(StandardCharsets.US_ASCII));
+        return file;
+    }
+
+    private static long dayMillis(int year, int month, int day) {
+        return LocalDate.of(year, month, day).atStartOfDay(ZoneOffset.UTC).toInstant().toEpochMilli();
+    }
+}
@@ -0,0 +1,146 @@
+package com.demo.service;
+
+import com.demo.dto.ImportResultDTO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+class HistoryImportServiceTest {
+
+    private static final long DAY = PriceHistoryStore.DAY_MILLIS;
+    // 2024-05-01 00:00 UTC
+    private static final long MAY_1 = 1_714_521_600_000L;
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final PriceHistoryStore historyStore = mock(PriceHistoryStore.class);
+    // What each batchUpdate call received: its SQL, its size and one statement per row with the values set on it
+    private final List<String> statements = new ArrayList<>();
+    private final List<Integer> batchSizes = new ArrayList<>();
+    private final List<PreparedStatement> rows = new ArrayList<>();
+    private Path importDir;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        importDir = Files.createTempDirectory("history-import");
+        when(jdbcTemplate.batchUpdate(anyString(), any(BatchPreparedStatementSetter.class))).thenAnswer(invocation -> {
+            BatchPreparedStatementSetter setter = invocation.getArgument(1);
+            statements.add(invocation.getArgument(0));
+            batchSizes.add(setter.getBatchSize());
+            // Values are read while the batch is still filled, as JdbcTemplate does
+            for (int i = 0; i < setter.getBatchSize(); i++) {
+                PreparedStatement row = mock(PreparedStatement.class);
+                setter.setValues(row, i);
+                rows.add(row);
+            }
+            return new int[setter.getBatchSize()];
+        });
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        try (Stream<Path> files = Files.list(importDir)) {
+            for (Path file : files.toList()) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(importDir);
+    }
+
+    @Test
+    void upsertsConvertedRowsInBatchesAndRecordsEachSymbolRun() throws Exception {
+        write("history.csv", "symbol,date,open,high,low,close,volume\n"
+                + "AAPL,2024-05-01,10,12,9,11,100\n"
+                + "AAPL,2024-05-02,11,13,10,12,200\n"
+                + "MSFT,2024-05-01,20,22,19,21,300\n"
+                + "MSFT,2024-05-02,21,23,20,22,400\n"
+                + "AAPL,2024-05-03,12,14,11,13,500\n");
+
+        ImportResultDTO result = service(3).importFile("history.csv");
+
+        assertEquals(5L, result.getRows());
+        assertEquals(1L, result.getSkippedRows());
+        assertEquals(List.of(3, 2), batchSizes);
+        for (String sql : statements) {
+            assertTrue(sql.startsWith("insert into daily_candle (symbol, start_time, open, high, low, close, volume)"));
+            assertTrue(sql.contains("on duplicate key update"));
+        }
+
+        // Prices are converted at 2 INR per USD; volume is not a price
+        PreparedStatement first = rows.get(0);
+        verify(first).setString(1, "AAPL");
+        verify(first).setLong(2, MAY_1);
+        verify(first).setDouble(3, 20.0);
+        verify(first).setDouble(4, 24.0);
+        verify(first).setDouble(5, 18.0);
+        verify(first).setDouble(6, 22.0);
+        verify(first).setDouble(7, 100.0);
+        PreparedStatement last = rows.get(4);
+        verify(last).setString(1, "AAPL");
+        verify(last).setLong(2, MAY_1 + 2 * DAY);
+        verify(last).setDouble(6, 26.0);
+
+        // Each run of one symbol within a batch is recorded in one call
+        InOrder order = inOrder(historyStore);
+        order.verify(historyStore).recordAll(eq("AAPL"), any(long[].class), any(double[].class), eq(0), eq(2), eq(false));
+        order.verify(historyStore).recordAll(eq("MSFT"), any(long[].class), any(double[].class), eq(2), eq(1), eq(false));
+        order.verify(historyStore).recordAll(eq("MSFT"), any(long[].class), any(double[].class), eq(0), eq(1), eq(false));
+        order.verify(historyStore).recordAll(eq("AAPL"), any(long[].class), any(double[].class), eq(1), eq(1), eq(false));
+        verifyNoMoreInteractions(historyStore);
+    }
+
+    @Test
+    void fullLastBatchIsNotFollowedByAnEmptyOne() throws IOException {
+        write("history.csv", "AAPL,2024-05-01,10,12,9,11,100\n"
+                + "AAPL,2024-05-02,11,13,10,12,200\n");
+
+        service(2).importFile("history.csv");
+
+        assertEquals(List.of(2), batchSizes);
+    }
+
+    @Test
+    void onlyReadsFilesInsideTheImportDirectory() throws IOException {
+        HistoryImportService service = service(10);
+        Path outside = Files.createTempFile("history-outside", ".csv");
+        try {
+            assertThrows(IllegalArgumentException.class, () -> service.importFile("missing.csv"));
+            assertThrows(IllegalArgumentException.class, () -> service.importFile("../" + outside.getFileName()));
+        } finally {
+            Files.delete(outside);
+        }
+        verifyNoInteractions(jdbcTemplate, historyStore);
+    }
+
+    private HistoryImportService service(int batchSize) {
+        return new HistoryImportService(historyStore, jdbcTemplate, importDir.toString(), batchSize, 2.0);
+    }
+
+    private void write(String name, String content) throws IOException {
+        Files.writeString(importDir.resolve(name), content, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,65 @@
+package com.demo.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LttbTest {
+
+    private static final long DAY = 24L * 60 * 60 * 1000;
+
+    @Test
+    void smallSeriesIsReturnedUnchanged() {
+        PriceSeries series = series(100);
+        assertSame(series, Lttb.downsample(series, 100));
+        assertSame(series, Lttb.downsample(series, 500));
+    }
+
+    @Test
+    void keepsEndpointsAndOrder() {
+        PriceSeries series = series(1826);
+        PriceSeries sampled = Lttb.downsample(series, 300);
+
+        assertEquals(300, sampled.size());
+        assertEquals(series.timestampAt(0), sampled.timestampAt(0));
+        assertEquals(series.timestampAt(1825), sampled.timestampAt(299));
+        for (int i = 1; i < sampled.size(); i++) {
+            assertTrue(sampled.timestampAt(i) > sampled.timestampAt(i - 1));
+        }
+    }
+
+    @Test
+    void preservesIsolatedPeaksAndTroughs() {
+        long[] times = new long[1000];
+        double[] prices = new double[1000];
+        for (int i = 0; i < times.length; i++) {
+            times[i] = i * DAY;
+            prices[i] = 100 + (i % 7) * 0.1;
+        }
+        prices[333] = 180;
+        prices[777] = 40;
+
+        PriceSeries sampled = Lttb.downsample(new PriceSeries(times, prices), 50);
+
+        double max = Double.NEGATIVE_INFINITY;
+        double min = Double.POSITIVE_INFINITY;
+        for (int i = 0; i < sampled.size(); i++) {
+            max = Math.max(max, sampled.priceAt(i));
+            min = Math.min(min, sampled.priceAt(i));
+        }
+        assertEquals(180.0, max);
+        assertEquals(40.0, min);
+    }
+
+    private static PriceSeries series(int size) {
+        long[] times = new long[size];
+        double[] prices = new double[size];
+        for (int i = 0; i < size; i++) {
+            times[i] = 1_600_000_000_000L + i * DAY;
+            prices[i] = 100 + Math.sin(i * 0.05) * 10;
+        }
+        return new PriceSeries(times, prices);
+    }
+}
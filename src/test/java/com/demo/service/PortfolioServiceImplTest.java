@@ -0,0 +1,81 @@
+package com.demo.service;
+
+import com.demo.dto.PortfolioDTO;
+import com.demo.model.Portfolio;
+import com.demo.model.Stock;
+import com.demo.repository.PortfolioRepository;
+import com.demo.repository.StockRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+
+// Runs the real queries on an embedded H2 database and counts the statements Hibernate prepares
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class PortfolioServiceImplTest {
+
+    @Autowired
+    private PortfolioRepository portfolioRepository;
+
+    @Autowired
+    private StockRepository stockRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void listsPortfoliosInTwoQueriesRegardlessOfCount() {
+        // Not loaded, so portfolios come from the database
+        PortfolioValueTracker tracker = mock(PortfolioValueTracker.class);
+        PortfolioServiceImpl service = new PortfolioServiceImpl(portfolioRepository, stockRepository,
+                new DataVersions(new PriceBook()), tracker, mock(PositionLedger.class));
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        List<Long> firstStockIds = createPortfolios(1);
+        statistics.clear();
+        assertEquals(1, service.getAllPortfolios().size());
+        assertEquals(2, statistics.getPrepareStatementCount());
+
+        createPortfolios(49);
+        statistics.clear();
+        List<PortfolioDTO> result = service.getAllPortfolios();
+
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(50, result.size());
+        PortfolioDTO first = result.get(0);
+        assertEquals("Portfolio 1", first.getName());
+        assertEquals(Set.copyOf(firstStockIds), Set.copyOf(first.getStockIds()));
+        assertEquals(40.0, first.getTotalValue());
+    }
+
+    // Each portfolio holds two stocks of its own worth 30 and 10; returns the stock ids of the first one created
+    private List<Long> createPortfolios(int count) {
+        List<Long> firstStockIds = null;
+        for (int i = 0; i < count; i++) {
+            int number = (int) portfolioRepository.count() + 1;
+            Stock a = stockRepository.save(new Stock("A" + number, "A" + number, 10.0, 3));
+            Stock b = stockRepository.save(new Stock("B" + number, "B" + number, 2.5, 4));
+            Portfolio portfolio = new Portfolio();
+            portfolio.setName("Portfolio " + number);
+            portfolio.setStocks(new ArrayList<>(List.of(a, b)));
+            portfolioRepository.save(portfolio);
+            if (firstStockIds == null) {
+                firstStockIds = List.of(a.getId(), b.getId());
+            }
+        }
+        portfolioRepository.flush();
+        return firstStockIds;
+    }
+}
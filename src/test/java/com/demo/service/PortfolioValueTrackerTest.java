@@ -0,0 +1,190 @@
+package com.demo.service;
+
+import com.demo.dto.HoldingValueDTO;
+import com.demo.dto.PortfolioDTO;
+import com.demo.dto.StockDTO;
+import com.demo.model.Stock;
+import com.demo.repository.PortfolioRepository;
+import com.demo.repository.StockRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PortfolioValueTrackerTest {
+
+    // Returned by the database fallback, so tests can tell when the running totals take over
+    private static final double DATABASE_SUM = -1.0;
+
+    private final PriceBook priceBook = new PriceBook();
+    private final List<Object[]> stockRows = new ArrayList<>();
+    private final List<Object[]> portfolioRows = new ArrayList<>();
+    private final List<Object[]> membershipRows = new ArrayList<>();
+    private PortfolioValueTracker tracker;
+
+    @AfterEach
+    void tearDown() {
+        if (tracker != null) {
+            tracker.stop();
+        }
+    }
+
+    @Test
+    void answersFromTheDatabaseUntilLoadedThenFromRunningTotals() throws Exception {
+        stockRows.add(new Object[] { 1L, "AAPL", 10, 100.0 });
+        stockRows.add(new Object[] { 2L, "MSFT", 5, 200.0 });
+        membershipRows.add(new Object[] { 7L, 1L });
+        tracker = newTracker();
+
+        assertEquals(DATABASE_SUM, tracker.getTotalValue());
+        awaitLoaded();
+
+        assertEquals(2000.0, tracker.getTotalValue());
+        assertEquals(Map.of(7L, 1000.0), tracker.getPortfolioValues());
+    }
+
+    @Test
+    void priceUpdatesMoveTotalsOfEveryPortfolioHoldingTheSymbol() throws Exception {
+        stockRows.add(new Object[] { 1L, "AAPL", 10, 100.0 });
+        stockRows.add(new Object[] { 2L, "MSFT", 5, 200.0 });
+        membershipRows.add(new Object[] { 7L, 1L });
+        membershipRows.add(new Object[] { 8L, 1L });
+        membershipRows.add(new Object[] { 8L, 2L });
+        tracker = newTracker();
+        tracker.start();
+        tracker.getTotalValue();
+        awaitLoaded();
+
+        priceBook.update(quote("AAPL", 110.0));
+
+        assertEquals(2100.0, tracker.getTotalValue());
+        assertEquals(1100.0, tracker.getPortfolioValues().get(7L));
+        assertEquals(2100.0, tracker.getPortfolioValues().get(8L));
+    }
+
+    @Test
+    void quantityChangesReplaceTheHoldingsContribution() throws Exception {
+        stockRows.add(new Object[] { 1L, "AAPL", 10, 100.0 });
+        membershipRows.add(new Object[] { 7L, 1L });
+        tracker = newTracker();
+        tracker.getTotalValue();
+        awaitLoaded();
+
+        tracker.stockSaved(stock(1L, "AAPL", 4, 100.0));
+        tracker.stockSaved(stock(3L, "TSLA", 2, 250.0));
+
+        assertEquals(900.0, tracker.getTotalValue());
+        assertEquals(400.0, tracker.getPortfolioValues().get(7L));
+
+        tracker.portfolioSaved(7L, "Core", null, List.of(1L, 3L));
+        assertEquals(900.0, tracker.getPortfolioValues().get(7L));
+
+        tracker.stockDeleted(1L);
+        assertEquals(500.0, tracker.getTotalValue());
+        assertEquals(500.0, tracker.getPortfolioValues().get(7L));
+
+        tracker.portfolioDeleted(7L);
+        assertEquals(Map.of(), tracker.getPortfolioValues());
+    }
+
+    @Test
+    void repeatedTicksLeaveNoRoundingResidue() throws Exception {
+        stockRows.add(new Object[] { 1L, "AAPL", 3, 0.1 });
+        tracker = newTracker();
+        tracker.start();
+        tracker.getTotalValue();
+        awaitLoaded();
+
+        long timestamp = System.currentTimeMillis();
+        for (int i = 0; i < 10_000; i++) {
+            StockDTO quote = quote("AAPL", i % 2 == 0 ? 0.7 : 0.1);
+            quote.setLastUpdated(timestamp + i);
+            priceBook.update(quote);
+        }
+
+        assertEquals(0.3, tracker.getTotalValue());
+    }
+
+    @Test
+    void servesPortfoliosWithDayChangeAndWeights() throws Exception {
+        stockRows.add(new Object[] { 1L, "AAPL", 10, 100.0 });
+        stockRows.add(new Object[] { 2L, "MSFT", 5, 200.0 });
+        portfolioRows.add(new Object[] { 8L, "Growth", "Tech" });
+        portfolioRows.add(new Object[] { 7L, "Empty", null });
+        membershipRows.add(new Object[] { 8L, 1L });
+        membershipRows.add(new Object[] { 8L, 2L });
+        tracker = newTracker();
+        tracker.start();
+        assertNull(tracker.getPortfolios());
+        awaitLoaded();
+
+        StockDTO apple = quote("AAPL", 110.0);
+        apple.setPreviousClose(100.0);
+        priceBook.update(apple);
+        // MSFT's previous close is implied by its change percent
+        priceBook.update(new StockDTO(2L, "MSFT", "MSFT", 180.0, 0, 0.0, -10.0));
+
+        List<PortfolioDTO> portfolios = tracker.getPortfolios();
+        assertEquals(2, portfolios.size());
+        assertEquals(7L, portfolios.get(0).getId());
+        assertEquals(0.0, portfolios.get(0).getTotalValue());
+        assertEquals(List.of(), portfolios.get(0).getHoldings());
+
+        PortfolioDTO growth = portfolios.get(1);
+        assertEquals("Growth", growth.getName());
+        assertEquals(2000.0, growth.getTotalValue());
+        assertEquals(0.0, growth.getDayChange());
+        assertEquals(0.0, growth.getDayChangePercent());
+        HoldingValueDTO appleHolding = growth.getHoldings().get(0);
+        assertEquals("AAPL", appleHolding.getSymbol());
+        assertEquals(1100.0, appleHolding.getMarketValue());
+        assertEquals(100.0, appleHolding.getDayChange());
+        assertEquals(0.55, appleHolding.getWeight());
+        assertEquals(-100.0, growth.getHoldings().get(1).getDayChange());
+
+        StockDTO later = quote("AAPL", 120.0);
+        later.setPreviousClose(100.0);
+        later.setLastUpdated(System.currentTimeMillis() + 1000);
+        priceBook.update(later);
+        PortfolioDTO updated = tracker.getPortfolio(8L);
+        assertEquals(2100.0, updated.getTotalValue());
+        assertEquals(100.0, updated.getDayChange());
+        assertEquals(5.0, updated.getDayChangePercent());
+        assertNull(tracker.getPortfolio(9L));
+    }
+
+    private PortfolioValueTracker newTracker() {
+        StockRepository stocks = mock(StockRepository.class);
+        when(stocks.findHoldingRows()).thenReturn(stockRows);
+        when(stocks.sumMarketValue()).thenReturn(DATABASE_SUM);
+        PortfolioRepository portfolios = mock(PortfolioRepository.class);
+        when(portfolios.findNameRows()).thenReturn(portfolioRows);
+        when(portfolios.findStockMemberships()).thenReturn(membershipRows);
+        when(portfolios.sumMarketValueByPortfolio()).thenReturn(List.of());
+        return new PortfolioValueTracker(priceBook, stocks, portfolios);
+    }
+
+    private void awaitLoaded() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (tracker.getTotalValue() == DATABASE_SUM && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    private static Stock stock(Long id, String symbol, int quantity, double price) {
+        Stock stock = new Stock(symbol, symbol, price, quantity);
+        stock.setId(id);
+        return stock;
+    }
+
+    private static StockDTO quote(String symbol, double price) {
+        return new StockDTO(1L, symbol, symbol, price, 0, 0.0, 0.0);
+    }
+}
@@ -0,0 +1,166 @@
+package com.demo.service;
+
+import com.demo.dto.PositionDTO;
+import com.demo.model.Portfolio;
+import com.demo.model.PositionSnapshot;
+import com.demo.model.Stock;
+import com.demo.model.Transaction;
+import com.demo.model.TransactionType;
+import com.demo.repository.PositionSnapshotRepository;
+import com.demo.repository.TransactionRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PositionLedgerTest {
+
+    private final List<Object[]> transactions = new ArrayList<>();
+    private final List<PositionSnapshot> snapshots = new ArrayList<>();
+    private final List<Long> replayedAfter = new ArrayList<>();
+
+    @Test
+    void replaysOnlyTransactionsAfterTheSnapshot() {
+        transactions.add(row(1L, 7L, 1L, TransactionType.BUY, 10, 100.0));
+        transactions.add(row(2L, 7L, 1L, TransactionType.BUY, 10, 120.0));
+        transactions.add(row(3L, 7L, 1L, TransactionType.SELL, 5, 130.0));
+        snapshots.add(new PositionSnapshot(2L, 7L, 1L, "AAPL", 20.0, 2200.0, 0.0, 0.0, 2L, new Date()));
+
+        PositionLedger ledger = newLedger();
+
+        assertEquals(List.of(2L), replayedAfter);
+        PositionDTO position = ledger.getPositions(7L).get(0);
+        assertEquals(15.0, position.getQuantity());
+        assertEquals(20.0, position.getBoughtQuantity());
+        assertEquals(5.0, position.getSoldQuantity());
+        assertEquals(3L, position.getTransactionCount());
+    }
+
+    @Test
+    void snapshotMissingADeletedTransactionIsNotUsed() {
+        transactions.add(row(2L, 7L, 1L, TransactionType.BUY, 10, 120.0));
+        snapshots.add(new PositionSnapshot(2L, 7L, 1L, "AAPL", 20.0, 2200.0, 0.0, 0.0, 2L, new Date()));
+
+        PositionLedger ledger = newLedger();
+
+        assertEquals(List.of(0L), replayedAfter);
+        assertEquals(10.0, ledger.getPositions(7L).get(0).getQuantity());
+    }
+
+    @Test
+    void writesUpdatePositionsAndSnapshotsCoverThem() {
+        transactions.add(row(1L, 7L, 1L, TransactionType.BUY, 10, 100.0));
+        PositionLedger ledger = newLedger();
+
+        transactions.add(row(2L, 7L, 2L, TransactionType.BUY, 4, 50.0));
+        ledger.beginWrite().transactionAdded(transaction(2L, 7L, 2L, TransactionType.BUY, 4, 50.0));
+        assertEquals(2, ledger.getPositions(7L).size());
+
+        transactions.remove(0);
+        ledger.beginWrite().transactionRemoved(transaction(1L, 7L, 1L, TransactionType.BUY, 10, 100.0));
+        List<PositionDTO> positions = ledger.getPositions(7L);
+        assertEquals(1, positions.size());
+        assertEquals(2L, positions.get(0).getStockId());
+
+        ledger.snapshot();
+        assertEquals(1, snapshots.size());
+        assertEquals(2L, snapshots.get(0).getThroughTransactionId());
+        assertEquals(4.0, snapshots.get(0).getBuyQuantity());
+
+        // Nothing changed since, so no new generation
+        ledger.snapshot();
+        assertEquals(1, snapshots.size());
+        assertTrue(ledger.getPositions(8L).isEmpty());
+    }
+
+    @Test
+    void editsAndConcurrentAddsCommitInAnyOrder() {
+        transactions.add(row(1L, 7L, 1L, TransactionType.BUY, 10, 100.0));
+        PositionLedger ledger = newLedger();
+
+        // An edit of transaction 1 commits after an unrelated buy of the same stock was applied
+        ledger.beginWrite().transactionAdded(transaction(2L, 7L, 1L, TransactionType.BUY, 5, 110.0));
+        PositionLedger.Write edit = ledger.beginWrite();
+        edit.transactionRemoved(transaction(1L, 7L, 1L, TransactionType.BUY, 10, 100.0));
+        edit.transactionAdded(transaction(1L, 7L, 1L, TransactionType.SELL, 3, 120.0));
+
+        PositionDTO position = ledger.getPositions(7L).get(0);
+        assertEquals(2.0, position.getQuantity());
+        assertEquals(5.0, position.getBoughtQuantity());
+        assertEquals(3.0, position.getSoldQuantity());
+        assertEquals(2L, position.getTransactionCount());
+
+        // Moving the transaction to another stock leaves the old position with only the other buy
+        PositionLedger.Write move = ledger.beginWrite();
+        move.transactionRemoved(transaction(1L, 7L, 1L, TransactionType.SELL, 3, 120.0));
+        move.transactionAdded(transaction(1L, 7L, 2L, TransactionType.BUY, 1, 50.0));
+        List<PositionDTO> positions = ledger.getPositions(7L);
+        assertEquals(2, positions.size());
+        assertEquals(5.0, positions.get(0).getQuantity());
+        assertEquals(1.0, positions.get(1).getQuantity());
+    }
+
+    private PositionLedger newLedger() {
+        TransactionRepository transactionRepository = mock(TransactionRepository.class);
+        when(transactionRepository.findLedgerRowsAfter(anyLong(), any(Pageable.class))).thenAnswer(invocation -> {
+            long after = invocation.getArgument(0);
+            replayedAfter.add(after);
+            return transactions.stream().filter(row -> (Long) row[0] > after).toList();
+        });
+        when(transactionRepository.countByIdLessThanEqual(anyLong())).thenAnswer(invocation -> {
+            long through = invocation.getArgument(0);
+            return transactions.stream().filter(row -> (Long) row[0] <= through).count();
+        });
+
+        PositionSnapshotRepository snapshotRepository = mock(PositionSnapshotRepository.class);
+        when(snapshotRepository.findLatestThroughTransactionId()).thenAnswer(invocation -> snapshots.stream()
+                .map(PositionSnapshot::getThroughTransactionId).max(Long::compare).orElse(null));
+        when(snapshotRepository.findLatestThroughTransactionIdBefore(anyLong())).thenAnswer(invocation -> {
+            long before = invocation.getArgument(0);
+            return snapshots.stream().map(PositionSnapshot::getThroughTransactionId).filter(id -> id < before)
+                    .max(Long::compare).orElse(null);
+        });
+        when(snapshotRepository.findByThroughTransactionId(anyLong())).thenAnswer(invocation -> {
+            Long through = invocation.getArgument(0);
+            return snapshots.stream().filter(s -> s.getThroughTransactionId().equals(through)).toList();
+        });
+        when(snapshotRepository.saveAll(anyIterable())).thenAnswer(invocation -> {
+            Iterable<PositionSnapshot> saved = invocation.getArgument(0);
+            saved.forEach(snapshots::add);
+            return List.of();
+        });
+        when(snapshotRepository.deleteCovering(anyLong())).thenAnswer(invocation -> {
+            long transactionId = invocation.getArgument(0);
+            snapshots.removeIf(s -> s.getThroughTransactionId() >= transactionId);
+            return 0;
+        });
+
+        PositionLedger ledger = new PositionLedger(transactionRepository, snapshotRepository, 100);
+        ledger.start();
+        return ledger;
+    }
+
+    private static Object[] row(Long id, Long portfolioId, Long stockId, TransactionType type, double amount, double price) {
+        return new Object[] { id, portfolioId, stockId, stockId == 1L ? "AAPL" : "MSFT", type, amount, price };
+    }
+
+    private static Transaction transaction(Long id, Long portfolioId, Long stockId, TransactionType type, double amount, double price) {
+        Portfolio portfolio = new Portfolio();
+        portfolio.setId(portfolioId);
+        Stock stock = new Stock(stockId == 1L ? "AAPL" : "MSFT", "", price, 0);
+        stock.setId(stockId);
+        Transaction transaction = new Transaction(portfolio, stock, type, amount, price, new Date());
+        transaction.setId(id);
+        return transaction;
+    }
+}
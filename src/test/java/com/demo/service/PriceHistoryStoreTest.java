@@ -0,0 +1,80 @@
+package com.demo.service;
+
+import com.demo.dto.StockDTO;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class PriceHistoryStoreTest {
+
+    private static final long MINUTE = 60_000;
+    private static final long DAY = PriceHistoryStore.DAY_MILLIS;
+    // 2024-01-02 00:00 UTC
+    private static final long DAY_START = 1_704_153_600_000L;
+
+    private final PriceHistoryStore store = new PriceHistoryStore(new PriceBook(), MINUTE, 2);
+
+    @Test
+    void livePricesKeepTheLastPerMinuteAndPerDay() {
+        store.record("aapl", DAY_START + 10 * MINUTE + 5_000, 100);
+        store.record("AAPL", DAY_START + 10 * MINUTE + 50_000, 101);
+        store.record("AAPL", DAY_START + 11 * MINUTE, 102);
+        store.record("AAPL", DAY_START + DAY + MINUTE, 103);
+
+        PriceSeries intraday = store.query("AAPL", 0, Long.MAX_VALUE, true);
+        assertArrayEquals(new long[] { DAY_START + 10 * MINUTE, DAY_START + 11 * MINUTE, DAY_START + DAY + MINUTE },
+                intraday.timestamps());
+        assertArrayEquals(new double[] { 101, 102, 103 }, intraday.prices());
+
+        PriceSeries daily = store.query("AAPL", 0, Long.MAX_VALUE, false);
+        assertArrayEquals(new long[] { DAY_START, DAY_START + DAY }, daily.timestamps());
+        assertArrayEquals(new double[] { 102, 103 }, daily.prices());
+    }
+
+    @Test
+    void intradayTierOnlyKeepsTheRetentionWindow() {
+        store.record("AAPL", DAY_START, 100);
+        store.record("AAPL", DAY_START + DAY, 101);
+        store.record("AAPL", DAY_START + 2 * DAY + MINUTE, 102);
+
+        // Two days of retention: the first point is now older than that
+        assertEquals(DAY_START + DAY, store.firstTimestamp("AAPL", true));
+        assertEquals(2, store.query("AAPL", 0, Long.MAX_VALUE, true).size());
+        // Daily closes are kept indefinitely
+        assertEquals(DAY_START, store.firstTimestamp("AAPL", false));
+        assertEquals(3, store.query("AAPL", 0, Long.MAX_VALUE, false).size());
+    }
+
+    @Test
+    void backfilledPointsGoToTheRequestedTierOnly() {
+        long[] times = { DAY_START - 2 * DAY + 3_600_000, DAY_START - DAY + 3_600_000, DAY_START + 3_600_000 };
+        double[] closes = { 10, 11, 12 };
+
+        store.recordAll("MSFT", times, closes, 1, 2, false);
+
+        assertArrayEquals(new long[] { DAY_START - DAY, DAY_START }, store.query("MSFT", 0, Long.MAX_VALUE, false).timestamps());
+        assertNull(store.firstTimestamp("MSFT", true));
+        assertEquals(0, store.query("MSFT", 0, Long.MAX_VALUE, true).size());
+        assertNull(store.firstTimestamp("UNKNOWN", false));
+    }
+
+    @Test
+    void quotesFromThePriceBookAreRecordedAtTheirTradeTime() {
+        StockDTO quote = new StockDTO(1L, "NVDA", "NVIDIA", 500.0, 0, 0.0, 1.0);
+        quote.setTradeTime(DAY_START + 5 * MINUTE);
+        quote.setLastUpdated(DAY_START + 5 * MINUTE);
+        store.onUpdate(quote);
+
+        // Polled again two days later with the market closed: same last trade, no new points
+        StockDTO polled = quote.copy();
+        polled.setLastUpdated(DAY_START + 2 * DAY);
+        store.onUpdate(polled);
+
+        PriceSeries intraday = store.query("NVDA", 0, Long.MAX_VALUE, true);
+        assertArrayEquals(new long[] { DAY_START + 5 * MINUTE }, intraday.timestamps());
+        assertArrayEquals(new double[] { 500.0 }, intraday.prices());
+        assertEquals(1, store.query("NVDA", 0, Long.MAX_VALUE, false).size());
+    }
+}
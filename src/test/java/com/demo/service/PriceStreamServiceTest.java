@@ -0,0 +1,194 @@
+package com.demo.service;
+
+import com.demo.dto.StockDTO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PriceStreamServiceTest {
+
+    private final PriceBook priceBook = new PriceBook();
+    private final List<PriceStreamService> services = new ArrayList<>();
+    private long clock = 1_700_000_000_000L;
+
+    @AfterEach
+    void tearDown() {
+        services.forEach(PriceStreamService::stop);
+    }
+
+    @Test
+    void fansEachUpdateOutToEveryClient() throws InterruptedException {
+        PriceStreamService service = service(2, 10_000);
+        RecordingEmitter first = (RecordingEmitter) service.subscribe(null);
+        RecordingEmitter second = (RecordingEmitter) service.subscribe(List.of());
+
+        publish("AAPL", 101.0);
+        publish("MSFT", 202.0);
+
+        for (RecordingEmitter emitter : List.of(first, second)) {
+            // Pending updates of different symbols go out in no particular order
+            String one = emitter.next();
+            String other = emitter.next();
+            assertQuote(one.contains("AAPL") ? one : other, "AAPL", "101.0");
+            assertQuote(one.contains("AAPL") ? other : one, "MSFT", "202.0");
+        }
+        assertEquals(2L, service.getStats().get("clients"));
+    }
+
+    @Test
+    void filteredClientsOnlyReceiveTheirSymbols() throws InterruptedException {
+        PriceStreamService service = service(2, 10_000);
+        publish("MSFT", 200.0);
+        RecordingEmitter aapl = (RecordingEmitter) service.subscribe(List.of(" aapl "));
+        RecordingEmitter all = (RecordingEmitter) service.subscribe(null);
+        assertQuote(all.next(), "MSFT", "200.0");  // the current price on connect
+
+        publish("MSFT", 201.0);
+        publish("AAPL", 101.0);
+
+        assertQuote(aapl.next(), "AAPL", "101.0");
+        String one = all.next();
+        String other = all.next();
+        assertQuote(one.contains("MSFT") ? one : other, "MSFT", "201.0");
+        assertQuote(one.contains("MSFT") ? other : one, "AAPL", "101.0");
+        assertNull(aapl.poll(200));
+    }
+
+    @Test
+    void slowClientOnlyGetsTheLatestPriceOfEachSymbol() throws InterruptedException {
+        PriceStreamService service = service(1, 10_000);
+        RecordingEmitter client = (RecordingEmitter) service.subscribe(List.of("AAPL"));
+        CountDownLatch gate = new CountDownLatch(1);
+        client.gate = gate;
+
+        publish("AAPL", 100.0);
+        assertTrue(client.blocked.await(5, TimeUnit.SECONDS));
+        publish("AAPL", 101.0);
+        publish("AAPL", 102.0);
+        publish("AAPL", 103.0);
+        gate.countDown();
+
+        assertQuote(client.next(), "AAPL", "100.0");
+        assertQuote(client.next(), "AAPL", "103.0");
+        assertNull(client.poll(200));
+    }
+
+    @Test
+    void stuckClientIsDroppedAndFreesTheSendThread() throws InterruptedException {
+        // One send thread: the healthy client is only served once the stuck send is interrupted
+        PriceStreamService service = service(1, 100);
+        RecordingEmitter stuck = (RecordingEmitter) service.subscribe(List.of("AAPL"));
+        stuck.gate = new CountDownLatch(1);  // never opened
+        publish("AAPL", 100.0);
+        assertTrue(stuck.blocked.await(5, TimeUnit.SECONDS));
+        RecordingEmitter healthy = (RecordingEmitter) service.subscribe(List.of("MSFT"));
+
+        publish("MSFT", 200.0);
+
+        // Checked from heartbeatMillis (at least a second) after start
+        assertTrue(stuck.completed.await(5, TimeUnit.SECONDS));
+        assertNotNull(stuck.error);
+        assertTrue(stuck.interrupted);
+        assertQuote(healthy.next(), "MSFT", "200.0");
+        assertEquals(1L, service.getStats().get("clientsDropped"));
+        assertEquals(1L, service.getStats().get("clients"));
+
+        publish("AAPL", 101.0);
+        publish("MSFT", 201.0);
+        assertQuote(healthy.next(), "MSFT", "201.0");
+        assertNull(stuck.poll(200));
+    }
+
+    private PriceStreamService service(int sendThreads, long slowClientMillis) {
+        QuoteRefresher quoteRefresher = new QuoteRefresher(null, null, priceBook, null, 60_000, 500);
+        PriceStreamService service = new PriceStreamService(priceBook, quoteRefresher, 10, 10, 1000, slowClientMillis,
+                0, sendThreads) {
+            @Override
+            SseEmitter createEmitter(long timeoutMillis) {
+                return new RecordingEmitter();
+            }
+        };
+        service.start();
+        services.add(service);
+        return service;
+    }
+
+    private void publish(String symbol, double price) {
+        StockDTO quote = new StockDTO();
+        quote.setSymbol(symbol);
+        quote.setCurrentPrice(price);
+        quote.setChangePercent(0.0);
+        quote.setLastUpdated(clock += 1000);
+        priceBook.update(quote);
+    }
+
+    private static void assertQuote(String event, String symbol, String price) {
+        assertNotNull(event, "no event for " + symbol);
+        assertTrue(event.contains("\"symbol\":\"" + symbol + "\""), event);
+        assertTrue(event.contains("\"price\":" + price), event);
+    }
+
+    // Records the quote events it is sent; while a gate is set, sends wait for it like a full socket buffer
+    private static class RecordingEmitter extends SseEmitter {
+
+        final BlockingQueue<String> events = new LinkedBlockingQueue<>();
+        final CountDownLatch blocked = new CountDownLatch(1);
+        final CountDownLatch completed = new CountDownLatch(1);
+        volatile CountDownLatch gate;
+        volatile boolean interrupted;
+        volatile Throwable error;
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            StringBuilder event = new StringBuilder();
+            Set<ResponseBodyEmitter.DataWithMediaType> parts = builder.build();
+            for (ResponseBodyEmitter.DataWithMediaType part : parts) {
+                event.append(part.getData());
+            }
+            if (!event.toString().startsWith("event:quote")) {
+                return;  // heartbeat
+            }
+            CountDownLatch waitFor = gate;
+            if (waitFor != null) {
+                blocked.countDown();
+                try {
+                    waitFor.await();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                    throw new InterruptedIOException();
+                }
+            }
+            events.add(event.toString());
+        }
+
+        @Override
+        public void completeWithError(Throwable error) {
+            this.error = error;
+            completed.countDown();
+        }
+
+        String next() throws InterruptedException {
+            return poll(5000);
+        }
+
+        String poll(long millis) throws InterruptedException {
+            return events.poll(millis, TimeUnit.MILLISECONDS);
+        }
+    }
+}
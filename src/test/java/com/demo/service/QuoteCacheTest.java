@@ -0,0 +1,78 @@
+package com.demo.service;
+
+import com.demo.dto.StockDTO;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class QuoteCacheTest {
+
+    @Test
+    void expiredQuotesAreStaleFallbacksUntilTheStaleWindowPasses() throws InterruptedException {
+        QuoteCache cache = new QuoteCache(50, 10, 200);
+        cache.put(quote("aapl", 100.0));
+
+        assertEquals(100.0, cache.get("AAPL").getCurrentPrice());
+
+        Thread.sleep(100);
+        assertNull(cache.get("AAPL"));
+        assertEquals(100.0, cache.getStale(" aapl ").getCurrentPrice());
+        assertEquals(1, cache.size());
+
+        Thread.sleep(150);
+        assertNull(cache.getStale("AAPL"));
+        assertNull(cache.get("AAPL"));
+        assertEquals(0, cache.size());
+        assertEquals(1L, cache.getStats().get("hits"));
+        assertEquals(2L, cache.getStats().get("misses"));
+        assertEquals(1L, cache.getStats().get("expirations"));
+        assertEquals(1L, cache.getStats().get("staleServed"));
+    }
+
+    @Test
+    void storingAgainRestartsTheTtl() throws InterruptedException {
+        QuoteCache cache = new QuoteCache(100, 10, 100);
+        cache.put(quote("AAPL", 100.0));
+        Thread.sleep(60);
+        cache.put(quote("AAPL", 101.0));
+        Thread.sleep(60);
+
+        assertEquals(101.0, cache.get("AAPL").getCurrentPrice());
+    }
+
+    @Test
+    void fullCacheEvictsTheLeastRecentlyUsedQuote() throws InterruptedException {
+        QuoteCache cache = new QuoteCache(60_000, 2, 60_000);
+        cache.put(quote("AAPL", 100.0));
+        Thread.sleep(5);
+        cache.put(quote("MSFT", 200.0));
+        Thread.sleep(5);
+        cache.get("AAPL");
+
+        cache.put(quote("TSLA", 300.0));
+
+        assertEquals(2, cache.size());
+        assertNotNull(cache.get("AAPL"));
+        assertNull(cache.get("MSFT"));
+        assertNotNull(cache.get("TSLA"));
+        assertEquals(1L, cache.getStats().get("evictions"));
+    }
+
+    @Test
+    void callersGetCopies() {
+        QuoteCache cache = new QuoteCache(60_000, 10, 60_000);
+        StockDTO stored = quote("AAPL", 100.0);
+        cache.put(stored);
+        stored.setCurrentPrice(1.0);
+
+        cache.get("AAPL").setCurrentPrice(2.0);
+
+        assertEquals(100.0, cache.get("AAPL").getCurrentPrice());
+    }
+
+    private static StockDTO quote(String symbol, double price) {
+        return new StockDTO(1L, symbol, symbol, price, 0, 0.0, 0.0);
+    }
+}
@@ -0,0 +1,96 @@
+package com.demo.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RiskCalculatorTest {
+
+    private static final long DAY = 24L * 60 * 60 * 1000;
+
+    private final ForkJoinPool pool = new ForkJoinPool(4);
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    void alignsSeriesOnTheirCommonDays() {
+        PriceSeries a = new PriceSeries(new long[] { 0, DAY, 2 * DAY, 3 * DAY }, new double[] { 100, 110, 99, 120 });
+        PriceSeries b = new PriceSeries(new long[] { DAY, 3 * DAY, 4 * DAY }, new double[] { 50, 60, 70 });
+
+        long[] common = RiskCalculator.commonTimestamps(new PriceSeries[] { a, b });
+
+        assertArrayEquals(new long[] { DAY, 3 * DAY }, common);
+        double[] returns = RiskCalculator.returns(a, common);
+        assertEquals(1, returns.length);
+        assertEquals(120.0 / 110 - 1, returns[0], 1e-12);
+    }
+
+    @Test
+    void correlatesSeriesInParallel() {
+        int symbols = 40;
+        int days = 250;
+        double[] base = wave(days, 0);
+        double[][] returns = new double[symbols][];
+        for (int i = 0; i < symbols; i++) {
+            // Even rows move with the base series, odd rows against it
+            double scale = (i % 2 == 0 ? 1 : -1) * (1 + i * 0.1);
+            returns[i] = new double[days];
+            for (int t = 0; t < days; t++) {
+                returns[i][t] = base[t] * scale;
+            }
+        }
+
+        double[][] matrix = RiskCalculator.correlation(returns, pool);
+
+        for (int i = 0; i < symbols; i++) {
+            for (int j = 0; j < symbols; j++) {
+                double expected = (i % 2) == (j % 2) ? 1.0 : -1.0;
+                assertEquals(expected, matrix[i][j], 1e-9);
+            }
+        }
+    }
+
+    @Test
+    void valueAtRiskOfKnownDistributions() {
+        double[] returns = new double[100];
+        for (int i = 0; i < returns.length; i++) {
+            returns[i] = (i - 50) / 1000.0;  // -5% to +4.9%, evenly
+        }
+        // The 5th lowest return is -4.5%
+        assertEquals(0.045, RiskCalculator.historicalVar(returns, 0.95), 1e-12);
+
+        assertEquals(1.6448536, RiskCalculator.normalQuantile(0.95), 1e-6);
+        assertEquals(-2.3263479, RiskCalculator.normalQuantile(0.01), 1e-6);
+        double sd = RiskCalculator.standardDeviation(returns);
+        double mean = RiskCalculator.mean(returns);
+        assertEquals(1.6448536 * sd - mean, RiskCalculator.parametricVar(returns, 0.95), 1e-8);
+    }
+
+    @Test
+    void betaOfAScaledSeriesIsItsScale() {
+        double[] market = wave(250, 3);
+        double[] stock = new double[market.length];
+        for (int t = 0; t < market.length; t++) {
+            stock[t] = 1.5 * market[t] + 0.0001;
+        }
+        double beta = RiskCalculator.covariance(stock, market) / RiskCalculator.covariance(market, market);
+        assertEquals(1.5, beta, 1e-12);
+        assertEquals(RiskCalculator.standardDeviation(stock) * Math.sqrt(252),
+                RiskCalculator.annualize(RiskCalculator.standardDeviation(stock)), 1e-15);
+    }
+
+    private static double[] wave(int size, int phase) {
+        double[] values = new double[size];
+        for (int t = 0; t < size; t++) {
+            values[t] = Math.sin((t + phase) * 0.3) * 0.01 + Math.cos(t * 0.07) * 0.004;
+        }
+        return values;
+    }
+}
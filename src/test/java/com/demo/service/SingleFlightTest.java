@@ -0,0 +1,109 @@
+package com.demo.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SingleFlightTest {
+
+    private static final int CALLERS = 50;
+
+    @Test
+    void concurrentCallersForSameSymbolShareOneUpstreamRequest() throws Exception {
+        SingleFlight<String, Double> flight = new SingleFlight<>();
+        AtomicInteger upstreamRequests = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+
+        ExecutorService pool = Executors.newFixedThreadPool(CALLERS);
+        try {
+            List<Future<Double>> results = new ArrayList<>();
+            for (int i = 0; i < CALLERS; i++) {
+                results.add(pool.submit(() -> flight.execute("AAPL", () -> {
+                    upstreamRequests.incrementAndGet();
+                    awaitQuietly(release);
+                    return 187.5;
+                })));
+            }
+
+            // Hold the upstream call open until every other caller has joined it
+            waitUntil(() -> flight.getSharedCalls() == CALLERS - 1);
+            release.countDown();
+
+            for (Future<Double> result : results) {
+                assertEquals(187.5, result.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertEquals(1, upstreamRequests.get());
+        assertEquals(1, flight.getExecutions());
+        assertEquals(0, flight.inFlightCount());
+    }
+
+    @Test
+    void failureIsSharedAndNextCallGoesUpstreamAgain() throws Exception {
+        SingleFlight<String, Double> flight = new SingleFlight<>();
+        AtomicInteger upstreamRequests = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+
+        ExecutorService pool = Executors.newFixedThreadPool(CALLERS);
+        try {
+            List<Future<Double>> results = new ArrayList<>();
+            for (int i = 0; i < CALLERS; i++) {
+                results.add(pool.submit(() -> flight.execute("MSFT", () -> {
+                    upstreamRequests.incrementAndGet();
+                    awaitQuietly(release);
+                    throw new RuntimeException("Empty quote response");
+                })));
+            }
+
+            waitUntil(() -> flight.getSharedCalls() == CALLERS - 1);
+            release.countDown();
+
+            for (Future<Double> result : results) {
+                Exception e = assertThrows(Exception.class, () -> result.get(5, TimeUnit.SECONDS));
+                assertTrue(e.getCause().getMessage().contains("Empty quote response"));
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        assertEquals(1, upstreamRequests.get());
+
+        // Failures are not cached: a later call starts a new request
+        assertEquals(42.0, flight.execute("MSFT", () -> {
+            upstreamRequests.incrementAndGet();
+            return 42.0;
+        }));
+        assertEquals(2, upstreamRequests.get());
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void waitUntil(java.util.function.BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                throw new AssertionError("Timed out waiting for concurrent callers");
+            }
+            Thread.sleep(5);
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.demo.service;
+
+import com.demo.dto.StockDTO;
+import com.demo.model.CompanyProfile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.RestTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StockApiServiceTest {
+
+    private static final int CALLERS = 20;
+    private static final byte[] QUOTE = ("{\"c\":200.0,\"d\":2.0,\"dp\":1.0,\"h\":201.0,\"l\":198.0,\"o\":199.0,"
+            + "\"pc\":198.0,\"t\":1727294400}").getBytes(StandardCharsets.UTF_8);
+
+    private final AtomicInteger quoteRequests = new AtomicInteger();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private StockApiService service;
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        if (service != null) {
+            service.shutdown();
+        }
+    }
+
+    @Test
+    void concurrentLookupsOfOneSymbolReachFinnhubOnce() throws Exception {
+        service = new StockApiService(new QuoteCache(30_000, 100, 60_000), new FinnhubRateLimiter(600, 100, 0),
+                knownProfiles(), new CircuitBreaker(5, 30_000), null, heldQuoteEndpoint(), "key", 2.0, false, 1, 15_000);
+
+        ExecutorService pool = Executors.newFixedThreadPool(CALLERS);
+        try {
+            List<Future<StockDTO>> results = new ArrayList<>();
+            for (int i = 0; i < CALLERS; i++) {
+                results.add(pool.submit(() -> service.fetchStockQuote("AAPL", null)));
+            }
+
+            // Hold the upstream call open until every other caller has joined it
+            waitUntil(() -> service.getQuoteCacheStats().get("coalescedCalls") == CALLERS - 1);
+            release.countDown();
+
+            List<StockDTO> quotes = new ArrayList<>();
+            for (Future<StockDTO> result : results) {
+                StockDTO quote = result.get(5, TimeUnit.SECONDS);
+                assertEquals(400.0, quote.getCurrentPrice());
+                assertEquals("Apple Inc", quote.getCompanyName());
+                quotes.add(quote);
+            }
+            // Callers may mutate what they get, so each has its own copy
+            assertNotSame(quotes.get(0), quotes.get(1));
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertEquals(1, quoteRequests.get());
+        assertEquals(1L, service.getQuoteCacheStats().get("upstreamCalls"));
+
+        // Later lookups are answered from the cache
+        assertEquals(400.0, service.fetchStockQuote("aapl", null).getCurrentPrice());
+        assertEquals(1, quoteRequests.get());
+    }
+
+    // Counts quote requests and answers them once the test releases the latch
+    private RestTemplate heldQuoteEndpoint() {
+        return new RestTemplate() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <T> T getForObject(String url, Class<T> responseType, Object... uriVariables) {
+                if (!url.contains("/quote?")) {
+                    throw new IllegalStateException("Unexpected request " + url);
+                }
+                quoteRequests.incrementAndGet();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return (T) QUOTE;
+            }
+        };
+    }
+
+    // Every symbol has a fresh profile, so quotes need no profile request
+    private static CompanyProfileCache knownProfiles() {
+        return new CompanyProfileCache(null, null, 30) {
+            @Override
+            public CompanyProfile get(String symbol) {
+                return new CompanyProfile(symbol, "Apple Inc", "NASDAQ", "Technology", "USD", null, new Date());
+            }
+        };
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "timed out");
+            Thread.sleep(5);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.demo.service;
+
+import com.demo.dto.FinnhubCandles;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class StockHistoryServiceTest {
+
+    private static final long MINUTE = 60_000;
+    private static final long HOUR = 60 * MINUTE;
+
+    private final PriceHistoryStore store = new PriceHistoryStore(new PriceBook(), MINUTE, 7);
+    private final List<String> candleRequests = new ArrayList<>();
+    private final long now = System.currentTimeMillis() / MINUTE * MINUTE;
+    private StockApiService stockApiService;
+    private StockHistoryService service;
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+        stockApiService.shutdown();
+    }
+
+    @Test
+    void trackedSymbolWithOnlyLiveTicksIsStillBackfilled() {
+        service = service();
+        // A live tick from the quote pipeline, so the intraday tier is not empty
+        store.record("AAPL", now - 5 * MINUTE, 103.0);
+
+        PriceSeries series = service.getSeries("aapl", HistoryRange.ONE_DAY, null);
+
+        assertEquals(List.of("AAPL:5"), candleRequests);
+        assertArrayEquals(new long[] { now - 20 * HOUR, now - 10 * HOUR, now - 5 * MINUTE }, series.timestamps());
+        assertArrayEquals(new double[] { 101.0, 102.0, 103.0 }, series.prices());
+
+        // Covered now, and live ticks keep it current
+        service.getSeries("AAPL", HistoryRange.ONE_DAY, null);
+        assertEquals(List.of("AAPL:5"), candleRequests);
+    }
+
+    private StockHistoryService service() {
+        stockApiService = new StockApiService(null, null, null, null, null, null, "key", 1.0, false, 1, 15_000) {
+            @Override
+            public FinnhubCandles fetchCandles(String symbol, String resolution, long from, long to, String apiKey) {
+                synchronized (candleRequests) {
+                    candleRequests.add(symbol + ":" + resolution);
+                }
+                String body = "{\"s\":\"ok\",\"t\":[" + (now - 20 * HOUR) / 1000 + "," + (now - 10 * HOUR) / 1000
+                        + "],\"c\":[101.0,102.0]}";
+                return FinnhubCandles.parse(body.getBytes(StandardCharsets.UTF_8));
+            }
+        };
+        QuoteRefresher quoteRefresher = new QuoteRefresher(null, null, new PriceBook(), null, 60_000, 500) {
+            @Override
+            public boolean isTracked(String symbol) {
+                return true;
+            }
+        };
+        return new StockHistoryService(store, stockApiService, quoteRefresher, 3_600_000, 2000, 1, 100, 1);
+    }
+}
@@ -0,0 +1,147 @@
+package com.demo.service;
+
+import com.demo.dto.StockDTO;
+import com.demo.dto.StockPageDTO;
+import com.demo.model.Stock;
+import com.demo.repository.StockRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+// Pages through stocks stored in an embedded H2 database with the real keyset and offset queries
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+class StockServiceImplTest {
+
+    @Autowired
+    private StockRepository stockRepository;
+
+    private final PriceBook priceBook = new PriceBook();
+    private StockServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        service = new StockServiceImpl(stockRepository, mock(StockApiService.class), priceBook,
+                mock(QuoteRefresher.class), new DataVersions(priceBook), mock(PortfolioValueTracker.class));
+    }
+
+    @Test
+    void cursorPagesVisitEveryStockOnceWithDuplicateSymbolsOrderedById() {
+        // Three rows share AAPL and two share MSFT, so page boundaries fall inside runs of one symbol
+        List<Stock> stored = new ArrayList<>();
+        for (String symbol : List.of("MSFT", "AAPL", "IBM", "AAPL", "GOOG", "MSFT", "AAPL")) {
+            stored.add(stockRepository.save(new Stock(symbol, symbol, 10.0, 1)));
+        }
+        stored.sort(Comparator.comparing(Stock::getSymbol).thenComparing(Stock::getId));
+
+        List<Object> visited = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            StockPageDTO page = service.getStocksPage(null, 2, cursor, null, List.of("id", "symbol"));
+            assertNull(page.getPage());
+            assertNull(page.getTotalElements());
+            assertTrue(page.getContent().size() <= 2);
+            for (Map<String, Object> row : page.getContent()) {
+                visited.add(row.get("id"));
+            }
+            cursor = page.getNextCursor();
+            pages++;
+        } while (cursor != null);
+
+        assertEquals(stored.stream().map(Stock::getId).toList(), visited);
+        assertEquals(4, pages);
+    }
+
+    @Test
+    void fullLastPageHasNoNextCursor() {
+        stockRepository.save(new Stock("AAPL", "Apple", 10.0, 1));
+        stockRepository.save(new Stock("MSFT", "Microsoft", 10.0, 1));
+
+        StockPageDTO first = service.getStocksPage(null, 2, null, "symbol,asc", null);
+
+        assertEquals(2, first.getContent().size());
+        assertNull(first.getNextCursor());
+        StockPageDTO single = service.getStocksPage(null, 1, null, null, null);
+        assertNotNull(single.getNextCursor());
+        StockPageDTO rest = service.getStocksPage(null, 1, single.getNextCursor(), null, null);
+        assertEquals("MSFT", rest.getContent().get(0).get("symbol"));
+        assertNull(rest.getNextCursor());
+    }
+
+    @Test
+    void rejectsInvalidCursorsAndUnsupportedCursorOrders() {
+        String withoutId = Base64.getUrlEncoder().withoutPadding().encodeToString("AAPL".getBytes(StandardCharsets.UTF_8));
+        String badId = Base64.getUrlEncoder().withoutPadding().encodeToString("AAPL\nx".getBytes(StandardCharsets.UTF_8));
+
+        for (String cursor : List.of("not a cursor!", withoutId, badId)) {
+            IllegalArgumentException error = assertThrows(IllegalArgumentException.class,
+                    () -> service.getStocksPage(null, 10, cursor, null, null));
+            assertEquals("Invalid cursor", error.getMessage());
+        }
+        assertThrows(IllegalArgumentException.class, () -> service.getStocksPage(null, 10, null, "symbol,desc", null));
+        assertThrows(IllegalArgumentException.class, () -> service.getStocksPage(null, 10, null, "totalValue", null));
+        assertThrows(IllegalArgumentException.class, () -> service.getStocksPage(0, 10, null, "companyName", null));
+        assertThrows(IllegalArgumentException.class, () -> service.getStocksPage(0, 0, null, null, null));
+    }
+
+    @Test
+    void offsetPagesSortInTheDatabaseAndBreakTiesOnId() {
+        Stock small = stockRepository.save(new Stock("AAA", "A", 10.0, 1));
+        Stock tiedFirst = stockRepository.save(new Stock("BBB", "B", 50.0, 2));
+        Stock large = stockRepository.save(new Stock("CCC", "C", 300.0, 1));
+        Stock tiedSecond = stockRepository.save(new Stock("DDD", "D", 25.0, 4));
+        // The live price written back by the refresher takes precedence over the purchase price
+        stockRepository.updateLiveQuote("AAA", 1000.0, 1.5);
+
+        StockPageDTO first = service.getStocksPage(0, 3, null, "totalValue,desc", List.of("id"));
+        StockPageDTO second = service.getStocksPage(1, 3, null, "totalValue,desc", List.of("id"));
+
+        assertEquals(List.of(small.getId(), large.getId(), tiedFirst.getId()), ids(first));
+        assertEquals(List.of(tiedSecond.getId()), ids(second));
+        assertEquals(0, first.getPage());
+        assertEquals(4L, first.getTotalElements());
+        assertEquals(2, first.getTotalPages());
+        assertNull(first.getNextCursor());
+
+        StockPageDTO byChange = service.getStocksPage(0, 1, null, "changePercent,desc", List.of("symbol"));
+        assertEquals("AAA", byChange.getContent().get(0).get("symbol"));
+    }
+
+    @Test
+    void projectsOnlyTheRequestedFieldsWithLivePrices() {
+        stockRepository.save(new Stock("AAPL", "Apple", 100.0, 3));
+        StockDTO quote = new StockDTO();
+        quote.setSymbol("AAPL");
+        quote.setCompanyName("Apple");
+        quote.setCurrentPrice(120.0);
+        quote.setChangePercent(2.0);
+        priceBook.update(quote);
+
+        Map<String, Object> row = service.getStocksPage(0, 10, null, null, List.of("totalValue", " symbol")).getContent().get(0);
+
+        assertEquals(List.of("totalValue", "symbol"), new ArrayList<>(row.keySet()));
+        assertEquals(360.0, row.get("totalValue"));
+        assertEquals("AAPL", row.get("symbol"));
+        assertEquals(13, service.getStocksPage(0, 10, null, null, null).getContent().get(0).size());
+        assertThrows(IllegalArgumentException.class, () -> service.getStocksPage(0, 10, null, null, List.of("livePrice")));
+    }
+
+    private static List<Object> ids(StockPageDTO page) {
+        return page.getContent().stream().map(row -> row.get("id")).toList();
+    }
+}
@@ -0,0 +1,62 @@
+package com.demo.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class TimeSeriesTest {
+
+    @Test
+    void keepsPointsOrderedWhateverTheInsertOrder() {
+        TimeSeries series = new TimeSeries(4);
+        series.put(30, 3.0);
+        series.put(10, 1.0);
+        series.put(50, 5.0);
+        series.put(20, 2.0);
+        series.put(40, 4.0);
+        series.put(20, 2.5);  // overwrites, no second point
+
+        PriceSeries all = series.range(Long.MIN_VALUE, Long.MAX_VALUE);
+
+        assertArrayEquals(new long[] { 10, 20, 30, 40, 50 }, all.timestamps());
+        assertArrayEquals(new double[] { 1.0, 2.5, 3.0, 4.0, 5.0 }, all.prices());
+        assertEquals(10, series.firstTime());
+    }
+
+    @Test
+    void rangeIsInclusiveAtBothEnds() {
+        TimeSeries series = filled(100);
+
+        PriceSeries slice = series.range(20, 40);
+
+        assertArrayEquals(new long[] { 20, 30, 40 }, slice.timestamps());
+        assertSame(PriceSeries.EMPTY, series.range(41, 49));
+        assertSame(PriceSeries.EMPTY, series.range(2000, Long.MAX_VALUE));
+        assertEquals(100, series.range(0, Long.MAX_VALUE).size());
+    }
+
+    @Test
+    void removeBeforeDropsOnlyOlderPoints() {
+        TimeSeries series = filled(10);
+
+        series.removeBefore(35);
+
+        assertEquals(6, series.size());
+        assertEquals(40, series.firstTime());
+        series.removeBefore(0);
+        assertEquals(6, series.size());
+        series.put(100, 10.0);
+        assertArrayEquals(new long[] { 40, 50, 60, 70, 80, 90, 100 }, series.range(0, Long.MAX_VALUE).timestamps());
+    }
+
+    // Points at 0, 10, 20, ... with value time / 10
+    private static TimeSeries filled(int points) {
+        TimeSeries series = new TimeSeries(4);
+        for (int i = 0; i < points; i++) {
+            series.put(i * 10L, i);
+        }
+        return series;
+    }
+}